@@ -0,0 +1,105 @@
+package heap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Compares LeftistHeap with java.util.PriorityQueue on an insert/poll
+ * workload and on a meld-heavy workload, where many small queues are
+ * repeatedly merged pairwise into one. PriorityQueue has no meld, so
+ * addAll is used, which takes linear time in the size of the added
+ * queue. Usage:
+ * <pre>
+ * java heap.HeapBenchmark [n] [queues]
+ * </pre>
+ *
+ * @author agent
+ */
+public class HeapBenchmark {
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int queues = args.length > 1 ? Integer.parseInt(args[1]) : 1024;
+        Random random = new Random(48);
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = random.nextInt();
+        }
+
+        for (int round = 0; round < 5; round++) {
+            // insert all values, then poll them all
+            long start = System.nanoTime();
+            PriorityQueue<Integer> queue = new PriorityQueue<>();
+            for (int value : values) {
+                queue.add(value);
+            }
+            long sum = 0;
+            while (!queue.isEmpty()) {
+                sum += queue.poll();
+            }
+            long pqTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            LeftistHeap<Integer> heap = new LeftistHeap<>();
+            for (int value : values) {
+                heap.insert(value);
+            }
+            while (!heap.isEmpty()) {
+                sum -= heap.deleteMin();
+            }
+            long heapTime = System.nanoTime() - start;
+            System.out.printf("insert/poll %d: PriorityQueue %7.1f ms, LeftistHeap %7.1f ms"
+                    + " (checksum %d)%n", n, pqTime / 1e6, heapTime / 1e6, sum);
+
+            // meld queues pairwise until one is left, as in a tournament;
+            // only the melding is timed
+            List<PriorityQueue<Integer>> pqs = new ArrayList<>();
+            for (int q = 0; q < queues; q++) {
+                pqs.add(new PriorityQueue<>());
+            }
+            for (int i = 0; i < n; i++) {
+                pqs.get(i % queues).add(values[i]);
+            }
+            start = System.nanoTime();
+            while (pqs.size() > 1) {
+                List<PriorityQueue<Integer>> next = new ArrayList<>();
+                for (int q = 0; q + 1 < pqs.size(); q += 2) {
+                    PriorityQueue<Integer> merged = pqs.get(q);
+                    merged.addAll(pqs.get(q + 1));
+                    sum += merged.poll();
+                    next.add(merged);
+                }
+                if (pqs.size() % 2 != 0) {
+                    next.add(pqs.get(pqs.size() - 1));
+                }
+                pqs = next;
+            }
+            pqTime = System.nanoTime() - start;
+            List<LeftistHeap<Integer>> heaps = new ArrayList<>();
+            for (int q = 0; q < queues; q++) {
+                heaps.add(new LeftistHeap<>());
+            }
+            for (int i = 0; i < n; i++) {
+                heaps.get(i % queues).insert(values[i]);
+            }
+            start = System.nanoTime();
+            while (heaps.size() > 1) {
+                List<LeftistHeap<Integer>> next = new ArrayList<>();
+                for (int q = 0; q + 1 < heaps.size(); q += 2) {
+                    LeftistHeap<Integer> merged = heaps.get(q);
+                    merged.meld(heaps.get(q + 1));
+                    sum -= merged.deleteMin();
+                    next.add(merged);
+                }
+                if (heaps.size() % 2 != 0) {
+                    next.add(heaps.get(heaps.size() - 1));
+                }
+                heaps = next;
+            }
+            heapTime = System.nanoTime() - start;
+            System.out.printf("meld %d queues: PriorityQueue %7.1f ms, LeftistHeap %7.1f ms"
+                    + " (checksum %d)%n", queues, pqTime / 1e6, heapTime / 1e6, sum);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package heap;
+
+import tree.Node;
+
+/**
+ * Helper class for LeftistHeap: a binary tree Node that additionally
+ * knows its parent, so that decreaseKey can cut it out of the heap, and
+ * its rank, i.e., the length of the path to the nearest missing child
+ * along the right spine.
+ *
+ * @param <T> type of the values to be stored in the HeapNodes
+ * @author agent
+ */
+class HeapNode<T> extends Node<T> implements LeftistHeap.Handle<T> {
+    private HeapNode<T> parent; // null for the root of a heap
+    private int rank; // 1 + rank of the right child; 0 once deleted
+
+    /**
+     * Constructs a new HeapNode with data as the encapsulated value and
+     * no children.
+     *
+     * @param data the data element to store in this HeapNode
+     */
+    HeapNode(T data) {
+        super(data);
+        this.rank = 1;
+    }
+
+    HeapNode<T> left() {
+        return (HeapNode<T>) getLeft();
+    }
+
+    HeapNode<T> right() {
+        return (HeapNode<T>) getRight();
+    }
+
+    HeapNode<T> parent() {
+        return this.parent;
+    }
+
+    void setParent(HeapNode<T> parent) {
+        this.parent = parent;
+    }
+
+    int rank() {
+        return this.rank;
+    }
+
+    void setRank(int rank) {
+        this.rank = rank;
+    }
+
+    /**
+     * @param node a subtree; may be null
+     * @return the rank of node, 0 for null
+     */
+    static <T> int rankOf(HeapNode<T> node) {
+        return node == null ? 0 : node.rank;
+    }
+
+    /**
+     * Restores the leftist property of this HeapNode after a change of
+     * one of its children and recomputes its rank.
+     *
+     * @return whether the rank of this HeapNode has changed
+     */
+    boolean fix() {
+        HeapNode<T> left = left();
+        HeapNode<T> right = right();
+        if (rankOf(left) < rankOf(right)) {
+            setLeft(right);
+            setRight(left);
+        }
+        int newRank = 1 + rankOf(right());
+        boolean changed = newRank != this.rank;
+        this.rank = newRank;
+        return changed;
+    }
+
+    @Override
+    public boolean isValid() {
+        return this.rank > 0;
+    }
+}
@@ -0,0 +1,254 @@
+package heap;
+
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+
+/**
+ * A mergeable priority queue implemented as a leftist heap on binary
+ * tree Nodes: every Node is at most as large as its children, and the
+ * rank of the left child of every Node is at least the rank of its right
+ * child. Thus the right spine of a heap with n elements has at most
+ * log(n + 1) Nodes, and meld only walks down the right spines of two
+ * heaps. This gives O(log n) worst-case time for insert, deleteMin, meld
+ * and decreaseKey and O(1) for findMin, whereas melding two
+ * java.util.PriorityQueues takes linear time.
+ *
+ * All operations use loops instead of recursion. insert returns a
+ * Handle to the new element, which can be passed to decreaseKey of the
+ * heap that contains the element, also after melding.
+ *
+ * @param <T> the type of the elements
+ * @author agent
+ */
+public class LeftistHeap<T> {
+
+    /**
+     * A reference to an element of a LeftistHeap as returned by insert.
+     *
+     * @param <T> the type of the element
+     */
+    public interface Handle<T> {
+
+        /**
+         * @return the current value of the element
+         */
+        T getData();
+
+        /**
+         * @return false iff the element has been removed by deleteMin
+         */
+        boolean isValid();
+    }
+
+    private HeapNode<T> root; // null iff this heap is empty
+    private int size;
+    private final Comparator<? super T> comparator;
+
+    /**
+     * Constructs an empty heap ordered by the natural ordering of the
+     * elements.
+     */
+    @SuppressWarnings("unchecked")
+    public LeftistHeap() {
+        this((x, y) -> ((Comparable<? super T>) x).compareTo(y));
+    }
+
+    /**
+     * Constructs an empty heap ordered by comparator.
+     *
+     * @param comparator the ordering of the elements; non-null
+     */
+    public LeftistHeap(Comparator<? super T> comparator) {
+        this.root = null;
+        this.size = 0;
+        this.comparator = comparator;
+    }
+
+    /**
+     * Adds value to this heap.
+     *
+     * @param value the element to add
+     * @return a Handle to the new element for decreaseKey
+     */
+    public Handle<T> insert(T value) {
+        HeapNode<T> node = new HeapNode<>(value);
+        this.root = merge(this.root, node);
+        this.size++;
+        return node;
+    }
+
+    /**
+     * @return the smallest element of this heap
+     * @throws NoSuchElementException if this heap is empty
+     */
+    public T findMin() {
+        if (this.root == null) {
+            throw new NoSuchElementException("Heap is empty!");
+        }
+        return this.root.getData();
+    }
+
+    /**
+     * Removes the smallest element from this heap; its Handle becomes
+     * invalid.
+     *
+     * @return the smallest element of this heap
+     * @throws NoSuchElementException if this heap is empty
+     */
+    public T deleteMin() {
+        if (this.root == null) {
+            throw new NoSuchElementException("Heap is empty!");
+        }
+        HeapNode<T> min = this.root;
+        HeapNode<T> left = min.left();
+        HeapNode<T> right = min.right();
+        if (left != null) {
+            left.setParent(null);
+        }
+        if (right != null) {
+            right.setParent(null);
+        }
+        this.root = merge(left, right);
+        this.size--;
+        min.setLeft(null);
+        min.setRight(null);
+        min.setRank(0);
+        return min.getData();
+    }
+
+    /**
+     * Moves all elements of other into this heap and leaves other empty.
+     * Handles to elements of other become Handles into this heap. Both
+     * heaps must use the same ordering.
+     *
+     * @param other the heap to meld into this one; non-null
+     * @throws IllegalArgumentException if other is this heap
+     */
+    public void meld(LeftistHeap<T> other) {
+        if (other == this) {
+            throw new IllegalArgumentException("Illegal heap: cannot meld a heap with itself");
+        }
+        this.root = merge(this.root, other.root);
+        this.size += other.size;
+        other.root = null;
+        other.size = 0;
+    }
+
+    /**
+     * Replaces the element of handle by the smaller or equal newValue:
+     * the subtree of the element is cut from its parent, the ranks on the
+     * path above are repaired, and the subtree is melded with the rest.
+     *
+     * @param handle a valid Handle to an element of this heap
+     * @param newValue the new value; must not be larger than the old one
+     * @throws IllegalArgumentException if handle is invalid or newValue is
+     *  larger than the current value
+     */
+    public void decreaseKey(Handle<T> handle, T newValue) {
+        if (!(handle instanceof HeapNode) || !handle.isValid()) {
+            throw new IllegalArgumentException("Illegal handle: " + handle);
+        }
+        HeapNode<T> node = (HeapNode<T>) handle;
+        assert rootOf(node) == this.root;
+        if (this.comparator.compare(newValue, node.getData()) > 0) {
+            throw new IllegalArgumentException("Illegal key: " + newValue);
+        }
+        node.setData(newValue);
+        HeapNode<T> parent = node.parent();
+        if (parent == null || this.comparator.compare(parent.getData(), newValue) <= 0) {
+            return; // heap order still holds
+        }
+        // cut the subtree of node from its parent
+        if (parent.left() == node) {
+            parent.setLeft(null);
+        } else {
+            parent.setRight(null);
+        }
+        node.setParent(null);
+        // only ranks on the path to the root can change, and we can stop
+        // at the first Node whose rank stays the same
+        while (parent != null && parent.fix()) {
+            parent = parent.parent();
+        }
+        this.root = merge(this.root, node);
+    }
+
+    private static <T> HeapNode<T> rootOf(HeapNode<T> node) {
+        while (node.parent() != null) {
+            node = node.parent();
+        }
+        return node;
+    }
+
+    /**
+     * Merges two heaps without recursion: the merged right spine is built
+     * top-down by walking along the right spines of both heaps and always
+     * linking in the smaller of the two current roots, and then the
+     * leftist property and the ranks are repaired bottom-up along the
+     * parent pointers. No stack is needed since every Node knows its
+     * parent.
+     *
+     * @param a the root of a heap; may be null
+     * @param b the root of another heap; may be null
+     * @return the root of the merged heap
+     */
+    private HeapNode<T> merge(HeapNode<T> a, HeapNode<T> b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (this.comparator.compare(b.getData(), a.getData()) < 0) {
+            HeapNode<T> tmp = a;
+            a = b;
+            b = tmp;
+        }
+        final HeapNode<T> result = a;
+        // a is on the merged right spine; b is the rest of the other heap
+        while (true) {
+            HeapNode<T> right = a.right();
+            if (right == null || this.comparator.compare(b.getData(), right.getData()) < 0) {
+                a.setRight(b);
+                b.setParent(a);
+                if (right == null) {
+                    break;
+                }
+                b = right;
+            }
+            a = a.right();
+        }
+        for (HeapNode<T> node = a; node != result; node = node.parent()) {
+            node.fix();
+        }
+        result.fix();
+        result.setParent(null);
+        return result;
+    }
+
+    /**
+     * @return the number of elements in this heap
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return whether this heap is empty
+     */
+    public boolean isEmpty() {
+        return this.root == null;
+    }
+
+    /**
+     * @return a String representation of this heap giving its size and
+     *  its smallest element
+     */
+    @Override
+    public String toString() {
+        if (this.root == null) {
+            return "LeftistHeap[]";
+        }
+        return "LeftistHeap[size=" + this.size + ", min=" + this.root.getData() + "]";
+    }
+}
@@ -0,0 +1,170 @@
+package heapTest;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.junit.Test;
+
+import heap.LeftistHeap;
+
+/**
+ * Test cases for LeftistHeap, mostly by comparison with
+ * java.util.PriorityQueue.
+ *
+ * @author agent
+ */
+public class LeftistHeapTest {
+
+    @Test
+    public void test_empty() {
+        LeftistHeap<Integer> heap = new LeftistHeap<>();
+        assertTrue(heap.isEmpty());
+        assertEquals(0, heap.size());
+        assertEquals("LeftistHeap[]", heap.toString());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void test_findMinEmpty() {
+        new LeftistHeap<Integer>().findMin();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void test_deleteMinEmpty() {
+        new LeftistHeap<Integer>().deleteMin();
+    }
+
+    @Test
+    public void test_insertDeleteMin() {
+        LeftistHeap<Integer> heap = new LeftistHeap<>();
+        for (int i : new int[] { 5, 3, 8, 1, 9, 2, 7 }) {
+            heap.insert(i);
+        }
+        assertEquals(7, heap.size());
+        assertEquals(1, (int) heap.findMin());
+        StringBuilder result = new StringBuilder();
+        while (!heap.isEmpty()) {
+            result.append(heap.deleteMin());
+        }
+        assertEquals("1235789", result.toString());
+    }
+
+    @Test
+    public void test_comparator() {
+        LeftistHeap<String> heap = new LeftistHeap<>(Comparator.reverseOrder());
+        heap.insert("a");
+        heap.insert("c");
+        heap.insert("b");
+        assertEquals("c", heap.deleteMin());
+        assertEquals("b", heap.deleteMin());
+    }
+
+    @Test
+    public void test_randomAgainstPriorityQueue() {
+        Random random = new Random(48);
+        LeftistHeap<Integer> heap = new LeftistHeap<>();
+        PriorityQueue<Integer> expected = new PriorityQueue<>();
+        for (int i = 0; i < 20_000; i++) {
+            if (expected.isEmpty() || random.nextInt(3) > 0) {
+                int value = random.nextInt(1000);
+                heap.insert(value);
+                expected.add(value);
+            } else {
+                assertEquals(expected.poll(), heap.deleteMin());
+            }
+            assertEquals(expected.size(), heap.size());
+        }
+    }
+
+    @Test
+    public void test_meld() {
+        Random random = new Random(48);
+        List<LeftistHeap<Integer>> heaps = new ArrayList<>();
+        PriorityQueue<Integer> expected = new PriorityQueue<>();
+        for (int h = 0; h < 50; h++) {
+            LeftistHeap<Integer> heap = new LeftistHeap<>();
+            for (int i = random.nextInt(100); i > 0; i--) {
+                int value = random.nextInt();
+                heap.insert(value);
+                expected.add(value);
+            }
+            heaps.add(heap);
+        }
+        LeftistHeap<Integer> all = heaps.get(0);
+        for (LeftistHeap<Integer> heap : heaps.subList(1, heaps.size())) {
+            all.meld(heap);
+            assertTrue(heap.isEmpty());
+        }
+        assertEquals(expected.size(), all.size());
+        while (!expected.isEmpty()) {
+            assertEquals(expected.poll(), all.deleteMin());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_meldSelf() {
+        LeftistHeap<Integer> heap = new LeftistHeap<>();
+        heap.meld(heap);
+    }
+
+    @Test
+    public void test_decreaseKey() {
+        Random random = new Random(48);
+        LeftistHeap<Integer> heap = new LeftistHeap<>();
+        LeftistHeap<Integer> other = new LeftistHeap<>();
+        List<LeftistHeap.Handle<Integer>> handles = new ArrayList<>();
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            int value = random.nextInt(1_000_000);
+            handles.add((i % 2 == 0 ? heap : other).insert(value));
+            values.add(value);
+        }
+        heap.meld(other); // Handles of other stay usable
+        for (int i = 0; i < 5000; i++) {
+            int index = random.nextInt(handles.size());
+            int newValue = values.get(index) - random.nextInt(1000);
+            heap.decreaseKey(handles.get(index), newValue);
+            values.set(index, newValue);
+            assertEquals(newValue, (int) handles.get(index).getData());
+        }
+        values.sort(null);
+        for (int value : values) {
+            assertEquals(value, (int) heap.deleteMin());
+        }
+        for (LeftistHeap.Handle<Integer> handle : handles) {
+            assertFalse(handle.isValid());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_decreaseKeyIncrease() {
+        LeftistHeap<Integer> heap = new LeftistHeap<>();
+        heap.decreaseKey(heap.insert(5), 6);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_decreaseKeyDeleted() {
+        LeftistHeap<Integer> heap = new LeftistHeap<>();
+        LeftistHeap.Handle<Integer> handle = heap.insert(5);
+        heap.deleteMin();
+        heap.decreaseKey(handle, 4);
+    }
+
+    @Test
+    public void test_deepLeftSpine() {
+        // decreasing inserts build a deep left spine, which must not
+        // cause a StackOverflowError
+        LeftistHeap<Integer> heap = new LeftistHeap<>();
+        for (int i = 200_000; i > 0; i--) {
+            heap.insert(i);
+        }
+        for (int i = 1; i <= 200_000; i++) {
+            assertEquals(i, (int) heap.deleteMin());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package tree;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures size-like (count) and sum-like aggregations with
+ * TreeAggregator over a balanced tree, sequentially and on ForkJoinPools
+ * with 1 to N threads. The default of 10,000,000 nodes needs a heap of
+ * about 1 GB. Usage:
+ * <pre>
+ * java -Xmx2g tree.AggregationBenchmark [nodes] [maxThreads]
+ * </pre>
+ *
+ * @author agent
+ */
+public class AggregationBenchmark {
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+        Tree<Integer> tree = new Tree<>(buildBalanced(0, n));
+
+        report("sequential", tree.sequential());
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            report(threads + " threads", tree.parallel(pool, 0));
+            pool.shutdown();
+        }
+    }
+
+    private static void report(String name, TreeAggregator<Integer> aggregator) {
+        long count = 0;
+        long sum = 0;
+        long countNanos = Long.MAX_VALUE;
+        long sumNanos = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) { // best of 5, after warm-up
+            long start = System.nanoTime();
+            count = aggregator.mapReduce(value -> 1L, 0L, Long::sum);
+            countNanos = Math.min(countNanos, System.nanoTime() - start);
+            start = System.nanoTime();
+            sum = aggregator.mapReduce(Integer::longValue, 0L, Long::sum);
+            sumNanos = Math.min(sumNanos, System.nanoTime() - start);
+        }
+        System.out.printf("%-12s count %8.1f ms, sum %8.1f ms (count %d, sum %d)%n",
+                name, countNanos / 1e6, sumNanos / 1e6, count, sum);
+    }
+
+    /**
+     * @return a balanced tree with the values from (inclusive) to to
+     *  (exclusive) in in-order; the recursion depth is O(log n)
+     */
+    private static Node<Integer> buildBalanced(int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        return new Node<>(middle, buildBalanced(from, middle), buildBalanced(middle + 1, to));
+    }
+}
@@ -0,0 +1,91 @@
+package tree;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares one addAtPosition/get per Position against addAll/getAll for
+ * batches of Positions that share long prefixes: each batch lies below a
+ * random Position of depth prefixDepth (default 40) and adds up to 8 more
+ * Directions. The batched versions insert in trie order, so the shapes of
+ * the two trees differ. Usage:
+ * <pre>
+ * java tree.BatchBenchmark [batches] [batchSize] [prefixDepth]
+ * </pre>
+ *
+ * @author agent
+ */
+public class BatchBenchmark {
+
+    public static void main(String[] args) {
+        int batches = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int prefixDepth = args.length > 2 ? Integer.parseInt(args[2]) : 40;
+        Random random = new Random(43);
+        List<Map<Position, Integer>> work = new ArrayList<>();
+        for (int b = 0; b < batches; b++) {
+            String prefix = randomPath(random, prefixDepth);
+            Map<Position, Integer> batch = new LinkedHashMap<>();
+            for (int i = 0; i < batchSize; i++) {
+                batch.put(PackedPosition.parse(prefix + randomPath(random, random.nextInt(9))), i);
+            }
+            work.add(batch);
+        }
+
+        long single = Long.MAX_VALUE;
+        long batched = Long.MAX_VALUE;
+        long singleGet = Long.MAX_VALUE;
+        long batchedGet = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) { // best of 5, after warm-up
+            Tree<Integer> tree = new Tree<>();
+            long start = System.nanoTime();
+            for (Map<Position, Integer> batch : work) {
+                batch.forEach(tree::addAtPosition);
+            }
+            single = Math.min(single, System.nanoTime() - start);
+            start = System.nanoTime();
+            long found = 0;
+            for (Map<Position, Integer> batch : work) {
+                for (Position pos : batch.keySet()) {
+                    try {
+                        tree.get(pos);
+                        found++;
+                    } catch (IllegalArgumentException e) {
+                        // not every Position got its own Node
+                    }
+                }
+            }
+            singleGet = Math.min(singleGet, System.nanoTime() - start);
+
+            Tree<Integer> other = new Tree<>();
+            start = System.nanoTime();
+            for (Map<Position, Integer> batch : work) {
+                other.addAll(batch);
+            }
+            batched = Math.min(batched, System.nanoTime() - start);
+            start = System.nanoTime();
+            long foundBatched = 0;
+            for (Map<Position, Integer> batch : work) {
+                foundBatched += other.getAll(batch.keySet()).size();
+            }
+            batchedGet = Math.min(batchedGet, System.nanoTime() - start);
+            if (round == 0) {
+                System.out.printf("%d nodes, found %d / %d%n", tree.size(), found, foundBatched);
+            }
+        }
+        System.out.printf("addAtPosition %8.1f ms, addAll %8.1f ms%n", single / 1e6, batched / 1e6);
+        System.out.printf("get           %8.1f ms, getAll %8.1f ms%n", singleGet / 1e6,
+                batchedGet / 1e6);
+    }
+
+    private static String randomPath(Random random, int length) {
+        StringBuilder result = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            result.append(random.nextBoolean() ? 'R' : 'L');
+        }
+        return result.toString();
+    }
+}
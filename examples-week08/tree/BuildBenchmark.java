@@ -0,0 +1,64 @@
+package tree;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Compares building a balanced Tree with n calls to addAtPosition against
+ * the bulk builders of TreeBuilders. Usage:
+ * <pre>
+ * java -Xmx2g tree.BuildBenchmark [values] [threads]
+ * </pre>
+ *
+ * @author agent
+ */
+public class BuildBenchmark {
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+        List<Integer> values = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            values.add(i);
+        }
+
+        report("addAtPosition", () -> {
+            // level by level: the i-th Node (from 1) goes to the Position
+            // given by the binary digits of i after the leading 1
+            Tree<Integer> tree = new Tree<>();
+            for (int i = 1; i <= n; i++) {
+                PackedPosition.Builder builder = new PackedPosition.Builder();
+                for (int bit = 30 - Integer.numberOfLeadingZeros(i); bit >= 0; bit--) {
+                    builder.append((i >>> bit & 1) == 0 ? Direction.LEFT : Direction.RIGHT);
+                }
+                tree.addAtPosition(builder.build(), values.get(i - 1));
+            }
+            return tree;
+        });
+        report("balanced", () -> TreeBuilders.balanced(values));
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        report("parallel/" + threads, () -> TreeBuilders.balancedParallel(values, pool, 0));
+        pool.shutdown();
+
+        Tree<Integer> template = TreeBuilders.balanced(values);
+        BitSet structure = TreeBuilders.preOrderStructure(template);
+        List<Integer> preOrder = new ArrayList<>(n);
+        template.entries(TraversalOrder.PRE_ORDER).forEach(e -> preOrder.add(e.getData()));
+        report("fromPreOrder", () -> TreeBuilders.fromPreOrder(preOrder, structure));
+    }
+
+    private static void report(String name, Supplier<Tree<Integer>> build) {
+        long best = Long.MAX_VALUE;
+        int size = 0;
+        for (int round = 0; round < 5; round++) { // best of 5, after warm-up
+            long start = System.nanoTime();
+            size = build.get().size();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-16s %8.1f ms (%d nodes)%n", name, best / 1e6, size);
+    }
+}
@@ -0,0 +1,246 @@
+package tree;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterators;
+
+/**
+ * Immutable, read-only view of a binary tree in which structurally
+ * identical subtrees are stored only once: the Nodes form a DAG whose
+ * Nodes are canonicalized by a NodeInterner. A tree with many repeated
+ * subtrees thus needs memory proportional to the number of distinct
+ * subtrees instead of the number of positions. For the outside, a
+ * CompactTree behaves like the Tree it represents: get, size and the
+ * in-order iteration see every position.
+ *
+ * Create a CompactTree by compacting a Tree with compact, or build one
+ * directly in hash-consing mode, starting from empty() and inserting with
+ * with(pos, value). Inserts copy the path from the root to the new Node,
+ * as for PersistentTree, but take each copied Node from the intern table.
+ * The Nodes of the replaced path stay in the table, so once the table has
+ * grown to twice its size after the last rebuild, with rebuilds it from
+ * the Nodes reachable from the new version. This costs O(1) amortized
+ * per interned Node and keeps the table within about twice the Nodes of
+ * the newest version. The new version then no longer shares its table
+ * with older ones, which only means that later versions of those do not
+ * share Nodes with it.
+ *
+ * @param <T> The type of the data stored in the tree.
+ * @author agent
+ */
+public final class CompactTree<T> implements Iterable<T> {
+    // tables are not rebuilt before they have this many Nodes
+    private static final int MIN_REBUILD_SIZE = 1024;
+
+    private final Node<T> root; // null iff this tree is empty
+    private final NodeInterner<T> interner; // shared with derived versions until a rebuild
+
+    private CompactTree(Node<T> root, NodeInterner<T> interner) {
+        this.root = root;
+        this.interner = interner;
+    }
+
+    /**
+     * @return an empty CompactTree with a new intern table
+     */
+    public static <T> CompactTree<T> empty() {
+        return new CompactTree<>(null, new NodeInterner<>());
+    }
+
+    /**
+     * Compaction pass: builds the DAG for tree bottom-up in O(n), interning
+     * each Node after its subtrees. Uses an explicit stack, so deep trees
+     * do not overflow the call stack. tree itself is not modified.
+     *
+     * @param tree the tree to compact; non-null
+     * @return a CompactTree with the same positions and values as tree
+     */
+    public static <T> CompactTree<T> compact(Tree<T> tree) {
+        NodeInterner<T> interner = new NodeInterner<>();
+        Node<T> root = tree.getRoot();
+        if (root == null) {
+            return new CompactTree<>(null, interner);
+        }
+        // Nodes to visit, each first unexpanded, then expanded once its
+        // subtrees have been scheduled before it
+        Deque<Node<T>> stack = new ArrayDeque<>();
+        Deque<Boolean> expanded = new ArrayDeque<>();
+        // the canonical Nodes of finished subtrees; null for missing ones
+        List<Node<T>> results = new ArrayList<>();
+        stack.push(root);
+        expanded.push(false);
+        while (!stack.isEmpty()) {
+            Node<T> node = stack.pop();
+            if (!expanded.pop()) {
+                stack.push(node);
+                expanded.push(true);
+                if (node.getRight() != null) {
+                    stack.push(node.getRight());
+                    expanded.push(false);
+                }
+                if (node.getLeft() != null) { // on top: finishes first
+                    stack.push(node.getLeft());
+                    expanded.push(false);
+                }
+            } else {
+                Node<T> right = node.getRight() == null ? null : results.remove(results.size() - 1);
+                Node<T> left = node.getLeft() == null ? null : results.remove(results.size() - 1);
+                results.add(interner.intern(node.getData(), left, right));
+            }
+        }
+        assert results.size() == 1;
+        interner.markRebuilt();
+        return new CompactTree<>(results.get(0), interner);
+    }
+
+    /**
+     * Returns a tree that is like this one with value added as described
+     * for Tree.addAtPosition, sharing the intern table with this tree.
+     * This tree itself is not modified.
+     *
+     * @param pos the position where the value should be inserted; non-null
+     * @param value to be added
+     * @return the new version, or this if there already is a node at pos
+     */
+    public CompactTree<T> with(Position pos, T value) {
+        if (this.root == null) { // pos does not matter in this case
+            return new CompactTree<>(this.interner.intern(value, null, null), this.interner);
+        }
+        final int posSize = pos.size();
+        List<Node<T>> path = new ArrayList<>();
+        Node<T> current = this.root;
+        for (int index = 0; current != null && index < posSize; index++) {
+            path.add(current);
+            current = pos.get(index) == Direction.LEFT ? current.getLeft() : current.getRight();
+        }
+        if (current != null) { // pos is already occupied
+            return this;
+        }
+        // path.get(i) is the parent in direction pos.get(i) of the next Node
+        Node<T> copy = this.interner.intern(value, null, null);
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node<T> old = path.get(i);
+            copy = pos.get(i) == Direction.LEFT
+                    ? this.interner.intern(old.getData(), copy, old.getRight())
+                    : this.interner.intern(old.getData(), old.getLeft(), copy);
+        }
+        NodeInterner<T> interner = this.interner;
+        if (interner.size() > Math.max(MIN_REBUILD_SIZE, 2 * interner.sizeAtRebuild())) {
+            interner = NodeInterner.of(copy); // drop the Nodes of old paths
+        }
+        return new CompactTree<>(copy, interner);
+    }
+
+    /**
+     * Get the data stored in the tree at Position pos.
+     *
+     * @param pos must be a position in which this tree has a node
+     * @return the data stored at that node
+     */
+    public T get(Position pos) {
+        Node<T> current = this.root;
+        final int posSize = pos.size();
+        for (int index = 0; current != null && index < posSize; index++) {
+            current = pos.get(index) == Direction.LEFT ? current.getLeft() : current.getRight();
+        }
+        if (current == null) {
+            throw new IllegalArgumentException("No data stored at this position!");
+        }
+        return current.getData();
+    }
+
+    /**
+     * @return the number of positions in this tree, counting shared
+     *  subtrees once per occurrence
+     */
+    public int size() {
+        return Node.sizeOf(this.root);
+    }
+
+    /**
+     * @return whether this tree is empty
+     */
+    public boolean isEmpty() {
+        return this.root == null;
+    }
+
+    /**
+     * @return the number of distinct Nodes in the intern table of this
+     *  tree, i.e., the number of Nodes actually stored; versions created
+     *  with with share the table until it is rebuilt, so this may include
+     *  Nodes of other versions and of replaced paths
+     */
+    public int storedNodes() {
+        return this.interner.size();
+    }
+
+    /**
+     * Expands this tree into a Tree with one Node per position.
+     *
+     * @return a new Tree with the same positions and values
+     */
+    public Tree<T> toTree() {
+        if (this.root == null) {
+            return new Tree<>();
+        }
+        Node<T> result = new Node<>(this.root.getData());
+        Deque<Node<T>> originals = new ArrayDeque<>();
+        Deque<Node<T>> copies = new ArrayDeque<>();
+        originals.push(this.root);
+        copies.push(result);
+        while (!originals.isEmpty()) {
+            Node<T> original = originals.pop();
+            Node<T> copy = copies.pop();
+            if (original.getLeft() != null) {
+                copy.setLeft(new Node<>(original.getLeft().getData()));
+                originals.push(original.getLeft());
+                copies.push(copy.getLeft());
+            }
+            if (original.getRight() != null) {
+                copy.setRight(new Node<>(original.getRight().getData()));
+                originals.push(original.getRight());
+                copies.push(copy.getRight());
+            }
+        }
+        return new Tree<>(result); // computes the sizes
+    }
+
+    /**
+     * @return an iterator over the values of this tree in in-order
+     */
+    @Override
+    public Iterator<T> iterator() {
+        Iterator<TreeEntry<T>> entries = Spliterators.iterator(
+                new TreeSpliterator<>(this.root, TraversalOrder.IN_ORDER, false));
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return entries.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return entries.next().getData();
+            }
+        };
+    }
+
+    /**
+     * @return a String representation of this tree via a list in
+     *  in-order representation of the values
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        try {
+            TreeRenderer.inOrder(this.root, result, Integer.MAX_VALUE);
+        } catch (IOException e) {
+            throw new AssertionError("StringBuilder does not throw IOException", e);
+        }
+        return result.toString();
+    }
+}
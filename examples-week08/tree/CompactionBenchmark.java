@@ -0,0 +1,105 @@
+package tree;
+
+import java.util.Random;
+
+/**
+ * Reports the heap used by a Tree with heavily repeated subtrees before
+ * and after compaction into a CompactTree, and the time for compaction.
+ * The synthetic tree is complete with the given depth; the value of a
+ * Node is its depth modulo the number of distinct values, except that a
+ * fraction of the Nodes get a random value, which limits the sharing.
+ *
+ * Then it does the same for a tree built in insert mode, i.e., by
+ * CompactTree.with at random Positions, keeping only the newest version,
+ * and compares it with a Tree built by the same inserts. The value of a
+ * Node is again its depth modulo the number of distinct values.
+ * Usage:
+ * <pre>
+ * java -Xmx2g tree.CompactionBenchmark [depth] [values] [noisePercent] [inserts]
+ * </pre>
+ *
+ * @author agent
+ */
+public class CompactionBenchmark {
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 21;
+        int values = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int noisePercent = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        int inserts = args.length > 3 ? Integer.parseInt(args[3]) : 1_000_000;
+
+        long base = usedMemory();
+        Tree<Integer> tree = new Tree<>(build(depth, 0, values, noisePercent, new Random(45)));
+        long treeBytes = usedMemory() - base;
+
+        long start = System.nanoTime();
+        CompactTree<Integer> compact = CompactTree.compact(tree);
+        long nanos = System.nanoTime() - start;
+        tree = null; // only the compact version stays reachable
+        long compactBytes = usedMemory() - base;
+
+        System.out.printf("Tree        %,12d nodes %10.1f MB%n", compact.size(), treeBytes / 1e6);
+        System.out.printf("CompactTree %,12d nodes %10.1f MB (with intern table)%n",
+                compact.storedNodes(), compactBytes / 1e6);
+        System.out.printf("duplication factor %.1f, memory ratio %.1f, compaction %.1f ms%n",
+                compact.size() / (double) compact.storedNodes(),
+                treeBytes / (double) compactBytes, nanos / 1e6);
+        compact = null;
+
+        // insert mode
+        Random random = new Random(45);
+        PackedPosition[] positions = new PackedPosition[inserts];
+        for (int i = 0; i < inserts; i++) {
+            PackedPosition.Builder builder = new PackedPosition.Builder();
+            for (int d = random.nextInt(depth); d > 0; d--) {
+                builder.append(random.nextBoolean() ? Direction.RIGHT : Direction.LEFT);
+            }
+            positions[i] = builder.build();
+        }
+        base = usedMemory();
+        tree = new Tree<>();
+        for (PackedPosition pos : positions) {
+            tree.addAtPosition(pos, pos.size() % values);
+        }
+        treeBytes = usedMemory() - base;
+        int treeSize = tree.size();
+        tree = null;
+        base = usedMemory();
+        start = System.nanoTime();
+        compact = CompactTree.empty();
+        for (PackedPosition pos : positions) {
+            compact = compact.with(pos, pos.size() % values);
+        }
+        nanos = System.nanoTime() - start;
+        compactBytes = usedMemory() - base;
+        System.out.printf("%nTree        %,12d nodes %10.1f MB after %,d inserts%n", treeSize,
+                treeBytes / 1e6, inserts);
+        System.out.printf("CompactTree %,12d nodes %10.1f MB (with intern table)%n",
+                compact.storedNodes(), compactBytes / 1e6);
+        System.out.printf("memory ratio %.1f, inserts %.1f ms%n",
+                treeBytes / (double) compactBytes, nanos / 1e6);
+    }
+
+    /**
+     * @return a complete tree with the given height; the recursion depth
+     *  is the height
+     */
+    private static Node<Integer> build(int height, int level, int values, int noisePercent,
+            Random random) {
+        if (height == 0) {
+            return null;
+        }
+        Integer value = random.nextInt(100) < noisePercent ? random.nextInt(1000)
+                : level % values;
+        return new Node<>(value, build(height - 1, level + 1, values, noisePercent, random),
+                build(height - 1, level + 1, values, noisePercent, random));
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,182 @@
+package tree;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe binary tree with the insertion semantics of Tree.
+ * Nodes are never removed and their data never changes, so an insert only
+ * has to claim a missing child reference: it walks down along its
+ * Position and then compare-and-sets the null child slot to its new Node.
+ * If another thread won the race for that slot, the insert continues from
+ * the Node the other thread added; in particular, if both inserts were
+ * aimed at the same Position, exactly one of them returns true. Reads
+ * never lock and see every Node whose insert has completed.
+ *
+ * Threads that write to disjoint subtrees never touch the same slot and
+ * therefore do not contend at all. The number of Nodes is kept in a
+ * LongAdder instead of subtree sizes, since updating sizes along every
+ * path would make all inserts contend on the root.
+ *
+ * @param <T> The type of the data stored in the tree.
+ * @author agent
+ */
+public class ConcurrentTree<T> {
+    private final AtomicReference<CNode<T>> root = new AtomicReference<>();
+    private final LongAdder size = new LongAdder();
+
+    /**
+     * Get the data stored in the tree at Position pos.
+     *
+     * @param pos must be a position in which this Tree has a Node
+     * @return the data stored at that Node
+     */
+    public T get(Position pos) {
+        CNode<T> current = this.root.get();
+        final int posSize = pos.size();
+        for (int index = 0; current != null && index < posSize; index++) {
+            current = current.child(pos.get(index));
+        }
+        if (current == null) {
+            throw new IllegalArgumentException("No data stored at this position!");
+        }
+        return current.data;
+    }
+
+    /**
+     * Tries to add value to this tree at Position pos, as described for
+     * Tree.addAtPosition. May be called concurrently from any number of
+     * threads; of several concurrent inserts that end up at the same
+     * position, exactly one returns true.
+     *
+     * @param pos the position where the value should be inserted; non-null
+     * @param value to be added to this tree
+     * @return whether this tree was modified
+     */
+    public boolean addAtPosition(Position pos, T value) {
+        CNode<T> newNode = new CNode<>(value);
+        CNode<T> current = this.root.get();
+        if (current == null) { // pos does not matter in this case
+            if (this.root.compareAndSet(null, newNode)) {
+                this.size.increment();
+                return true;
+            }
+            current = this.root.get(); // someone else added the root
+        }
+        final int posSize = pos.size();
+        for (int index = 0; index < posSize; index++) {
+            Direction d = pos.get(index);
+            CNode<T> child = current.child(d);
+            if (child == null) {
+                if (current.casChild(d, newNode)) {
+                    this.size.increment();
+                    return true;
+                }
+                child = current.child(d); // lost the race; go on below the winner
+            }
+            current = child;
+        }
+        return false; // pos is occupied
+    }
+
+    /**
+     * @return the number of Nodes in this tree; exact if no insert is in
+     *  progress
+     */
+    public int size() {
+        return this.size.intValue();
+    }
+
+    /**
+     * @return whether this tree is empty
+     */
+    public boolean isEmpty() {
+        return this.root.get() == null;
+    }
+
+    /**
+     * Copies the current contents of this tree into a new Tree. Inserts
+     * that run concurrently may or may not be included, but each included
+     * Node comes with all its ancestors.
+     *
+     * @return a Tree with the Nodes of this tree
+     */
+    public Tree<T> toTree() {
+        CNode<T> root = this.root.get();
+        if (root == null) {
+            return new Tree<>();
+        }
+        // copy in pre-order with an explicit stack; each child reference is
+        // read only once, so concurrent inserts cannot confuse the copy
+        Node<T> result = new Node<>(root.data);
+        Deque<CNode<T>> originals = new ArrayDeque<>();
+        Deque<Node<T>> copies = new ArrayDeque<>();
+        originals.push(root);
+        copies.push(result);
+        while (!originals.isEmpty()) {
+            CNode<T> original = originals.pop();
+            Node<T> copy = copies.pop();
+            CNode<T> left = original.left;
+            CNode<T> right = original.right;
+            if (left != null) {
+                copy.setLeft(new Node<>(left.data));
+                originals.push(left);
+                copies.push(copy.getLeft());
+            }
+            if (right != null) {
+                copy.setRight(new Node<>(right.data));
+                originals.push(right);
+                copies.push(copy.getRight());
+            }
+        }
+        return new Tree<>(result); // computes the sizes
+    }
+
+    /**
+     * @return a String representation of this tree via a list in
+     *  in-order representation of the values
+     */
+    @Override
+    public String toString() {
+        return toTree().toString();
+    }
+
+    /**
+     * Node with immutable data and child references that are set at most
+     * once, from null to a Node, by compare-and-set.
+     */
+    private static final class CNode<T> {
+        private static final VarHandle LEFT;
+        private static final VarHandle RIGHT;
+
+        static {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                LEFT = lookup.findVarHandle(CNode.class, "left", CNode.class);
+                RIGHT = lookup.findVarHandle(CNode.class, "right", CNode.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        final T data;
+        volatile CNode<T> left;
+        volatile CNode<T> right;
+
+        CNode(T data) {
+            this.data = data;
+        }
+
+        CNode<T> child(Direction d) {
+            return d == Direction.LEFT ? this.left : this.right;
+        }
+
+        boolean casChild(Direction d, CNode<T> newChild) {
+            return (d == Direction.LEFT ? LEFT : RIGHT).compareAndSet(this, null, newChild);
+        }
+    }
+}
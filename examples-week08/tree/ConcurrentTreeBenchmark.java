@@ -0,0 +1,98 @@
+package tree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BiPredicate;
+
+/**
+ * Measures the insert throughput of ConcurrentTree with 1 to N threads
+ * that write to disjoint subtrees, against a Tree guarded by a single
+ * lock. Usage:
+ * <pre>
+ * java tree.ConcurrentTreeBenchmark [insertsPerThread] [maxThreads]
+ * </pre>
+ *
+ * @author agent
+ */
+public class ConcurrentTreeBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int perThread = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            List<List<PackedPosition>> work = positions(threads, perThread);
+            long best = Long.MAX_VALUE;
+            long bestLocked = Long.MAX_VALUE;
+            for (int round = 0; round < 5; round++) { // best of 5, after warm-up
+                ConcurrentTree<Integer> concurrent = new ConcurrentTree<>();
+                best = Math.min(best, run(work, concurrent::addAtPosition));
+                Tree<Integer> tree = new Tree<>();
+                bestLocked = Math.min(bestLocked, run(work, (pos, value) -> {
+                    synchronized (tree) {
+                        return tree.addAtPosition(pos, value);
+                    }
+                }));
+            }
+            long total = (long) threads * perThread;
+            System.out.printf("%2d threads: ConcurrentTree %6.2f M inserts/s,"
+                    + " locked Tree %6.2f M inserts/s%n",
+                    threads, total * 1e3 / best, total * 1e3 / bestLocked);
+        }
+    }
+
+    /**
+     * @return for each thread, random positions below its own prefix of
+     *  8 Directions, so that the threads write to disjoint subtrees
+     */
+    private static List<List<PackedPosition>> positions(int threads, int perThread) {
+        Random random = new Random(42);
+        List<List<PackedPosition>> result = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            List<PackedPosition> mine = new ArrayList<>(perThread);
+            for (int i = 0; i < perThread; i++) {
+                PackedPosition.Builder builder = new PackedPosition.Builder();
+                for (int bit = 0; bit < 8; bit++) {
+                    builder.append((t >>> bit & 1) == 0 ? Direction.LEFT : Direction.RIGHT);
+                }
+                for (int depth = random.nextInt(20); depth > 0; depth--) {
+                    builder.append(random.nextBoolean() ? Direction.RIGHT : Direction.LEFT);
+                }
+                mine.add(builder.build());
+            }
+            result.add(mine);
+        }
+        return result;
+    }
+
+    /**
+     * @return the wall-clock time in ns for all threads to insert their
+     *  positions via insert
+     */
+    private static long run(List<List<PackedPosition>> work,
+            BiPredicate<PackedPosition, Integer> insert) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (List<PackedPosition> mine : work) {
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < mine.size(); i++) {
+                    insert.test(mine.get(i), i);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return System.nanoTime() - begin;
+    }
+}
@@ -0,0 +1,78 @@
+package tree;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the latency of get at random existing Positions on a Tree
+ * built by random inserts, whose Nodes are scattered in allocation order,
+ * and on FrozenTrees of it in the plain BFS layout and in BFS-blocked
+ * layouts. The default of 4,000,000 inserts gives about 2.8 million
+ * Nodes (over 100 MB of Nodes, over 20 MB of links), well beyond a
+ * typical last-level cache. Usage:
+ * <pre>
+ * java -Xmx3g tree.FreezeBenchmark [inserts] [maxDepth]
+ * </pre>
+ *
+ * @author agent
+ */
+public class FreezeBenchmark {
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 4_000_000;
+        int maxDepth = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int reads = 2_000_000;
+        Random random = new Random(50);
+        Tree<Integer> tree = new Tree<>();
+        for (int i = 0; i < n; i++) {
+            PackedPosition.Builder builder = new PackedPosition.Builder();
+            for (int d = random.nextInt(maxDepth); d >= 0; d--) {
+                builder.append(random.nextBoolean() ? Direction.RIGHT : Direction.LEFT);
+            }
+            tree.addAtPosition(builder.build(), i);
+        }
+        List<PackedPosition> positions = new ArrayList<>(tree.size());
+        tree.entries(TraversalOrder.PRE_ORDER).forEach(e -> positions.add(e.getPosition()));
+        Collections.shuffle(positions, random);
+        List<PackedPosition> workload = positions.subList(0, Math.min(reads, positions.size()));
+        long depthSum = 0;
+        for (PackedPosition pos : workload) {
+            depthSum += pos.size();
+        }
+        System.out.printf("%d nodes, %d reads at average depth %.1f%n", tree.size(),
+                workload.size(), (double) depthSum / workload.size());
+        FrozenTree<Integer> bfs = tree.freeze(1);
+        FrozenTree<Integer> blocked = tree.freeze();
+        FrozenTree<Integer> blocked64 = tree.freeze(64);
+
+        for (int round = 0; round < 5; round++) {
+            long sum = 0;
+            long start = System.nanoTime();
+            for (PackedPosition pos : workload) {
+                sum += tree.get(pos);
+            }
+            long plain = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (PackedPosition pos : workload) {
+                sum -= bfs.get(pos);
+            }
+            long bfsTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (PackedPosition pos : workload) {
+                sum += blocked.get(pos);
+            }
+            long blockedTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (PackedPosition pos : workload) {
+                sum -= blocked64.get(pos);
+            }
+            long blocked64Time = System.nanoTime() - start;
+            System.out.printf("ns/get: Tree %6.1f, BFS %6.1f, blocked(8) %6.1f,"
+                    + " blocked(64) %6.1f (checksum %d)%n", (double) plain / workload.size(),
+                    (double) bfsTime / workload.size(), (double) blockedTime / workload.size(),
+                    (double) blocked64Time / workload.size(), sum);
+        }
+    }
+}
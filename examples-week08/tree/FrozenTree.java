@@ -0,0 +1,214 @@
+package tree;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A read-only copy of a Tree laid out in contiguous arrays, as returned
+ * by Tree.freeze. Node i has its children at the indices links[2i]
+ * (LEFT) and links[2i + 1] (RIGHT), -1 for a missing child, and its data
+ * at values[i]. A lookup thus reads only the links array on its way down
+ * and the values array once at the end, instead of one scattered Node
+ * object per level.
+ *
+ * The indices are assigned in a BFS-blocked layout: the tree is cut into
+ * blocks of up to blockNodes Nodes, each a connected subtree filled in
+ * breadth-first order from its block root, and the blocks are laid out
+ * in breadth-first order, too. With the default of 8 Nodes per block,
+ * the links of a block take 64 bytes, about one cache line, and a lookup
+ * loads about one cache line per 3 levels of a balanced tree, or per 8
+ * levels of a chain. For blockNodes = 1, this is the plain BFS layout.
+ *
+ * @param <T> The type of the data stored in the tree.
+ * @author agent
+ */
+public class FrozenTree<T> implements Iterable<T> {
+
+    /** The default number of Nodes per block. */
+    public static final int DEFAULT_BLOCK_NODES = 8;
+
+    private final int[] links; // the child indices of node i at 2i and 2i + 1
+    private final Object[] values; // the data of node i at i
+
+    private FrozenTree(int[] links, Object[] values) {
+        this.links = links;
+        this.values = values;
+    }
+
+    /**
+     * Copies the tree below root into a FrozenTree with the given number
+     * of Nodes per block. Uses queues instead of recursion.
+     *
+     * @param root the root of the tree; may be null
+     * @param blockNodes the maximum number of Nodes per block; >= 1
+     * @return the FrozenTree
+     * @throws IllegalArgumentException if blockNodes < 1
+     */
+    static <T> FrozenTree<T> of(Node<T> root, int blockNodes) {
+        if (blockNodes < 1) {
+            throw new IllegalArgumentException("Illegal block size: " + blockNodes);
+        }
+        final int n = Node.sizeOf(root);
+        int[] links = new int[2 * n];
+        Arrays.fill(links, -1);
+        Object[] values = new Object[n];
+        // the roots of the blocks still to be laid out, with the slots in
+        // links that must point to them (-1 for the root of the tree)
+        Deque<Node<T>> blockRoots = new ArrayDeque<>();
+        Deque<Integer> blockRootSlots = new ArrayDeque<>();
+        if (root != null) {
+            blockRoots.add(root);
+            blockRootSlots.add(-1);
+        }
+        Deque<Node<T>> block = new ArrayDeque<>();
+        Deque<Integer> blockSlots = new ArrayDeque<>();
+        int next = 0; // the next free index
+        while (!blockRoots.isEmpty()) {
+            block.add(blockRoots.poll());
+            blockSlots.add(blockRootSlots.poll());
+            int placed = 0;
+            while (!block.isEmpty()) {
+                Node<T> node = block.poll();
+                int slot = blockSlots.poll();
+                if (placed == blockNodes) { // the block is full
+                    blockRoots.add(node);
+                    blockRootSlots.add(slot);
+                    continue;
+                }
+                int index = next;
+                next++;
+                placed++;
+                values[index] = node.getData();
+                if (slot >= 0) {
+                    links[slot] = index;
+                }
+                if (node.getLeft() != null) {
+                    block.add(node.getLeft());
+                    blockSlots.add(2 * index);
+                }
+                if (node.getRight() != null) {
+                    block.add(node.getRight());
+                    blockSlots.add(2 * index + 1);
+                }
+            }
+        }
+        assert next == n;
+        return new FrozenTree<>(links, values);
+    }
+
+    /**
+     * Get the data stored in the tree at Position pos.
+     *
+     * @param pos must be a position in which this tree has a node
+     * @return the data stored at that node
+     * @throws IllegalArgumentException if there is no node at pos
+     */
+    @SuppressWarnings("unchecked")
+    public T get(Position pos) {
+        final int posSize = pos.size();
+        int index = this.values.length == 0 ? -1 : 0;
+        if (pos instanceof PackedPosition) {
+            PackedPosition packed = (PackedPosition) pos;
+            long word = 0L;
+            for (int i = 0; index >= 0 && i < posSize; i++) {
+                if (i % Long.SIZE == 0) {
+                    word = packed.word(i / Long.SIZE);
+                }
+                index = this.links[2 * index + (int) (word & 1L)];
+                word >>>= 1;
+            }
+        } else {
+            for (int i = 0; index >= 0 && i < posSize; i++) {
+                index = this.links[2 * index + (pos.get(i) == Direction.RIGHT ? 1 : 0)];
+            }
+        }
+        if (index < 0) {
+            throw new IllegalArgumentException("No data stored at this position!");
+        }
+        return (T) this.values[index];
+    }
+
+    /**
+     * @return the number of nodes in this tree; O(1)
+     */
+    public int size() {
+        return this.values.length;
+    }
+
+    /**
+     * @return whether this tree is empty
+     */
+    public boolean isEmpty() {
+        return this.values.length == 0;
+    }
+
+    /**
+     * Returns an iterator over the values of this tree in in-order, using
+     * an explicit stack of indices instead of recursion.
+     *
+     * @return an iterator over the values of this tree in in-order
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            // the path of indices whose left subtree is being visited
+            private int[] stack = new int[16];
+            private int stackSize = 0;
+
+            {
+                pushLeftSpine(FrozenTree.this.values.length == 0 ? -1 : 0);
+            }
+
+            private void pushLeftSpine(int index) {
+                for (; index >= 0; index = FrozenTree.this.links[2 * index]) {
+                    if (this.stackSize == this.stack.length) {
+                        this.stack = Arrays.copyOf(this.stack, 2 * this.stackSize);
+                    }
+                    this.stack[this.stackSize] = index;
+                    this.stackSize++;
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return this.stackSize > 0;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (this.stackSize == 0) {
+                    throw new NoSuchElementException();
+                }
+                this.stackSize--;
+                int index = this.stack[this.stackSize];
+                pushLeftSpine(FrozenTree.this.links[2 * index + 1]);
+                return (T) FrozenTree.this.values[index];
+            }
+        };
+    }
+
+    /**
+     * @return a String representation of this tree via a list in
+     *  in-order representation of the values
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        result.append('[');
+        boolean first = true;
+        for (T data : this) {
+            if (first) { // use commas only from the second iteration onwards
+                first = false;
+            } else {
+                result.append(',');
+            }
+            result.append(data);
+        }
+        result.append(']');
+        return result.toString();
+    }
+}
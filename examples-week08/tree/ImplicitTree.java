@@ -0,0 +1,243 @@
+package tree;
+
+import java.util.Arrays;
+
+/**
+ * A binary tree with the same operations as Tree, stored implicitly in an
+ * array as long as it is dense: the node at a Position lives at an array
+ * index computed from the Directions (root at 0, children of index i at
+ * 2i+1 and 2i+2), and a bitmap records which indices hold a node. Lookups
+ * and inserts are then index arithmetic without any Node objects.
+ *
+ * Once the tree becomes too sparse for the array (much larger than the
+ * number of nodes) or too deep for int indices, it converts itself into
+ * a pointer-based Tree and delegates to it from then on.
+ *
+ * @param <T> The type of the data stored in the tree.
+ * @author agent
+ */
+public class ImplicitTree<T> {
+    // the deepest level whose indices still fit into an int
+    private static final int MAX_IMPLICIT_DEPTH = 29;
+
+    // arrays up to this capacity are never considered too sparse
+    private static final int MIN_SPARSE_CAPACITY = 1 << 10;
+
+    // the array may have at most this many slots per node
+    private static final int MAX_SLOTS_PER_NODE = 8;
+
+    private Object[] values; // values[i] is the data of the node at index i
+    private long[] present; // bit i is set iff there is a node at index i
+    private int size; // the number of nodes
+
+    // non-null iff this tree has switched to pointer-based storage
+    private Tree<T> pointerTree;
+
+    /**
+     * Constructs an empty tree in array-based storage.
+     */
+    public ImplicitTree() {
+        this.values = new Object[0];
+        this.present = new long[0];
+        this.size = 0;
+        this.pointerTree = null;
+    }
+
+    /**
+     * @return whether this tree still uses array-based storage
+     */
+    public boolean isImplicit() {
+        return this.pointerTree == null;
+    }
+
+    /**
+     * Get the data stored in the tree at Position pos.
+     *
+     * @param pos must be a position in which this Tree has a Node
+     * @return the data stored at that Node
+     * @throws IllegalArgumentException if there is no Node at pos
+     */
+    @SuppressWarnings("unchecked")
+    public T get(Position pos) {
+        if (this.pointerTree != null) {
+            return this.pointerTree.get(pos);
+        }
+        final int posSize = pos.size();
+        if (posSize <= MAX_IMPLICIT_DEPTH) {
+            int index = 0;
+            if (pos instanceof PackedPosition) {
+                // all Directions fit into the first word
+                long word = ((PackedPosition) pos).word(0);
+                for (int i = 0; i < posSize; i++) {
+                    index = 2 * index + 1 + (int) (word >>> i & 1L);
+                }
+            } else {
+                for (int i = 0; i < posSize; i++) {
+                    index = 2 * index + 1 + (pos.get(i) == Direction.RIGHT ? 1 : 0);
+                }
+            }
+            // ancestors of a node are always present, so one check suffices
+            if (isPresent(index)) {
+                return (T) this.values[index];
+            }
+        }
+        throw new IllegalArgumentException("No data stored at this position!");
+    }
+
+    /**
+     * Tries to add value to this tree at Position pos, with the same
+     * semantics as Tree.addAtPosition.
+     *
+     * @param pos the position where the value should be inserted; non-null
+     * @param value to be added to this tree
+     * @return whether this tree was modified
+     */
+    public boolean addAtPosition(Position pos, T value) {
+        if (this.pointerTree != null) {
+            return this.pointerTree.addAtPosition(pos, value);
+        }
+        int index = 0;
+        int depth = 0;
+        final int posSize = pos.size();
+        // follow pos while there are nodes; stop at the first free index
+        while (isPresent(index)) {
+            if (depth == posSize) {
+                return false;
+            }
+            index = 2 * index + 1 + (pos.get(depth) == Direction.RIGHT ? 1 : 0);
+            depth++;
+            if (depth > MAX_IMPLICIT_DEPTH) {
+                switchToPointers();
+                return this.pointerTree.addAtPosition(pos, value);
+            }
+        }
+        if (index >= this.values.length) {
+            int capacity = (1 << (depth + 1)) - 1; // all levels up to depth
+            if (capacity > MIN_SPARSE_CAPACITY && capacity / MAX_SLOTS_PER_NODE > this.size + 1) {
+                switchToPointers();
+                return this.pointerTree.addAtPosition(pos, value);
+            }
+            this.values = Arrays.copyOf(this.values, capacity);
+            this.present = Arrays.copyOf(this.present, (capacity + Long.SIZE - 1) / Long.SIZE);
+        }
+        this.values[index] = value;
+        this.present[index / Long.SIZE] |= 1L << (index % Long.SIZE);
+        this.size++;
+        return true;
+    }
+
+    /**
+     * @return whether this tree is empty
+     */
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    /**
+     * @return the number of nodes in this tree; O(1)
+     */
+    public int size() {
+        return this.pointerTree != null ? this.pointerTree.size() : this.size;
+    }
+
+    /**
+     * Returns this tree as a pointer-based Tree, converting it first if
+     * it still uses array-based storage. Afterwards this ImplicitTree and
+     * the result share their Nodes.
+     *
+     * @return the pointer-based Tree that this tree delegates to
+     */
+    public Tree<T> toTree() {
+        if (this.pointerTree == null) {
+            switchToPointers();
+        }
+        return this.pointerTree;
+    }
+
+    /**
+     * @return a String representation of this tree via a list in
+     *  in-order representation of the values
+     */
+    @Override
+    public String toString() {
+        if (this.pointerTree != null) {
+            return this.pointerTree.toString();
+        }
+        StringBuilder result = new StringBuilder();
+        result.append('[');
+        if (this.size > 0) {
+            // in-order walk via index arithmetic; no stack needed since the
+            // parent of index i is (i - 1) / 2
+            int index = leftmost(0);
+            boolean first = true;
+            while (index >= 0) {
+                if (first) { // use commas only from the second node onwards
+                    first = false;
+                } else {
+                    result.append(',');
+                }
+                result.append(this.values[index]);
+                index = successor(index);
+            }
+        }
+        result.append(']');
+        return result.toString();
+    }
+
+    /**
+     * @return the in-order successor of the node at index, or -1 if it is
+     *  the last node
+     */
+    private int successor(int index) {
+        int right = 2 * index + 2;
+        if (isPresent(right)) {
+            return leftmost(right);
+        }
+        // go up while we are a right child
+        while (index > 0 && index % 2 == 0) {
+            index = (index - 1) / 2;
+        }
+        return index == 0 ? -1 : (index - 1) / 2;
+    }
+
+    /**
+     * @param index a present index
+     * @return the index of the leftmost node in the subtree at index
+     */
+    private int leftmost(int index) {
+        while (isPresent(2 * index + 1)) {
+            index = 2 * index + 1;
+        }
+        return index;
+    }
+
+    private boolean isPresent(int index) {
+        // index may have overflowed for the children of the deepest level
+        return index >= 0 && index < this.values.length
+                && (this.present[index / Long.SIZE] >>> (index % Long.SIZE) & 1L) != 0;
+    }
+
+    /**
+     * Converts the array into Nodes, children before parents, and delegates
+     * to a Tree with these Nodes from then on.
+     */
+    @SuppressWarnings("unchecked")
+    private void switchToPointers() {
+        Node<T> root = null;
+        if (this.size > 0) {
+            Node<T>[] nodes = (Node<T>[]) new Node<?>[this.values.length];
+            for (int i = this.values.length - 1; i >= 0; i--) {
+                if (isPresent(i)) {
+                    int left = 2 * i + 1;
+                    Node<T> leftNode = left < nodes.length ? nodes[left] : null;
+                    Node<T> rightNode = left + 1 < nodes.length ? nodes[left + 1] : null;
+                    nodes[i] = new Node<>((T) this.values[i], leftNode, rightNode);
+                }
+            }
+            root = nodes[0];
+        }
+        this.pointerTree = new Tree<>(root);
+        this.values = null;
+        this.present = null;
+    }
+}
@@ -0,0 +1,59 @@
+package tree;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+
+/**
+ * Lazy breadth-first traversal of a tree. Its queue holds at most the
+ * nodes of two adjacent levels.
+ *
+ * @param <T> The type of the data stored in the tree.
+ * @author agent
+ */
+class LevelOrderIterator<T> implements Iterator<TreeEntry<T>> {
+    private final Queue<Node<T>> nodes = new ArrayDeque<>();
+    private final Queue<PathLink> positions; // null if not needed
+
+    /**
+     * @param root the root of the tree; may be null
+     * @param withPositions whether the entries should carry Positions
+     */
+    LevelOrderIterator(Node<T> root, boolean withPositions) {
+        this.positions = withPositions ? new ArrayDeque<>() : null;
+        if (root != null) {
+            this.nodes.add(root);
+            if (withPositions) {
+                this.positions.add(PathLink.ROOT);
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !this.nodes.isEmpty();
+    }
+
+    @Override
+    public TreeEntry<T> next() {
+        Node<T> node = this.nodes.poll();
+        if (node == null) {
+            throw new NoSuchElementException();
+        }
+        PathLink position = this.positions == null ? null : this.positions.poll();
+        if (node.getLeft() != null) {
+            this.nodes.add(node.getLeft());
+            if (position != null) {
+                this.positions.add(position.child(Direction.LEFT));
+            }
+        }
+        if (node.getRight() != null) {
+            this.nodes.add(node.getRight());
+            if (position != null) {
+                this.positions.add(position.child(Direction.RIGHT));
+            }
+        }
+        return new TreeEntry<>(position, node.getData());
+    }
+}
@@ -0,0 +1,118 @@
+package tree;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only memory mapping of a file of any length. A single
+ * MappedByteBuffer is limited to 2 GB, so the file is mapped in segments;
+ * consecutive segments overlap by 8 bytes, so that every int and long
+ * can be read from a single segment. Mapping is lazy on the side of the
+ * operating system: pages are only read from disk when they are touched.
+ *
+ * @author agent
+ */
+final class MappedFile implements Closeable {
+    /** The default distance between the starts of two segments. */
+    static final long DEFAULT_SEGMENT_SIZE = 1L << 30;
+
+    private static final int OVERLAP = Long.BYTES;
+
+    private final FileChannel channel;
+    private final long segmentSize;
+    private final MappedByteBuffer[] segments;
+    private final long length;
+
+    /**
+     * Maps file into memory.
+     *
+     * @param file the file to map
+     * @param segmentSize the distance between the starts of two segments;
+     *  0 < segmentSize <= Integer.MAX_VALUE - 8
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    MappedFile(Path file, long segmentSize) throws IOException {
+        if (segmentSize <= 0 || segmentSize > Integer.MAX_VALUE - OVERLAP) {
+            throw new IllegalArgumentException("Illegal segment size: " + segmentSize);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.segmentSize = segmentSize;
+        this.length = this.channel.size();
+        int count = (int) ((this.length + segmentSize - 1) / segmentSize);
+        this.segments = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long start = i * segmentSize;
+            long size = Math.min(segmentSize + OVERLAP, this.length - start);
+            this.segments[i] = this.channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+        }
+    }
+
+    /**
+     * @return the length of the file in bytes
+     */
+    long length() {
+        return this.length;
+    }
+
+    byte getByte(long pos) {
+        checkRange(pos, Byte.BYTES);
+        return segment(pos).get(offset(pos));
+    }
+
+    int getInt(long pos) {
+        checkRange(pos, Integer.BYTES);
+        return segment(pos).getInt(offset(pos));
+    }
+
+    long getLong(long pos) {
+        checkRange(pos, Long.BYTES);
+        return segment(pos).getLong(offset(pos));
+    }
+
+    /**
+     * @param pos where to start reading
+     * @return a DataInput that reads the file from pos onwards
+     */
+    DataInputStream inputAt(long pos) {
+        return new DataInputStream(new InputStream() {
+            private long next = pos;
+
+            @Override
+            public int read() {
+                if (this.next >= MappedFile.this.length) {
+                    return -1;
+                }
+                return getByte(this.next++) & 0xFF;
+            }
+        });
+    }
+
+    private MappedByteBuffer segment(long pos) {
+        return this.segments[(int) (pos / this.segmentSize)];
+    }
+
+    private int offset(long pos) {
+        return (int) (pos % this.segmentSize);
+    }
+
+    private void checkRange(long pos, int bytes) {
+        if (pos < 0 || pos + bytes > this.length) {
+            throw new IndexOutOfBoundsException("Illegal file position: " + pos);
+        }
+    }
+
+    /**
+     * Closes the underlying channel. The mapped memory is released by the
+     * garbage collector once the buffers are unreachable.
+     */
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
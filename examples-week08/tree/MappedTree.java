@@ -0,0 +1,310 @@
+package tree;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Read-only view of a Tree stored in a file in a compact binary format,
+ * opened via a memory mapping. Opening only reads a fixed-size header,
+ * so it takes O(1) time regardless of the size of the file; get then
+ * touches only the pages on the path to the requested node.
+ * <p>
+ * The shape of the tree is stored as a bit vector with two bits per
+ * node in level order (left child present, right child present), so the
+ * node with level-order index i (the root has index 0) has its bits at
+ * 2 * i and 2 * i + 1. The index of the child belonging to a set bit is
+ * the number of set bits up to and including it, so navigation needs
+ * only rank queries. These take O(1) time via cumulative counts stored
+ * for every block of 8 words (6.25% on top of the 2 bits per node).
+ * Payloads are written by a Codec, each prefixed with its length. The
+ * file offset of every 16th payload is stored, so reading a payload
+ * skips at most 15 others by their lengths.
+ * <p>
+ * Layout (big-endian): MAGIC, VERSION, the number of nodes n (int);
+ * the bit vector ((2n + 63) / 64 longs); the cumulative counts of set
+ * bits before every 8th word (ints); the offsets of every 16th payload
+ * (longs); the payloads (length as int, bytes from the Codec).
+ *
+ * @param <T> The type of the data stored in the tree.
+ * @author agent
+ */
+public class MappedTree<T> implements Closeable {
+    /** Identifies files written by write: "TREE" in ASCII. */
+    public static final int MAGIC = 0x54524545;
+
+    /** The version of the format described above. */
+    public static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 3 * Integer.BYTES;
+    private static final int WORDS_PER_BLOCK = 8;
+    private static final int PAYLOADS_PER_SAMPLE = 16;
+
+    private final MappedFile file;
+    private final Codec<T> codec;
+    private final int size; // the number of nodes
+    private final int words; // the number of longs in the bit vector
+    private final long rankStart; // file offset of the cumulative counts
+    private final long sampleStart; // file offset of the payload offsets
+
+    private MappedTree(MappedFile file, Codec<T> codec) throws IOException {
+        this.file = file;
+        this.codec = codec;
+        if (file.length() < HEADER_BYTES || file.getInt(0) != MAGIC) {
+            throw new IOException("Not a tree file");
+        }
+        if (file.getInt(Integer.BYTES) != VERSION) {
+            throw new IOException("Unsupported version: " + file.getInt(Integer.BYTES));
+        }
+        this.size = file.getInt(2 * Integer.BYTES);
+        this.words = words(this.size);
+        this.rankStart = HEADER_BYTES + (long) Long.BYTES * this.words;
+        this.sampleStart = this.rankStart + (long) Integer.BYTES * blocks(this.words);
+    }
+
+    private static int words(int nodes) {
+        return (int) ((2L * nodes + Long.SIZE - 1) / Long.SIZE);
+    }
+
+    private static int blocks(int words) {
+        return words / WORDS_PER_BLOCK + 1;
+    }
+
+    private static int samples(int nodes) {
+        return (nodes + PAYLOADS_PER_SAMPLE - 1) / PAYLOADS_PER_SAMPLE;
+    }
+
+    /**
+     * Writes tree to file in the format described above, replacing any
+     * previous contents of file. Visits the nodes in level order with an
+     * explicit queue.
+     *
+     * @param tree the tree to write; non-null
+     * @param codec converts the values of tree to bytes; non-null
+     * @param file where to write to
+     * @throws IOException if file cannot be written
+     */
+    public static <T> void write(Tree<T> tree, Codec<T> codec, Path file) throws IOException {
+        final int n = tree.size();
+        final int words = words(n);
+        final int blocks = blocks(words);
+        long[] bits = new long[words];
+        long[] samples = new long[samples(n)];
+        long payloadStart = HEADER_BYTES + (long) Long.BYTES * words
+                + (long) Integer.BYTES * blocks + (long) Long.BYTES * samples.length;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            // first the payloads, collecting the shape on the way
+            channel.position(payloadStart);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Channels.newOutputStream(channel)));
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            DataOutputStream payload = new DataOutputStream(buffer);
+            Deque<Node<T>> queue = new ArrayDeque<>();
+            if (tree.getRoot() != null) {
+                queue.add(tree.getRoot());
+            }
+            long written = 0; // out.size() is an int and saturates at 2 GB
+            int index = 0;
+            while (!queue.isEmpty()) {
+                Node<T> node = queue.poll();
+                if (node.getLeft() != null) {
+                    bits[(int) (2L * index / Long.SIZE)] |= 1L << (2L * index % Long.SIZE);
+                    queue.add(node.getLeft());
+                }
+                if (node.getRight() != null) {
+                    bits[(int) ((2L * index + 1) / Long.SIZE)] |= 1L << ((2L * index + 1) % Long.SIZE);
+                    queue.add(node.getRight());
+                }
+                if (index % PAYLOADS_PER_SAMPLE == 0) {
+                    samples[index / PAYLOADS_PER_SAMPLE] = payloadStart + written;
+                }
+                buffer.reset();
+                codec.write(node.getData(), payload);
+                payload.flush();
+                out.writeInt(buffer.size());
+                buffer.writeTo(out);
+                written += Integer.BYTES + buffer.size();
+                index++;
+            }
+            assert index == n;
+            out.flush();
+
+            // then the header, the shape, the counts and the offsets
+            channel.position(0);
+            out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(n);
+            for (long word : bits) {
+                out.writeLong(word);
+            }
+            int count = 0;
+            for (int block = 0; block < blocks; block++) {
+                out.writeInt(count);
+                for (int w = block * WORDS_PER_BLOCK;
+                        w < Math.min(words, (block + 1) * WORDS_PER_BLOCK); w++) {
+                    count += Long.bitCount(bits[w]);
+                }
+            }
+            for (long sample : samples) {
+                out.writeLong(sample);
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Opens a file written by write. Only the header is read here; the
+     * rest of the file is read on demand by get and toTree.
+     *
+     * @param file the file to open
+     * @param codec converts bytes back to values; non-null
+     * @return a read-only view of the tree in file
+     * @throws IOException if file cannot be mapped or is not a tree file
+     */
+    public static <T> MappedTree<T> open(Path file, Codec<T> codec) throws IOException {
+        return open(file, codec, MappedFile.DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Variant of open with a given segment size for the mapping, e.g.,
+     * to exercise reads across segment boundaries on small files.
+     */
+    static <T> MappedTree<T> open(Path file, Codec<T> codec, long segmentSize)
+            throws IOException {
+        MappedFile mapped = new MappedFile(file, segmentSize);
+        try {
+            return new MappedTree<>(mapped, codec);
+        } catch (IOException | RuntimeException e) {
+            mapped.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of nodes in the tree
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return whether the tree is empty
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Get the data stored in the tree at Position pos. Takes O(pos.size())
+     * rank queries plus decoding the value.
+     *
+     * @param pos must be a position in which the tree has a node
+     * @return the data stored at that node
+     * @throws IOException if the value cannot be decoded
+     */
+    public T get(Position pos) throws IOException {
+        if (this.size == 0) {
+            throw new IllegalArgumentException("No data stored at this position!");
+        }
+        int node = 0;
+        final int posSize = pos.size();
+        for (int index = 0; index < posSize; index++) {
+            long bit = 2L * node + (pos.get(index) == Direction.LEFT ? 0 : 1);
+            if (!isSet(bit)) {
+                throw new IllegalArgumentException("No data stored at this position!");
+            }
+            node = rank(bit);
+        }
+        return value(node);
+    }
+
+    private long word(int w) {
+        return this.file.getLong(HEADER_BYTES + (long) Long.BYTES * w);
+    }
+
+    private boolean isSet(long bit) {
+        return (word((int) (bit / Long.SIZE)) >>> (bit % Long.SIZE) & 1L) != 0;
+    }
+
+    /**
+     * @return the number of set bits in the bit vector up to and
+     *  including position bit
+     */
+    private int rank(long bit) {
+        int w = (int) (bit / Long.SIZE);
+        int block = w / WORDS_PER_BLOCK;
+        int result = this.file.getInt(this.rankStart + (long) Integer.BYTES * block);
+        for (int i = block * WORDS_PER_BLOCK; i < w; i++) {
+            result += Long.bitCount(word(i));
+        }
+        int shift = (int) (Long.SIZE - 1 - bit % Long.SIZE); // keep bits 0..bit % 64
+        return result + Long.bitCount(word(w) << shift);
+    }
+
+    /**
+     * @return the value of the node with the given level-order index
+     */
+    private T value(int node) throws IOException {
+        long pos = this.file.getLong(this.sampleStart
+                + (long) Long.BYTES * (node / PAYLOADS_PER_SAMPLE));
+        for (int skip = node % PAYLOADS_PER_SAMPLE; skip > 0; skip--) {
+            pos += Integer.BYTES + this.file.getInt(pos);
+        }
+        return this.codec.read(this.file.inputAt(pos + Integer.BYTES));
+    }
+
+    /**
+     * Reads the whole tree into Nodes in O(n). The Nodes are created in
+     * level order, which is also the order of the values in the file.
+     *
+     * @return a new Tree with the same shape and values
+     * @throws IOException if a value cannot be decoded
+     */
+    public Tree<T> toTree() throws IOException {
+        if (this.size == 0) {
+            return new Tree<>();
+        }
+        // Nodes created but not yet given their children, in level order
+        Deque<Node<T>> waiting = new ArrayDeque<>();
+        DataInputStream in = this.file.inputAt(this.file.getLong(this.sampleStart));
+        Node<T> root = new Node<>(readValue(in));
+        waiting.add(root);
+        for (int index = 0; index < this.size; index++) {
+            Node<T> node = waiting.poll();
+            if (isSet(2L * index)) {
+                node.setLeft(new Node<>(readValue(in)));
+                waiting.add(node.getLeft());
+            }
+            if (isSet(2L * index + 1)) {
+                node.setRight(new Node<>(readValue(in)));
+                waiting.add(node.getRight());
+            }
+        }
+        return new Tree<>(root); // computes the sizes
+    }
+
+    private T readValue(DataInputStream in) throws IOException {
+        in.readInt(); // the length is only needed for skipping
+        return this.codec.read(in);
+    }
+
+    /**
+     * Closes the file; the view must not be used afterwards.
+     */
+    @Override
+    public void close() throws IOException {
+        this.file.close();
+    }
+}
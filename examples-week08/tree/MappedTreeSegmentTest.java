@@ -0,0 +1,68 @@
+package tree;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test cases for reading MappedTrees whose file is mapped in many tiny
+ * segments, so that ints, longs and values straddle segment boundaries.
+ * In package tree since the segment size is not part of the public API.
+ *
+ * @author agent
+ */
+public class MappedTreeSegmentTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void test_tinySegments() throws IOException {
+        Random random = new Random(40);
+        Tree<String> tree = new Tree<>();
+        for (int i = 0; i < 1000; i++) {
+            StringBuilder pos = new StringBuilder();
+            for (int d = random.nextInt(20); d > 0; d--) {
+                pos.append(random.nextBoolean() ? 'L' : 'R');
+            }
+            // values of varying lengths, so records start at odd offsets
+            tree.addAtPosition(PackedPosition.parse(pos), "#".repeat(random.nextInt(5)) + i);
+        }
+        Path file = this.folder.newFile().toPath();
+        MappedTree.write(tree, Codec.strings(), file);
+        for (long segmentSize : new long[] { 1, 3, 8, 13, 100 }) {
+            try (MappedTree<String> mapped = MappedTree.open(file, Codec.strings(),
+                    segmentSize)) {
+                assertEquals(tree.size(), mapped.size());
+                for (TreeEntry<String> entry : tree.entries(TraversalOrder.LEVEL_ORDER)) {
+                    assertEquals(entry.getData(), mapped.get(entry.getPosition()));
+                }
+                assertEquals(tree.toString(), mapped.toTree().toString());
+            }
+        }
+    }
+
+    @Test
+    public void test_segmentBoundaries() throws IOException {
+        Path file = this.folder.newFile().toPath();
+        Files.write(file, new byte[] { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11,
+                12, 13, 14, 15, 16, 17, 18, 19 });
+        try (MappedFile mapped = new MappedFile(file, 5)) {
+            assertEquals(20, mapped.length());
+            for (int pos = 0; pos < 20; pos++) {
+                assertEquals(pos, mapped.getByte(pos));
+            }
+            // starts in the segment at 0, ends in the one at 5
+            assertEquals(0x03040506, mapped.getInt(3));
+            assertEquals(0x0C0D0E0F10111213L, mapped.getLong(12));
+            assertEquals(0x0405060708090A0BL, mapped.inputAt(4).readLong());
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package tree;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Merkle hashes of binary trees: the hash of a Node combines the
+ * hashCode of its data with the hashes of its two subtrees, so equal
+ * subtrees have equal hashes, and a change anywhere in a subtree changes
+ * the hash of its root with high probability. Hashes are cached in the
+ * Nodes; a Node whose cache is 0 is recomputed on demand, so after
+ * modifications only the Nodes on the modified paths are rehashed, as
+ * long as the cache of every ancestor of a modified Node was reset, too.
+ *
+ * Hashes are comparable between processes if the hashCode of the data
+ * is, as for Strings and Integers.
+ *
+ * @author agent
+ */
+final class MerkleHashes {
+
+    /** The hash of the empty tree. */
+    static final long EMPTY = 0x6A09E667F3BCC909L;
+
+    // stands for a missing subtree on the stacks, which reject null
+    private static final Node<Object> MISSING = new Node<>(null);
+
+    private MerkleHashes() {
+        // only static helpers
+    }
+
+    /**
+     * Computes the hash of the subtree below root, rehashing exactly the
+     * Nodes whose cached hash is 0 and that are reachable from root via
+     * such Nodes. Uses an explicit stack instead of recursion.
+     *
+     * @param root the root of the subtree; may be null
+     * @return the hash of the subtree
+     */
+    static <T> long hashOf(Node<T> root) {
+        if (root == null) {
+            return EMPTY;
+        }
+        if (root.getHash() != 0L) {
+            return root.getHash();
+        }
+        Deque<Node<T>> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node<T> node = stack.peek();
+            Node<T> left = node.getLeft();
+            Node<T> right = node.getRight();
+            if (left != null && left.getHash() == 0L) {
+                stack.push(left);
+            } else if (right != null && right.getHash() == 0L) {
+                stack.push(right);
+            } else { // both subtrees are hashed
+                stack.pop();
+                node.setHash(combine(Objects.hashCode(node.getData()),
+                        left == null ? EMPTY : left.getHash(),
+                        right == null ? EMPTY : right.getHash()));
+            }
+        }
+        return root.getHash();
+    }
+
+    /**
+     * @return the hash of a Node with data of the given hashCode and
+     *  subtrees with the given hashes; never 0
+     */
+    private static long combine(int dataHash, long leftHash, long rightHash) {
+        // the order of the arguments matters, so mirrored trees differ
+        long result = mix(dataHash ^ 0x9E3779B97F4A7C15L);
+        result = mix(result ^ leftHash);
+        result = mix(result + rightHash * 0xC2B2AE3D27D4EB4FL);
+        return result == 0L ? 1L : result;
+    }
+
+    /**
+     * The finalizer of SplitMix64: every bit of the result depends on
+     * every bit of z.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Compares two trees exactly: same shape and equal data at every
+     * position. Trees with different sizes or different hashes are told
+     * apart without a traversal; otherwise the trees are compared pairwise,
+     * skipping subtrees that are the very same Nodes in both trees.
+     *
+     * @param root1 the root of the first tree; may be null
+     * @param root2 the root of the second tree; may be null
+     * @return whether the trees are equal
+     */
+    static boolean equal(Node<?> root1, Node<?> root2) {
+        if (Node.sizeOf(root1) != Node.sizeOf(root2) || hashOf(root1) != hashOf(root2)) {
+            return false;
+        }
+        Deque<Node<?>> stack1 = new ArrayDeque<>();
+        Deque<Node<?>> stack2 = new ArrayDeque<>();
+        push(stack1, stack2, root1, root2);
+        while (!stack1.isEmpty()) {
+            Node<?> node1 = unwrap(stack1.pop());
+            Node<?> node2 = unwrap(stack2.pop());
+            if (node1 == null || node2 == null
+                    || !Objects.equals(node1.getData(), node2.getData())) {
+                return false;
+            }
+            push(stack1, stack2, node1.getLeft(), node2.getLeft());
+            push(stack1, stack2, node1.getRight(), node2.getRight());
+        }
+        return true;
+    }
+
+    private static void push(Deque<Node<?>> stack1, Deque<Node<?>> stack2,
+            Node<?> node1, Node<?> node2) {
+        if (node1 != node2) { // also skips the case that both are null
+            stack1.push(node1 == null ? MISSING : node1);
+            stack2.push(node2 == null ? MISSING : node2);
+        }
+    }
+
+    /**
+     * Collects the Positions at which two trees differ: where both have a
+     * Node but with unequal data, and where only one of them has a Node
+     * (then only the topmost such Position is reported, not the whole
+     * subtree below it). Subtrees with equal hashes are skipped without
+     * looking inside, so the cost is O(d * k) for k differences at depth
+     * at most d, plus rehashing the modified paths. Differences can only
+     * be missed if hashes collide, e.g., for two values with the same
+     * hashCode.
+     *
+     * @param root1 the root of the first tree; may be null
+     * @param root2 the root of the second tree; may be null
+     * @param result where to add the Positions, in pre-order
+     */
+    static void diff(Node<?> root1, Node<?> root2, List<PackedPosition> result) {
+        Deque<Node<?>> stack1 = new ArrayDeque<>();
+        Deque<Node<?>> stack2 = new ArrayDeque<>();
+        Deque<PackedPosition> positions = new ArrayDeque<>();
+        push(stack1, stack2, root1, root2);
+        positions.push(PackedPosition.root());
+        while (!stack1.isEmpty()) {
+            Node<?> node1 = unwrap(stack1.pop());
+            Node<?> node2 = unwrap(stack2.pop());
+            PackedPosition pos = positions.pop();
+            if (node1 == null || node2 == null) {
+                result.add(pos);
+                continue;
+            }
+            if (hashOf(node1) == hashOf(node2)) {
+                continue;
+            }
+            if (!Objects.equals(node1.getData(), node2.getData())) {
+                result.add(pos);
+            }
+            // push in reverse order
+            if (node1.getRight() != node2.getRight()) {
+                push(stack1, stack2, node1.getRight(), node2.getRight());
+                positions.push(pos.child(Direction.RIGHT));
+            }
+            if (node1.getLeft() != node2.getLeft()) {
+                push(stack1, stack2, node1.getLeft(), node2.getLeft());
+                positions.push(pos.child(Direction.LEFT));
+            }
+        }
+    }
+
+    private static Node<?> unwrap(Node<?> node) {
+        return node == MISSING ? null : node;
+    }
+}
@@ -0,0 +1,113 @@
+package tree;
+
+import java.util.Comparator;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * An aggregate over values of type T: each value is lifted to an
+ * aggregate of type A, and aggregates are combined with an associative
+ * operation that has an identity, i.e., A forms a monoid. The combine
+ * operation need not be commutative; Tree combines aggregates in
+ * in-order.
+ *
+ * Tree.aggregate caches the aggregates of the subtrees for the last
+ * Monoid it was called with, compared by identity, so a Monoid should be
+ * created once and then reused for all queries.
+ *
+ * @param <T> the type of the values
+ * @param <A> the type of the aggregates
+ * @author agent
+ */
+public final class Monoid<T, A> {
+    private final A identity;
+    private final Function<? super T, ? extends A> lift;
+    private final BinaryOperator<A> combine;
+
+    private Monoid(A identity, Function<? super T, ? extends A> lift,
+            BinaryOperator<A> combine) {
+        this.identity = identity;
+        this.lift = lift;
+        this.combine = combine;
+    }
+
+    /**
+     * @param identity the aggregate of no values; an identity for combine
+     * @param lift computes the aggregate of a single value
+     * @param combine combines the aggregates of two consecutive parts;
+     *  must be associative
+     * @param <T> the type of the values
+     * @param <A> the type of the aggregates
+     * @return a new Monoid
+     */
+    public static <T, A> Monoid<T, A> of(A identity, Function<? super T, ? extends A> lift,
+            BinaryOperator<A> combine) {
+        return new Monoid<>(identity, lift, combine);
+    }
+
+    /**
+     * @param value maps each value to a number
+     * @param <T> the type of the values
+     * @return a Monoid that sums up the numbers for the values
+     */
+    public static <T> Monoid<T, Long> sum(ToLongFunction<? super T> value) {
+        return new Monoid<>(0L, x -> value.applyAsLong(x), Long::sum);
+    }
+
+    /**
+     * @param predicate the property of the values to count
+     * @param <T> the type of the values
+     * @return a Monoid that counts the values with the property
+     */
+    public static <T> Monoid<T, Integer> count(Predicate<? super T> predicate) {
+        return new Monoid<>(0, x -> predicate.test(x) ? 1 : 0, Integer::sum);
+    }
+
+    /**
+     * @param comparator the order of the values
+     * @param <T> the type of the values
+     * @return a Monoid for the smallest value, the leftmost one among
+     *  equal values; null for no values
+     */
+    public static <T> Monoid<T, T> min(Comparator<? super T> comparator) {
+        return new Monoid<>(null, x -> x, (x, y) ->
+                x == null ? y : y == null ? x : comparator.compare(y, x) < 0 ? y : x);
+    }
+
+    /**
+     * @param comparator the order of the values
+     * @param <T> the type of the values
+     * @return a Monoid for the largest value, the leftmost one among equal
+     *  values; null for no values
+     */
+    public static <T> Monoid<T, T> max(Comparator<? super T> comparator) {
+        return new Monoid<>(null, x -> x, (x, y) ->
+                x == null ? y : y == null ? x : comparator.compare(y, x) > 0 ? y : x);
+    }
+
+    /**
+     * @return the aggregate of no values
+     */
+    public A identity() {
+        return this.identity;
+    }
+
+    /**
+     * @param value a single value
+     * @return the aggregate of value
+     */
+    public A lift(T value) {
+        return this.lift.apply(value);
+    }
+
+    /**
+     * @param x the aggregate of a part
+     * @param y the aggregate of the part right after it
+     * @return the aggregate of both parts
+     */
+    public A combine(A x, A y) {
+        return this.combine.apply(x, y);
+    }
+}
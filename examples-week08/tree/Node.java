@@ -16,6 +16,9 @@ public class Node<T> {
     private T data; // the data element stored at the current node
     private Node<T> left; // the left subtree
     private Node<T> right; // the right subtree
+    private int size; // the number of Nodes in the subtree rooted here
+    private long hash; // Merkle hash of the subtree rooted here; 0 if unknown
+    private Object aggregate; // see SubtreeAggregates; null if unknown
 
     /**
      * Constructs a new Node with data as the encapsulated value.
@@ -29,6 +32,7 @@ public class Node<T> {
     /**
      * Constructs a new node using data, left, and right
      * as the new node's data, left subtree, and right subtree.
+     * The size of the new node is computed from the sizes of left and right.
      *
      * @param data the data element to store in this Node
      * @param left the left subtree; use null for none
@@ -38,6 +42,7 @@ public class Node<T> {
         this.data = data;
         this.left = left;
         this.right = right;
+        this.size = 1 + sizeOf(left) + sizeOf(right);
     }
 
     /**
@@ -82,6 +87,85 @@ public class Node<T> {
         this.right = right;
     }
 
+    /**
+     * The number of Nodes in the subtree rooted in this Node. It is
+     * maintained by Tree; setLeft and setRight do not update it.
+     *
+     * @return the number of Nodes in the subtree rooted in this Node
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * @param size the number of Nodes in the subtree rooted in this Node
+     */
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Recomputes the size of this Node from the sizes of its subtrees.
+     */
+    public void updateSize() {
+        this.size = 1 + sizeOf(this.left) + sizeOf(this.right);
+    }
+
+    /**
+     * @param node the root of a subtree; may be null
+     * @param <T> the type of the data in the Node
+     * @return the number of Nodes in the subtree, 0 for null
+     */
+    public static <T> int sizeOf(Node<T> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * The Merkle hash of the subtree rooted in this Node, as computed by
+     * MerkleHashes. It is cached by Tree, which resets it to 0 for every
+     * Node on a modified path; setData, setLeft and setRight do not
+     * update it.
+     *
+     * @return the hash of the subtree rooted in this Node; 0 if it has not
+     *  been computed since the last modification
+     */
+    public long getHash() {
+        return this.hash;
+    }
+
+    /**
+     * @param hash the hash of the subtree rooted in this Node; 0 to mark
+     *  it as unknown
+     */
+    public void setHash(long hash) {
+        this.hash = hash;
+    }
+
+    /**
+     * @return the aggregate of the subtree rooted in this Node as cached
+     *  by SubtreeAggregates; null if unknown
+     */
+    Object getAggregate() {
+        return this.aggregate;
+    }
+
+    /**
+     * @param aggregate the aggregate of the subtree rooted in this Node;
+     *  null to mark it as unknown
+     */
+    void setAggregate(Object aggregate) {
+        this.aggregate = aggregate;
+    }
+
+    /**
+     * Marks the Merkle hash and the aggregate of this Node as unknown,
+     * after a modification in the subtree rooted in this Node.
+     */
+    void resetCaches() {
+        this.hash = 0L;
+        this.aggregate = null;
+    }
+
     /**
      * @return a String representation of the data stored in this Node
      */
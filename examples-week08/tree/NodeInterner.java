@@ -0,0 +1,167 @@
+package tree;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+
+/**
+ * Intern table for hash-consing: for every combination of data and
+ * (already interned) subtrees it hands out a single canonical Node, so
+ * structurally identical subtrees are shared instead of stored once per
+ * occurrence. Two Nodes are identical if their data are equal and their
+ * subtrees are the very same Nodes; since subtrees are interned first,
+ * this is structural equality of whole subtrees.
+ *
+ * The table is an open-addressing hash table with linear probing that
+ * stores just the canonical Nodes themselves, i.e., one array slot per
+ * distinct subtree and no entry objects. Interned Nodes must never be
+ * modified.
+ *
+ * @param <T> The type of the data stored in the Nodes.
+ * @author agent
+ */
+final class NodeInterner<T> {
+    private Node<T>[] table; // length is a power of 2; null for free slots
+    private int count; // the number of canonical Nodes
+    private int sizeAtRebuild; // count at the last markRebuilt()
+
+    /**
+     * Constructs an empty NodeInterner.
+     */
+    NodeInterner() {
+        this.table = newTable(16);
+        this.count = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Node<T>[] newTable(int length) {
+        return (Node<T>[]) new Node<?>[length];
+    }
+
+    /**
+     * Builds a table that holds exactly the distinct Nodes reachable from
+     * root, which must all have been interned in one table before. Used
+     * to drop the Nodes that only old versions of a tree referenced. Uses
+     * an explicit stack instead of recursion and visits each distinct
+     * Node once.
+     *
+     * @param root the root of an interned DAG; may be null
+     * @return a new NodeInterner for the Nodes reachable from root
+     */
+    static <T> NodeInterner<T> of(Node<T> root) {
+        NodeInterner<T> result = new NodeInterner<>();
+        Deque<Node<T>> stack = new ArrayDeque<>();
+        if (root != null) {
+            stack.push(root);
+        }
+        while (!stack.isEmpty()) {
+            Node<T> node = stack.pop();
+            if (result.add(node)) { // shared subtrees are added only once
+                if (node.getLeft() != null) {
+                    stack.push(node.getLeft());
+                }
+                if (node.getRight() != null) {
+                    stack.push(node.getRight());
+                }
+            }
+        }
+        result.markRebuilt();
+        return result;
+    }
+
+    /**
+     * @param data the data of the Node
+     * @param left an interned Node or null
+     * @param right an interned Node or null
+     * @return the canonical Node with these data and subtrees; a new one
+     *  if there is none yet
+     */
+    Node<T> intern(T data, Node<T> left, Node<T> right) {
+        final int mask = this.table.length - 1;
+        int slot = hash(data, left, right) & mask;
+        for (Node<T> node = this.table[slot]; node != null; node = this.table[slot]) {
+            if (node.getLeft() == left && node.getRight() == right
+                    && Objects.equals(node.getData(), data)) {
+                return node;
+            }
+            slot = (slot + 1) & mask;
+        }
+        Node<T> result = new Node<>(data, left, right);
+        this.table[slot] = result;
+        this.count++;
+        if (2 * this.count > this.table.length) { // keep the load at most 1/2
+            resize();
+        }
+        return result;
+    }
+
+    /**
+     * Adds node itself as the canonical Node for its data and subtrees,
+     * unless the table already has one.
+     *
+     * @return whether node was added
+     */
+    private boolean add(Node<T> node) {
+        final int mask = this.table.length - 1;
+        int slot = hash(node.getData(), node.getLeft(), node.getRight()) & mask;
+        for (Node<T> other = this.table[slot]; other != null; other = this.table[slot]) {
+            if (other == node) {
+                return false;
+            }
+            assert other.getLeft() != node.getLeft() || other.getRight() != node.getRight()
+                    || !Objects.equals(other.getData(), node.getData());
+            slot = (slot + 1) & mask;
+        }
+        this.table[slot] = node;
+        this.count++;
+        if (2 * this.count > this.table.length) {
+            resize();
+        }
+        return true;
+    }
+
+    private static int hash(Object data, Node<?> left, Node<?> right) {
+        long h = Objects.hashCode(data) * 0x9E3779B97F4A7C15L;
+        h = (h ^ System.identityHashCode(left)) * 0xC2B2AE3D27D4EB4FL;
+        h = (h ^ System.identityHashCode(right)) * 0x94D049BB133111EBL;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void resize() {
+        Node<T>[] old = this.table;
+        this.table = newTable(2 * old.length);
+        final int mask = this.table.length - 1;
+        for (Node<T> node : old) {
+            if (node != null) {
+                int slot = hash(node.getData(), node.getLeft(), node.getRight()) & mask;
+                while (this.table[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                this.table[slot] = node;
+            }
+        }
+    }
+
+    /**
+     * @return the number of distinct Nodes handed out so far
+     */
+    int size() {
+        return this.count;
+    }
+
+    /**
+     * @return the number of Nodes in this table at the last call of
+     *  markRebuilt(); 0 if there was none
+     */
+    int sizeAtRebuild() {
+        return this.sizeAtRebuild;
+    }
+
+    /**
+     * Records that this table currently holds only live Nodes, e.g.,
+     * right after a compaction pass or of().
+     */
+    void markRebuilt() {
+        this.sizeAtRebuild = this.count;
+    }
+}
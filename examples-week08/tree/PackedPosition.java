@@ -0,0 +1,369 @@
+package tree;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+
+/**
+ * A Position stored as bits instead of a List of Directions: bit i is 1
+ * iff the i-th Direction is RIGHT. The first 64 Directions live in a
+ * single long; only deeper positions need an extra long[] for the rest.
+ * Tree.get and Tree.addAtPosition follow a PackedPosition with shifts and
+ * masks instead of calls through List.get.
+ *
+ * Instances are immutable. Create them with parse, with a Builder, or by
+ * converting another Position with of.
+ *
+ * @author agent
+ */
+public final class PackedPosition extends Position {
+    private final int depth; // the number of Directions
+    private final long firstWord; // Directions 0..63
+    // Directions 64.. in words of 64 bits; null iff depth <= 64
+    private final long[] moreWords;
+
+    private static final PackedPosition ROOT = new PackedPosition(0, 0L, null);
+
+    /**
+     * Orders PackedPositions like a pre-order traversal of a complete tree
+     * visits them: a Position comes before all Positions below it, and
+     * below a common prefix, LEFT comes before RIGHT. Consecutive
+     * Positions in this order share as long a prefix as possible.
+     */
+    public static final Comparator<PackedPosition> TRIE_ORDER = (p1, p2) -> {
+        int common = p1.commonPrefixLength(p2);
+        if (common == p1.depth || common == p2.depth) {
+            return Integer.compare(p1.depth, p2.depth);
+        }
+        return p1.isRight(common) ? 1 : -1;
+    };
+
+    /**
+     * Constructs a PackedPosition from its bits; the caller must not modify
+     * moreWords afterwards.
+     */
+    private PackedPosition(int depth, long firstWord, long[] moreWords) {
+        super(Collections.emptyList()); // the list of the superclass is unused
+        this.depth = depth;
+        this.firstWord = firstWord;
+        this.moreWords = moreWords;
+    }
+
+    /**
+     * @return the PackedPosition of the root of a Tree
+     */
+    public static PackedPosition root() {
+        return ROOT;
+    }
+
+    /**
+     * @param depth the number of Directions; >= 1
+     * @param words the Directions as bits, 64 per word, with 0 beyond
+     *  depth; (depth + 63) / 64 words; must not be modified afterwards
+     * @return the PackedPosition with these Directions
+     */
+    static PackedPosition fromWords(int depth, long[] words) {
+        assert words.length == (depth + Long.SIZE - 1) / Long.SIZE;
+        return new PackedPosition(depth, words[0],
+                words.length == 1 ? null : Arrays.copyOfRange(words, 1, words.length));
+    }
+
+    /**
+     * Parses a String such as "RLLR" into a PackedPosition, where 'L' (or
+     * 'l') stands for LEFT and 'R' (or 'r') for RIGHT. Apart from the
+     * result (and, beyond depth 64, its array), nothing is allocated.
+     *
+     * @param directions the Directions as characters; non-null
+     * @return the corresponding PackedPosition
+     * @throws IllegalArgumentException if directions contains another
+     *  character
+     */
+    public static PackedPosition parse(CharSequence directions) {
+        final int depth = directions.length();
+        if (depth == 0) {
+            return ROOT;
+        }
+        long firstWord = 0L;
+        long[] moreWords = depth > Long.SIZE ? new long[(depth - 1) / Long.SIZE] : null;
+        for (int i = 0; i < depth; i++) {
+            char c = directions.charAt(i);
+            long bit;
+            if (c == 'L' || c == 'l') {
+                bit = 0L;
+            } else if (c == 'R' || c == 'r') {
+                bit = 1L;
+            } else {
+                throw new IllegalArgumentException("Illegal direction '" + c
+                        + "' at index " + i + " of " + directions);
+            }
+            if (i < Long.SIZE) {
+                firstWord |= bit << i;
+            } else {
+                moreWords[i / Long.SIZE - 1] |= bit << (i % Long.SIZE);
+            }
+        }
+        return new PackedPosition(depth, firstWord, moreWords);
+    }
+
+    /**
+     * Converts pos to a PackedPosition.
+     *
+     * @param pos the Position to convert; non-null
+     * @return pos itself if it already is a PackedPosition, otherwise
+     *  a PackedPosition with the same Directions
+     */
+    public static PackedPosition of(Position pos) {
+        if (pos instanceof PackedPosition) {
+            return (PackedPosition) pos;
+        }
+        Builder builder = new Builder();
+        final int size = pos.size();
+        for (int i = 0; i < size; i++) {
+            builder.append(pos.get(i));
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return the number of Directions in this Position
+     */
+    @Override
+    public int size() {
+        return this.depth;
+    }
+
+    /**
+     * @param index we want the Direction indicated for the index;
+     *  0 <= i < this.size() must hold
+     * @return the Direction indicated at index i
+     */
+    @Override
+    public Direction get(int index) {
+        return isRight(index) ? Direction.RIGHT : Direction.LEFT;
+    }
+
+    /**
+     * @param index 0 <= i < this.size() must hold
+     * @return whether the Direction at index is RIGHT
+     */
+    public boolean isRight(int index) {
+        if (index < 0 || index >= this.depth) {
+            throw new IndexOutOfBoundsException("Index " + index + " for depth " + this.depth);
+        }
+        return (word(index / Long.SIZE) >>> (index % Long.SIZE) & 1L) != 0;
+    }
+
+    /**
+     * @param wordIndex 0 <= wordIndex <= (this.size() - 1) / 64 must hold
+     * @return the 64 Directions starting at index 64 * wordIndex as bits;
+     *  bits beyond this.size() are 0
+     */
+    long word(int wordIndex) {
+        return wordIndex == 0 ? this.firstWord : this.moreWords[wordIndex - 1];
+    }
+
+    /**
+     * @param from 0 <= from must hold
+     * @return the 64 Directions starting at index from as bits; bits
+     *  beyond this.size() are 0
+     */
+    long bitsFrom(int from) {
+        if (from >= this.depth) {
+            return 0L;
+        }
+        final int wordIndex = from / Long.SIZE;
+        final int offset = from % Long.SIZE;
+        long result = word(wordIndex) >>> offset;
+        if (offset != 0 && (wordIndex + 1) * Long.SIZE < this.depth) {
+            result |= word(wordIndex + 1) << (Long.SIZE - offset);
+        }
+        return result;
+    }
+
+    /**
+     * Copies the Directions of this Position, so it takes O(depth / 64);
+     * traversals use PathLink instead to share prefixes.
+     *
+     * @param d the Direction to append; non-null
+     * @return a new PackedPosition for the child of this Position in
+     *  direction d
+     */
+    public PackedPosition child(Direction d) {
+        final int index = this.depth;
+        long bit = d == Direction.RIGHT ? 1L : 0L;
+        if (index < Long.SIZE) {
+            return new PackedPosition(index + 1, this.firstWord | bit << index, null);
+        }
+        int words = index / Long.SIZE; // number of words in moreWords needed
+        long[] moreWords = this.moreWords == null
+                ? new long[words]
+                : Arrays.copyOf(this.moreWords, words);
+        moreWords[words - 1] |= bit << (index % Long.SIZE);
+        return new PackedPosition(index + 1, this.firstWord, moreWords);
+    }
+
+    /**
+     * @param other the Position to compare with; non-null
+     * @return the number of leading Directions that this Position and
+     *  other have in common, compared 64 at a time
+     */
+    public int commonPrefixLength(PackedPosition other) {
+        final int common = Math.min(this.depth, other.depth);
+        final int words = (common + Long.SIZE - 1) / Long.SIZE;
+        for (int w = 0; w < words; w++) {
+            long difference = word(w) ^ other.word(w);
+            if (difference != 0L) {
+                return Math.min(common, w * Long.SIZE + Long.numberOfTrailingZeros(difference));
+            }
+        }
+        return common;
+    }
+
+    /**
+     * @return the Directions of this Position as a String such as "RLLR"
+     */
+    public String toCompactString() {
+        StringBuilder result = new StringBuilder(this.depth);
+        for (int i = 0; i < this.depth; i++) {
+            result.append(isRight(i) ? 'R' : 'L');
+        }
+        return result.toString();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj instanceof PackedPosition) {
+            PackedPosition other = (PackedPosition) obj;
+            return this.depth == other.depth
+                    && this.firstWord == other.firstWord
+                    && Arrays.equals(this.moreWords, other.moreWords);
+        }
+        return super.equals(obj);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = this.depth;
+        final int words = (this.depth + Long.SIZE - 1) / Long.SIZE;
+        for (int w = 0; w < words; w++) {
+            result = 31 * result + Long.hashCode(word(w));
+        }
+        return result;
+    }
+
+    /**
+     * @return a String representation of this Position, in the same
+     *  format as for other Positions
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        result.append('[');
+        for (int i = 0; i < this.depth; i++) {
+            if (i > 0) {
+                result.append(", ");
+            }
+            result.append(get(i));
+        }
+        result.append(']');
+        return result.toString();
+    }
+
+    /**
+     * Mutable helper to build PackedPositions one Direction at a time.
+     * Appending allocates nothing up to depth 64; a Builder can be reused
+     * after build() via reset().
+     */
+    public static final class Builder {
+        private int depth;
+        private long firstWord;
+        private long[] moreWords; // grown on demand; may be longer than needed
+
+        /**
+         * Constructs a Builder for the root Position.
+         */
+        public Builder() {
+            this.reset();
+        }
+
+        /**
+         * @param d the Direction to append; non-null
+         * @return this Builder
+         */
+        public Builder append(Direction d) {
+            return d == Direction.RIGHT ? right() : left();
+        }
+
+        /**
+         * @return this Builder, with LEFT appended
+         */
+        public Builder left() {
+            if (this.depth >= Long.SIZE) {
+                ensureWord(this.depth / Long.SIZE - 1);
+            }
+            this.depth++;
+            return this;
+        }
+
+        /**
+         * @return this Builder, with RIGHT appended
+         */
+        public Builder right() {
+            final int index = this.depth;
+            if (index < Long.SIZE) {
+                this.firstWord |= 1L << index;
+            } else {
+                ensureWord(index / Long.SIZE - 1);
+                this.moreWords[index / Long.SIZE - 1] |= 1L << (index % Long.SIZE);
+            }
+            this.depth++;
+            return this;
+        }
+
+        /**
+         * @return the number of Directions appended so far
+         */
+        public int size() {
+            return this.depth;
+        }
+
+        /**
+         * Makes this Builder build the root Position again.
+         *
+         * @return this Builder
+         */
+        public Builder reset() {
+            this.depth = 0;
+            this.firstWord = 0L;
+            if (this.moreWords != null) {
+                Arrays.fill(this.moreWords, 0L);
+            }
+            return this;
+        }
+
+        /**
+         * @return a PackedPosition with the Directions appended so far
+         */
+        public PackedPosition build() {
+            if (this.depth == 0) {
+                return ROOT;
+            }
+            long[] words = this.depth > Long.SIZE
+                    ? Arrays.copyOf(this.moreWords, (this.depth - 1) / Long.SIZE)
+                    : null;
+            return new PackedPosition(this.depth, this.firstWord, words);
+        }
+
+        private void ensureWord(int index) {
+            if (this.moreWords == null) {
+                this.moreWords = new long[Math.max(2, index + 1)];
+            } else if (this.moreWords.length <= index) {
+                this.moreWords = Arrays.copyOf(this.moreWords,
+                        Math.max(index + 1, 2 * this.moreWords.length));
+            }
+        }
+    }
+}
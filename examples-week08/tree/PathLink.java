@@ -0,0 +1,52 @@
+package tree;
+
+/**
+ * A Position during a traversal, stored as a link to the Position of the
+ * parent plus one Direction, so that the Positions of all nodes on a path
+ * share their prefixes and computing the Position of a child takes O(1)
+ * regardless of its depth. The PackedPosition is only built on demand by
+ * toPosition, in O(depth).
+ *
+ * @author agent
+ */
+final class PathLink {
+    /** The Position of the root. */
+    static final PathLink ROOT = new PathLink(null, 0, false);
+
+    private final PathLink parent; // null for ROOT
+    private final int depth; // the number of Directions
+    private final boolean right; // whether the last Direction is RIGHT
+
+    private PathLink(PathLink parent, int depth, boolean right) {
+        this.parent = parent;
+        this.depth = depth;
+        this.right = right;
+    }
+
+    /**
+     * @param d the Direction to append; non-null
+     * @return the link for the child of this Position in direction d
+     */
+    PathLink child(Direction d) {
+        return new PathLink(this, this.depth + 1, d == Direction.RIGHT);
+    }
+
+    /**
+     * Walks up to the root, setting the bits of the Directions on the way.
+     *
+     * @return the PackedPosition of this link
+     */
+    PackedPosition toPosition() {
+        if (this.depth == 0) {
+            return PackedPosition.root();
+        }
+        long[] words = new long[(this.depth + Long.SIZE - 1) / Long.SIZE];
+        for (PathLink link = this; link.depth > 0; link = link.parent) {
+            if (link.right) {
+                int index = link.depth - 1;
+                words[index / Long.SIZE] |= 1L << (index % Long.SIZE);
+            }
+        }
+        return PackedPosition.fromWords(this.depth, words);
+    }
+}
@@ -0,0 +1,157 @@
+package tree;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterators;
+
+/**
+ * An immutable binary tree with the same positional insertion semantics
+ * as Tree. Instead of modifying Nodes, with(pos, value) returns a new
+ * PersistentTree that copies only the Nodes on the path from the root to
+ * the new Node and shares all other Nodes with this one. Thus an insert
+ * at depth d allocates d + 1 Nodes, and every earlier version remains
+ * valid and readable; VersionedTree uses this for O(1) snapshots.
+ *
+ * The Nodes of a PersistentTree are never modified after construction,
+ * so PersistentTrees can be shared freely between threads once safely
+ * published.
+ *
+ * @param <T> The type of the data stored in the tree.
+ * @author agent
+ */
+public final class PersistentTree<T> implements Iterable<T> {
+    private static final PersistentTree<?> EMPTY = new PersistentTree<>(null);
+
+    private final Node<T> root; // null iff this tree is empty
+
+    private PersistentTree(Node<T> root) {
+        this.root = root;
+    }
+
+    /**
+     * @return the empty PersistentTree
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentTree<T> empty() {
+        return (PersistentTree<T>) EMPTY;
+    }
+
+    /**
+     * Returns a tree that is like this one with value added as described
+     * for Tree.addAtPosition. This tree itself is not modified.
+     *
+     * @param pos the position where the value should be inserted; non-null
+     * @param value to be added
+     * @return the new version, or this if there already is a node at pos
+     */
+    public PersistentTree<T> with(Position pos, T value) {
+        Node<T> newRoot = insert(this.root, pos, value);
+        return newRoot == this.root ? this : new PersistentTree<>(newRoot);
+    }
+
+    /**
+     * Path-copying insert: walks down along pos to the first missing child
+     * and then rebuilds the path bottom-up with new Nodes, whose sizes the
+     * constructor of Node computes from the (shared) subtrees.
+     *
+     * @param root the root of the old version; may be null
+     * @param pos the position where the value should be inserted
+     * @param value to be added
+     * @return the root of the new version, or root itself if there
+     *  already is a node at pos
+     */
+    static <T> Node<T> insert(Node<T> root, Position pos, T value) {
+        if (root == null) { // pos does not matter in this case
+            return new Node<>(value);
+        }
+        final int posSize = pos.size();
+        List<Node<T>> path = new ArrayList<>();
+        Node<T> current = root;
+        int index = 0;
+        for (; current != null && index < posSize; index++) {
+            path.add(current);
+            current = pos.get(index) == Direction.LEFT ? current.getLeft() : current.getRight();
+        }
+        if (current != null) { // pos is already occupied
+            return root;
+        }
+        // path.get(i) is the parent in direction pos.get(i) of the next Node
+        Node<T> copy = new Node<>(value);
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node<T> old = path.get(i);
+            copy = pos.get(i) == Direction.LEFT
+                    ? new Node<>(old.getData(), copy, old.getRight())
+                    : new Node<>(old.getData(), old.getLeft(), copy);
+        }
+        return copy;
+    }
+
+    /**
+     * Get the data stored in the tree at Position pos.
+     *
+     * @param pos must be a position in which this tree has a node
+     * @return the data stored at that node
+     */
+    public T get(Position pos) {
+        Node<T> current = this.root;
+        final int posSize = pos.size();
+        for (int index = 0; current != null && index < posSize; index++) {
+            current = pos.get(index) == Direction.LEFT ? current.getLeft() : current.getRight();
+        }
+        if (current == null) {
+            throw new IllegalArgumentException("No data stored at this position!");
+        }
+        return current.getData();
+    }
+
+    /**
+     * @return the number of nodes in this tree; O(1)
+     */
+    public int size() {
+        return Node.sizeOf(this.root);
+    }
+
+    /**
+     * @return whether this tree is empty
+     */
+    public boolean isEmpty() {
+        return this.root == null;
+    }
+
+    /**
+     * @return an iterator over the values of this tree in in-order
+     */
+    @Override
+    public Iterator<T> iterator() {
+        Iterator<TreeEntry<T>> entries = Spliterators.iterator(
+                new TreeSpliterator<>(this.root, TraversalOrder.IN_ORDER, false));
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return entries.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return entries.next().getData();
+            }
+        };
+    }
+
+    /**
+     * @return a String representation of this tree via a list in
+     *  in-order representation of the values
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        try {
+            TreeRenderer.inOrder(this.root, result, Integer.MAX_VALUE);
+        } catch (IOException e) {
+            throw new AssertionError("StringBuilder does not throw IOException", e);
+        }
+        return result.toString();
+    }
+}
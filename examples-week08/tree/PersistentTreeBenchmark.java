@@ -0,0 +1,87 @@
+package tree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the insert throughput of VersionedTree against Tree and
+ * reports the memory that each retained version costs. Usage:
+ * <pre>
+ * java -Xmx2g tree.PersistentTreeBenchmark [inserts] [snapshotEvery]
+ * </pre>
+ *
+ * @author agent
+ */
+public class PersistentTreeBenchmark {
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int snapshotEvery = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        List<PackedPosition> positions = randomPositions(n, new Random(41));
+
+        long mutableNanos = Long.MAX_VALUE;
+        long persistentNanos = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) { // best of 5, after warm-up
+            long start = System.nanoTime();
+            Tree<Integer> tree = new Tree<>();
+            for (int i = 0; i < n; i++) {
+                tree.addAtPosition(positions.get(i), i);
+            }
+            mutableNanos = Math.min(mutableNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            VersionedTree<Integer> versioned = new VersionedTree<>();
+            for (int i = 0; i < n; i++) {
+                versioned.addAtPosition(positions.get(i), i);
+            }
+            persistentNanos = Math.min(persistentNanos, System.nanoTime() - start);
+        }
+        System.out.printf("Tree           %8.1f ms, %6.2f M inserts/s%n",
+                mutableNanos / 1e6, n * 1e3 / mutableNanos);
+        System.out.printf("VersionedTree  %8.1f ms, %6.2f M inserts/s%n",
+                persistentNanos / 1e6, n * 1e3 / persistentNanos);
+
+        // memory: the latest version alone vs. all versions kept alive
+        long base = usedMemory();
+        VersionedTree<Integer> versioned = new VersionedTree<>();
+        List<PersistentTree<Integer>> snapshots = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            versioned.addAtPosition(positions.get(i), i);
+            if (i % snapshotEvery == 0) {
+                snapshots.add(versioned.snapshot());
+            }
+        }
+        long withSnapshots = usedMemory() - base;
+        int kept = snapshots.size();
+        snapshots.clear();
+        long latestOnly = usedMemory() - base;
+        System.out.printf("latest version %8.1f MB (%d nodes)%n", latestOnly / 1e6,
+                versioned.size());
+        System.out.printf("%d snapshots  %8.1f MB, i.e. %.0f bytes per retained version%n",
+                kept, withSnapshots / 1e6, (withSnapshots - latestOnly) / (double) kept);
+    }
+
+    /**
+     * @return n positions of random depth below 24, mostly distinct
+     */
+    private static List<PackedPosition> randomPositions(int n, Random random) {
+        List<PackedPosition> result = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            PackedPosition.Builder builder = new PackedPosition.Builder();
+            for (int depth = random.nextInt(24); depth > 0; depth--) {
+                builder.append(random.nextBoolean() ? Direction.RIGHT : Direction.LEFT);
+            }
+            result.add(builder.build());
+        }
+        return result;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -60,6 +60,56 @@ public class Position {
         return this.directions.get(index);
     }
 
+    /**
+     * @param obj the object to compare with
+     * @return whether obj is a Position with the same Directions in the
+     *  same order
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof Position)) {
+            return false;
+        }
+        Position other = (Position) obj;
+        final int size = this.size();
+        if (size != other.size()) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (this.get(i) != other.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes a hash code from the Directions of this Position, taken as
+     * bits (RIGHT = 1) in words of 64; equal Positions have equal hash codes
+     * regardless of their representation (see PackedPosition).
+     *
+     * @return a hash code for this Position
+     */
+    @Override
+    public int hashCode() {
+        final int size = this.size();
+        int result = size;
+        long word = 0L;
+        for (int i = 0; i < size; i++) {
+            if (this.get(i) == Direction.RIGHT) {
+                word |= 1L << (i % Long.SIZE);
+            }
+            if (i % Long.SIZE == Long.SIZE - 1 || i == size - 1) {
+                result = 31 * result + Long.hashCode(word);
+                word = 0L;
+            }
+        }
+        return result;
+    }
+
     /**
      * @return a String representation of this Position
      */
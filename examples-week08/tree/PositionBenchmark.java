@@ -0,0 +1,62 @@
+package tree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares Tree.get with list-based Positions and with PackedPositions
+ * at depths 10 to 60. This is a simple wall-clock benchmark (no JMH);
+ * each depth is measured after a warm-up round. Usage:
+ * <pre>
+ * java tree.PositionBenchmark [lookupsPerDepth]
+ * </pre>
+ *
+ * @author agent
+ */
+public class PositionBenchmark {
+
+    private static final int PATHS = 1024; // distinct positions per depth
+
+    public static void main(String[] args) {
+        int lookups = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        Random random = new Random(42);
+
+        for (int round = 0; round < 2; round++) { // round 0 is the warm-up
+            for (int depth = 10; depth <= 60; depth += 10) {
+                Tree<Integer> tree = new Tree<>();
+                Position[] listPositions = new Position[PATHS];
+                PackedPosition[] packedPositions = new PackedPosition[PATHS];
+                for (int p = 0; p < PATHS; p++) {
+                    List<Direction> directions = new ArrayList<>();
+                    for (int i = 0; i < depth; i++) {
+                        directions.add(random.nextBoolean() ? Direction.RIGHT : Direction.LEFT);
+                    }
+                    listPositions[p] = new Position(directions);
+                    packedPositions[p] = PackedPosition.of(listPositions[p]);
+                    // fill in the whole path so that every lookup succeeds
+                    for (int i = 0; i <= depth; i++) {
+                        tree.addAtPosition(new Position(directions.subList(0, i)), i);
+                    }
+                }
+                long sum = 0;
+                long start = System.nanoTime();
+                for (int i = 0; i < lookups; i++) {
+                    sum += tree.get(listPositions[i & (PATHS - 1)]);
+                }
+                long listNanos = System.nanoTime() - start;
+                start = System.nanoTime();
+                for (int i = 0; i < lookups; i++) {
+                    sum += tree.get(packedPositions[i & (PATHS - 1)]);
+                }
+                long packedNanos = System.nanoTime() - start;
+                if (round > 0) {
+                    System.out.printf("depth %2d: List Position %7.1f ns/lookup, "
+                            + "PackedPosition %7.1f ns/lookup (checksum %d)%n",
+                            depth, (double) listNanos / lookups,
+                            (double) packedNanos / lookups, sum);
+                }
+            }
+        }
+    }
+}
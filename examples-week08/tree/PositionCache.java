@@ -0,0 +1,154 @@
+package tree;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache from Positions to the Nodes of a Tree, used by Tree.get
+ * to answer repeated lookups of hot, deep Positions without walking from
+ * the root. When full, entries are evicted in CLOCK order: a hit only
+ * sets the reference bit of its entry, and eviction sweeps a hand over
+ * the entries, clearing set bits, until it finds an entry that has not
+ * been referenced since the last sweep. This approximates LRU without
+ * reordering any list on a hit.
+ *
+ * Only Positions at which the Tree has a Node are cached. Since a Tree
+ * never removes or moves Nodes, such an entry stays valid across
+ * addAtPosition; Positions without a Node are not cached, because an
+ * addAtPosition could fill them.
+ *
+ * A PositionCache is single-threaded: every lookup updates the hit and
+ * miss counters, a hit also sets a reference bit, and Tree.get follows a
+ * miss with a put that may evict an entry. Concurrent lookups thus need
+ * external synchronization.
+ *
+ * @param <T> The type of the data stored in the tree.
+ * @author agent
+ */
+public class PositionCache<T> {
+    private final int capacity;
+    private final Map<PackedPosition, Integer> slots; // key -> index into the arrays
+    private final PackedPosition[] keys;
+    private final Node<T>[] nodes;
+    private final boolean[] referenced;
+    private int hand; // the next slot the CLOCK hand looks at
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Constructs an empty PositionCache.
+     *
+     * @param capacity the maximum number of entries; capacity > 0
+     * @throws IllegalArgumentException if capacity <= 0
+     */
+    @SuppressWarnings("unchecked")
+    PositionCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        this.capacity = capacity;
+        this.slots = new HashMap<>();
+        this.keys = new PackedPosition[capacity];
+        this.nodes = (Node<T>[]) new Node<?>[capacity];
+        this.referenced = new boolean[capacity];
+        this.hand = 0;
+    }
+
+    /**
+     * Looks up pos and counts a hit or a miss.
+     *
+     * @param pos the Position to look up; non-null
+     * @return the cached Node at pos, or null if pos is not cached
+     */
+    Node<T> get(Position pos) {
+        Integer slot = this.slots.get(pos);
+        if (slot == null) {
+            this.misses++;
+            return null;
+        }
+        this.hits++;
+        this.referenced[slot] = true;
+        return this.nodes[slot];
+    }
+
+    /**
+     * Caches node for pos, evicting an entry if the cache is full.
+     *
+     * @param pos a Position that is not cached; it must not be modified
+     *  afterwards
+     * @param node the Node at pos
+     */
+    void put(PackedPosition pos, Node<T> node) {
+        assert !this.slots.containsKey(pos);
+        int slot;
+        if (this.slots.size() < this.capacity) {
+            slot = this.slots.size();
+        } else {
+            while (this.referenced[this.hand]) { // second chance
+                this.referenced[this.hand] = false;
+                this.hand = (this.hand + 1) % this.capacity;
+            }
+            slot = this.hand;
+            this.hand = (this.hand + 1) % this.capacity;
+            this.slots.remove(this.keys[slot]);
+            this.evictions++;
+        }
+        this.slots.put(pos, slot);
+        this.keys[slot] = pos;
+        this.nodes[slot] = node;
+        this.referenced[slot] = false;
+    }
+
+    /**
+     * @return the maximum number of entries
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * @return the current number of entries
+     */
+    public int size() {
+        return this.slots.size();
+    }
+
+    /**
+     * @return the number of lookups answered from this cache
+     */
+    public long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * @return the number of lookups that had to walk the Tree
+     */
+    public long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * @return the number of entries evicted to make room for others
+     */
+    public long getEvictions() {
+        return this.evictions;
+    }
+
+    /**
+     * @return the fraction of lookups that were hits; 0 if there were none
+     */
+    public double getHitRate() {
+        long lookups = this.hits + this.misses;
+        return lookups == 0 ? 0.0 : this.hits / (double) lookups;
+    }
+
+    /**
+     * @return a String representation of the statistics of this cache
+     */
+    @Override
+    public String toString() {
+        return "PositionCache[size=" + size() + "/" + this.capacity + ", hits=" + this.hits
+                + ", misses=" + this.misses + ", evictions=" + this.evictions + "]";
+    }
+}
@@ -0,0 +1,64 @@
+package tree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures Tree.get with and without the lookup cache under skewed
+ * reads: the tree holds random deep Positions, and 90% of the reads go
+ * to a small hot set of them. Usage:
+ * <pre>
+ * java tree.PositionCacheBenchmark [positions] [hot] [capacity] [depth]
+ * </pre>
+ *
+ * @author agent
+ */
+public class PositionCacheBenchmark {
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int hot = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int capacity = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+        int depth = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+        int reads = 2_000_000;
+        Random random = new Random(46);
+
+        // the positions at which the Nodes actually landed
+        Tree<Integer> tree = new Tree<>();
+        List<PackedPosition> positions = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            PackedPosition.Builder builder = new PackedPosition.Builder();
+            for (int d = 0; d < depth; d++) {
+                builder.append(random.nextBoolean() ? Direction.RIGHT : Direction.LEFT);
+            }
+            tree.addAtPosition(builder.build(), i);
+        }
+        tree.entries(TraversalOrder.PRE_ORDER).forEach(e -> positions.add(e.getPosition()));
+        List<PackedPosition> deepest = new ArrayList<>(positions);
+        deepest.sort((p1, p2) -> Integer.compare(p2.size(), p1.size()));
+        List<PackedPosition> workload = new ArrayList<>(reads);
+        for (int i = 0; i < reads; i++) {
+            workload.add(random.nextInt(10) < 9 ? deepest.get(random.nextInt(hot))
+                    : positions.get(random.nextInt(positions.size())));
+        }
+
+        for (int round = 0; round < 5; round++) {
+            tree.disableLookupCache();
+            long start = System.nanoTime();
+            long sum = 0;
+            for (PackedPosition pos : workload) {
+                sum += tree.get(pos);
+            }
+            long plain = System.nanoTime() - start;
+            tree.enableLookupCache(capacity);
+            start = System.nanoTime();
+            for (PackedPosition pos : workload) {
+                sum -= tree.get(pos);
+            }
+            long cached = System.nanoTime() - start;
+            System.out.printf("plain %7.1f ms, cached %7.1f ms (%s, checksum %d)%n",
+                    plain / 1e6, cached / 1e6, tree.getLookupCache(), sum);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package tree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares heap usage and get time of Tree and RadixTree on sparse
+ * deep trees: each of the given number of branches is a random deep
+ * Position that is inserted depth times, so that the Nodes form a long
+ * single-child chain below the point where the branch leaves the
+ * others. Usage:
+ * <pre>
+ * java tree.RadixTreeBenchmark [branches] [depth]
+ * </pre>
+ *
+ * @author agent
+ */
+public class RadixTreeBenchmark {
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static void main(String[] args) {
+        int branches = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int reads = 20_000;
+        Random random = new Random(47);
+        List<PackedPosition> branchPositions = new ArrayList<>();
+        for (int b = 0; b < branches; b++) {
+            PackedPosition.Builder builder = new PackedPosition.Builder();
+            for (int d = 0; d < depth; d++) {
+                builder.append(random.nextBoolean() ? Direction.RIGHT : Direction.LEFT);
+            }
+            branchPositions.add(builder.build());
+        }
+
+        long before = usedMemory();
+        Tree<Integer> tree = new Tree<>();
+        for (PackedPosition pos : branchPositions) {
+            for (int d = 0; d < depth; d++) {
+                tree.addAtPosition(pos, d);
+            }
+        }
+        long treeBytes = usedMemory() - before;
+        before = usedMemory();
+        RadixTree<Integer> radix = new RadixTree<>();
+        for (PackedPosition pos : branchPositions) {
+            for (int d = 0; d < depth; d++) {
+                radix.addAtPosition(pos, d);
+            }
+        }
+        long radixBytes = usedMemory() - before;
+        System.out.printf("%d nodes: Tree %.1f MB, RadixTree %.1f MB in %d runs%n",
+                tree.size(), treeBytes / 1e6, radixBytes / 1e6, radix.runs());
+
+        // read existing nodes in the deeper half of the chains
+        List<PackedPosition> existing = new ArrayList<>(reads);
+        tree.entries(TraversalOrder.PRE_ORDER).forEach(e -> {
+            if (existing.size() < reads && e.getPosition().size() > depth / 2) {
+                existing.add(e.getPosition());
+            }
+        });
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            long sum = 0;
+            for (PackedPosition pos : existing) {
+                sum += tree.get(pos);
+            }
+            long plain = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (PackedPosition pos : existing) {
+                sum -= radix.get(pos);
+            }
+            long compressed = System.nanoTime() - start;
+            System.out.printf("%d gets: Tree %7.1f ms, RadixTree %7.1f ms (checksum %d)%n",
+                    existing.size(), plain / 1e6, compressed / 1e6, sum);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package tree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures sum queries over random in-order ranges of a balanced tree,
+ * interleaved with setData at random Positions, once by rescanning the
+ * values of the tree and once with the cached subtree aggregates of
+ * Tree.aggregate. Usage:
+ * <pre>
+ * java tree.RangeAggregateBenchmark [nodes] [queries]
+ * </pre>
+ *
+ * @author agent
+ */
+public class RangeAggregateBenchmark {
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        List<Integer> values = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            values.add(i % 1000);
+        }
+        Tree<Integer> tree = TreeBuilders.balanced(values);
+        List<PackedPosition> positions = new ArrayList<>(n);
+        tree.entries(TraversalOrder.PRE_ORDER).forEach(e -> positions.add(e.getPosition()));
+        Monoid<Integer, Long> sum = Monoid.sum(Integer::longValue);
+        Random random = new Random(49);
+
+        for (int round = 0; round < 5; round++) {
+            long checksum = 0;
+            long start = System.nanoTime();
+            for (int q = 0; q < queries; q++) {
+                tree.setData(positions.get(random.nextInt(n)), q);
+                int from = random.nextInt(n);
+                int to = from + random.nextInt(n - from + 1);
+                int index = 0;
+                for (int value : tree) {
+                    if (index >= from && index < to) {
+                        checksum += value;
+                    }
+                    index++;
+                }
+            }
+            long scanned = System.nanoTime() - start;
+            tree.aggregate(sum); // the first call computes all aggregates
+            start = System.nanoTime();
+            for (int q = 0; q < queries; q++) {
+                tree.setData(positions.get(random.nextInt(n)), q);
+                int from = random.nextInt(n);
+                int to = from + random.nextInt(n - from + 1);
+                checksum += tree.aggregate(sum, from, to);
+            }
+            long cached = System.nanoTime() - start;
+            System.out.printf("%d updates and range sums: rescan %8.1f ms, aggregates %6.2f ms"
+                    + " (checksum %d)%n", queries, scanned / 1e6, cached / 1e6, checksum);
+        }
+    }
+}
@@ -0,0 +1,456 @@
+package tree;
+
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A sorted map from keys to values, stored in the binary Nodes of this
+ * package: each Node holds one key-value entry, and the in-order of the
+ * Nodes is the order of the keys. The tree is weight-balanced: it uses the
+ * subtree sizes that Nodes store anyway and rotates whenever one subtree
+ * of a Node has more than 3 times the weight of the other. This keeps the
+ * height below log_{4/3}(n + 1), i.e., about 2.4 log_2 n, so put, get,
+ * remove, floor and ceiling take O(log n).
+ *
+ * Null keys are not supported.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ * @author agent
+ */
+public class SortedTree<K, V> implements Iterable<Map.Entry<K, V>> {
+    // balance parameters (delta, gamma) = (3, 2) from Hirai and Yamamoto,
+    // "Balancing weight-balanced trees", JFP 2011
+    private static final int DELTA = 3;
+    private static final int GAMMA = 2;
+
+    private Node<Map.Entry<K, V>> root;
+    private final Comparator<? super K> comparator;
+
+    /**
+     * Constructs an empty SortedTree that orders its keys by their natural
+     * ordering; the keys must implement Comparable.
+     */
+    @SuppressWarnings("unchecked")
+    public SortedTree() {
+        this((a, b) -> ((Comparable<? super K>) a).compareTo(b));
+    }
+
+    /**
+     * Constructs an empty SortedTree that orders its keys with comparator.
+     *
+     * @param comparator the order of the keys; non-null
+     */
+    public SortedTree(Comparator<? super K> comparator) {
+        this.root = null;
+        this.comparator = comparator;
+    }
+
+    /**
+     * Associates value with key, replacing the previous value for key.
+     *
+     * @param key the key; non-null
+     * @param value the value to store
+     * @return the previous value for key, or null if there was none
+     */
+    public V put(K key, V value) {
+        checkKey(key);
+        @SuppressWarnings("unchecked")
+        V[] previous = (V[]) new Object[1];
+        this.root = insert(this.root, key, value, previous);
+        return previous[0];
+    }
+
+    /**
+     * @param key the key to look up; non-null
+     * @return the value for key, or null if there is none
+     */
+    public V get(K key) {
+        Node<Map.Entry<K, V>> node = find(key);
+        return node == null ? null : node.getData().getValue();
+    }
+
+    /**
+     * @param key the key to look up; non-null
+     * @return whether this tree has an entry for key
+     */
+    public boolean containsKey(K key) {
+        return find(key) != null;
+    }
+
+    /**
+     * Removes the entry for key.
+     *
+     * @param key the key to remove; non-null
+     * @return the value that was stored for key, or null if there was none
+     */
+    public V remove(K key) {
+        checkKey(key);
+        @SuppressWarnings("unchecked")
+        V[] previous = (V[]) new Object[1];
+        this.root = delete(this.root, key, previous);
+        return previous[0];
+    }
+
+    /**
+     * @param key the key to compare with; non-null
+     * @return the entry with the greatest key <= key, or null if there is
+     *  none
+     */
+    public Map.Entry<K, V> floor(K key) {
+        checkKey(key);
+        Node<Map.Entry<K, V>> best = null;
+        Node<Map.Entry<K, V>> current = this.root;
+        while (current != null) {
+            int cmp = this.comparator.compare(key, current.getData().getKey());
+            if (cmp == 0) {
+                return snapshot(current);
+            }
+            if (cmp < 0) {
+                current = current.getLeft();
+            } else {
+                best = current;
+                current = current.getRight();
+            }
+        }
+        return snapshot(best);
+    }
+
+    /**
+     * @param key the key to compare with; non-null
+     * @return the entry with the least key >= key, or null if there is none
+     */
+    public Map.Entry<K, V> ceiling(K key) {
+        checkKey(key);
+        Node<Map.Entry<K, V>> best = null;
+        Node<Map.Entry<K, V>> current = this.root;
+        while (current != null) {
+            int cmp = this.comparator.compare(key, current.getData().getKey());
+            if (cmp == 0) {
+                return snapshot(current);
+            }
+            if (cmp > 0) {
+                current = current.getRight();
+            } else {
+                best = current;
+                current = current.getLeft();
+            }
+        }
+        return snapshot(best);
+    }
+
+    /**
+     * @return the number of entries in this tree; O(1)
+     */
+    public int size() {
+        return Node.sizeOf(this.root);
+    }
+
+    /**
+     * @return whether this tree is empty
+     */
+    public boolean isEmpty() {
+        return this.root == null;
+    }
+
+    /**
+     * Computes the height of this tree, i.e., the number of Nodes on its
+     * longest path from the root; mainly for tests. Takes O(n).
+     *
+     * @return the height of this tree; 0 for the empty tree
+     */
+    public int height() {
+        return height(this.root);
+    }
+
+    private static <T> int height(Node<T> node) {
+        // recursion depth is the height, i.e., O(log n)
+        if (node == null) {
+            return 0;
+        }
+        return 1 + Math.max(height(node.getLeft()), height(node.getRight()));
+    }
+
+    /**
+     * @return an iterator over all entries in ascending key order
+     */
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new RangeIterator(null, true, null, true);
+    }
+
+    /**
+     * Returns the entries with keys between from and to in ascending key
+     * order. The entries are found lazily: starting takes O(log n), and
+     * each further entry O(1) amortized. This tree must not be modified
+     * during the iteration.
+     *
+     * @param from the lower bound; null for no lower bound
+     * @param fromInclusive whether an entry with key from is included
+     * @param to the upper bound; null for no upper bound
+     * @param toInclusive whether an entry with key to is included
+     * @return the entries in the range
+     */
+    public Iterable<Map.Entry<K, V>> range(K from, boolean fromInclusive,
+            K to, boolean toInclusive) {
+        return () -> new RangeIterator(from, fromInclusive, to, toInclusive);
+    }
+
+    /**
+     * @return a String representation of this tree via a list of its
+     *  entries in ascending key order
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        result.append('[');
+        boolean first = true;
+        for (Map.Entry<K, V> entry : this) {
+            if (first) { // use commas only from the second entry onwards
+                first = false;
+            } else {
+                result.append(',');
+            }
+            result.append(entry);
+        }
+        result.append(']');
+        return result.toString();
+    }
+
+    private Node<Map.Entry<K, V>> find(K key) {
+        checkKey(key);
+        Node<Map.Entry<K, V>> current = this.root;
+        while (current != null) {
+            int cmp = this.comparator.compare(key, current.getData().getKey());
+            if (cmp == 0) {
+                return current;
+            }
+            current = cmp < 0 ? current.getLeft() : current.getRight();
+        }
+        return null;
+    }
+
+    /**
+     * Recursive helper for put; the recursion depth is the height of the
+     * tree.
+     *
+     * @param previous previous[0] receives the replaced value
+     * @return the new root of the subtree
+     */
+    private Node<Map.Entry<K, V>> insert(Node<Map.Entry<K, V>> node, K key, V value,
+            V[] previous) {
+        if (node == null) {
+            return new Node<>(new AbstractMap.SimpleEntry<>(key, value));
+        }
+        int cmp = this.comparator.compare(key, node.getData().getKey());
+        if (cmp == 0) {
+            previous[0] = node.getData().setValue(value);
+            return node;
+        }
+        if (cmp < 0) {
+            node.setLeft(insert(node.getLeft(), key, value, previous));
+        } else {
+            node.setRight(insert(node.getRight(), key, value, previous));
+        }
+        return balance(node);
+    }
+
+    /**
+     * Recursive helper for remove.
+     *
+     * @param previous previous[0] receives the removed value
+     * @return the new root of the subtree
+     */
+    private Node<Map.Entry<K, V>> delete(Node<Map.Entry<K, V>> node, K key, V[] previous) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = this.comparator.compare(key, node.getData().getKey());
+        if (cmp < 0) {
+            node.setLeft(delete(node.getLeft(), key, previous));
+        } else if (cmp > 0) {
+            node.setRight(delete(node.getRight(), key, previous));
+        } else {
+            previous[0] = node.getData().getValue();
+            if (node.getLeft() == null) {
+                return node.getRight();
+            }
+            if (node.getRight() == null) {
+                return node.getLeft();
+            }
+            // replace the entry by the least entry of the right subtree
+            // (or the greatest of the left one, whichever side is heavier)
+            if (Node.sizeOf(node.getLeft()) > Node.sizeOf(node.getRight())) {
+                Node<Map.Entry<K, V>> max = node.getLeft();
+                while (max.getRight() != null) {
+                    max = max.getRight();
+                }
+                node.setData(max.getData());
+                node.setLeft(deleteMax(node.getLeft()));
+            } else {
+                Node<Map.Entry<K, V>> min = node.getRight();
+                while (min.getLeft() != null) {
+                    min = min.getLeft();
+                }
+                node.setData(min.getData());
+                node.setRight(deleteMin(node.getRight()));
+            }
+        }
+        return balance(node);
+    }
+
+    private static <T> Node<T> deleteMin(Node<T> node) {
+        if (node.getLeft() == null) {
+            return node.getRight();
+        }
+        node.setLeft(deleteMin(node.getLeft()));
+        return balance(node);
+    }
+
+    private static <T> Node<T> deleteMax(Node<T> node) {
+        if (node.getRight() == null) {
+            return node.getLeft();
+        }
+        node.setRight(deleteMax(node.getRight()));
+        return balance(node);
+    }
+
+    /**
+     * Restores the weight balance at node after one of its subtrees has
+     * grown or shrunk by one, and updates its size.
+     *
+     * @param node the root of a subtree whose children are balanced
+     * @return the new root of the subtree
+     */
+    private static <T> Node<T> balance(Node<T> node) {
+        Node<T> left = node.getLeft();
+        Node<T> right = node.getRight();
+        if (!isBalanced(left, right)) { // right is too heavy
+            if (isSingle(right.getLeft(), right.getRight())) {
+                return rotateLeft(node);
+            }
+            node.setRight(rotateRight(right));
+            return rotateLeft(node);
+        }
+        if (!isBalanced(right, left)) { // left is too heavy
+            if (isSingle(left.getRight(), left.getLeft())) {
+                return rotateRight(node);
+            }
+            node.setLeft(rotateLeft(left));
+            return rotateRight(node);
+        }
+        node.updateSize();
+        return node;
+    }
+
+    private static <T> int weight(Node<T> node) {
+        return Node.sizeOf(node) + 1;
+    }
+
+    /**
+     * @return whether b is not too heavy compared to a
+     */
+    private static <T> boolean isBalanced(Node<T> a, Node<T> b) {
+        return DELTA * weight(a) >= weight(b);
+    }
+
+    /**
+     * @return whether a single rotation suffices when the inner subtree
+     *  is a and the outer subtree is b
+     */
+    private static <T> boolean isSingle(Node<T> a, Node<T> b) {
+        return weight(a) < GAMMA * weight(b);
+    }
+
+    private static <T> Node<T> rotateLeft(Node<T> node) {
+        Node<T> newRoot = node.getRight();
+        node.setRight(newRoot.getLeft());
+        node.updateSize();
+        newRoot.setLeft(node);
+        newRoot.updateSize();
+        return newRoot;
+    }
+
+    private static <T> Node<T> rotateRight(Node<T> node) {
+        Node<T> newRoot = node.getLeft();
+        node.setLeft(newRoot.getRight());
+        node.updateSize();
+        newRoot.setRight(node);
+        newRoot.updateSize();
+        return newRoot;
+    }
+
+    private static void checkKey(Object key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Null keys are not supported");
+        }
+    }
+
+    /**
+     * @return an immutable copy of the entry of node, or null for null
+     */
+    private static <K, V> Map.Entry<K, V> snapshot(Node<Map.Entry<K, V>> node) {
+        return node == null ? null : new AbstractMap.SimpleImmutableEntry<>(node.getData());
+    }
+
+    /**
+     * In-order iterator over the entries in a key range with an explicit
+     * stack of O(log n) Nodes.
+     */
+    private class RangeIterator implements Iterator<Map.Entry<K, V>> {
+        private final Deque<Node<Map.Entry<K, V>>> stack = new ArrayDeque<>();
+        private final K to;
+        private final boolean toInclusive;
+
+        RangeIterator(K from, boolean fromInclusive, K to, boolean toInclusive) {
+            this.to = to;
+            this.toInclusive = toInclusive;
+            // push the path to the first entry >= (or >) from
+            Node<Map.Entry<K, V>> current = SortedTree.this.root;
+            while (current != null) {
+                int cmp = from == null ? -1
+                        : comparator.compare(from, current.getData().getKey());
+                if (cmp < 0 || (cmp == 0 && fromInclusive)) {
+                    this.stack.push(current);
+                    current = current.getLeft();
+                } else {
+                    current = current.getRight();
+                }
+            }
+            dropIfBeyondUpperBound();
+        }
+
+        private void dropIfBeyondUpperBound() {
+            if (this.to == null || this.stack.isEmpty()) {
+                return;
+            }
+            int cmp = comparator.compare(this.stack.peek().getData().getKey(), this.to);
+            if (cmp > 0 || (cmp == 0 && !this.toInclusive)) {
+                this.stack.clear();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !this.stack.isEmpty();
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (this.stack.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Node<Map.Entry<K, V>> current = this.stack.pop();
+            for (Node<Map.Entry<K, V>> n = current.getRight(); n != null; n = n.getLeft()) {
+                this.stack.push(n);
+            }
+            dropIfBeyondUpperBound();
+            return snapshot(current);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package tree;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Compares SortedTree with java.util.TreeMap on the same workloads:
+ * random puts, gets, floor lookups, range scans and removes. This is a
+ * simple wall-clock benchmark; each workload runs after a warm-up round.
+ * Usage:
+ * <pre>
+ * java tree.SortedTreeBenchmark [n]
+ * </pre>
+ *
+ * @author agent
+ */
+public class SortedTreeBenchmark {
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int[] keys = new int[n];
+        Random random = new Random(42);
+        for (int i = 0; i < n; i++) {
+            keys[i] = random.nextInt() >> 1; // no overflow in the range scans
+        }
+        for (int round = 0; round < 2; round++) { // round 0 is the warm-up
+            long[] sorted = runSortedTree(keys);
+            long[] treeMap = runTreeMap(keys);
+            if (round > 0) {
+                String[] names = { "put", "get", "floor", "range", "remove" };
+                for (int i = 0; i < names.length; i++) {
+                    System.out.printf("%-6s n = %d: SortedTree %8.1f ms, TreeMap %8.1f ms%n",
+                            names[i], n, sorted[i] / 1e6, treeMap[i] / 1e6);
+                }
+            }
+        }
+    }
+
+    private static long[] runSortedTree(int[] keys) {
+        long[] nanos = new long[5];
+        long sink = 0;
+        SortedTree<Integer, Integer> tree = new SortedTree<>();
+        long start = System.nanoTime();
+        for (int key : keys) {
+            tree.put(key, key);
+        }
+        nanos[0] = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int key : keys) {
+            sink += tree.get(key);
+        }
+        nanos[1] = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int key : keys) {
+            Map.Entry<Integer, Integer> e = tree.floor(key + 1);
+            sink += e == null ? 0 : e.getValue();
+        }
+        nanos[2] = System.nanoTime() - start;
+        start = System.nanoTime();
+        // scans of about 100 entries
+        int window = (int) Math.min(1 << 30, (1L << 31) / keys.length * 100);
+        for (int i = 0; i < keys.length; i += 100) {
+            int from = keys[i];
+            for (Map.Entry<Integer, Integer> e : tree.range(from, true, from + window, false)) {
+                sink += e.getValue();
+            }
+        }
+        nanos[3] = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int key : keys) {
+            tree.remove(key);
+        }
+        nanos[4] = System.nanoTime() - start;
+        consume(sink);
+        return nanos;
+    }
+
+    private static long[] runTreeMap(int[] keys) {
+        long[] nanos = new long[5];
+        long sink = 0;
+        TreeMap<Integer, Integer> tree = new TreeMap<>();
+        long start = System.nanoTime();
+        for (int key : keys) {
+            tree.put(key, key);
+        }
+        nanos[0] = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int key : keys) {
+            sink += tree.get(key);
+        }
+        nanos[1] = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int key : keys) {
+            Map.Entry<Integer, Integer> e = tree.floorEntry(key + 1);
+            sink += e == null ? 0 : e.getValue();
+        }
+        nanos[2] = System.nanoTime() - start;
+        start = System.nanoTime();
+        int window = (int) Math.min(1 << 30, (1L << 31) / keys.length * 100);
+        for (int i = 0; i < keys.length; i += 100) {
+            int from = keys[i];
+            for (Map.Entry<Integer, Integer> e
+                    : tree.subMap(from, true, from + window, false).entrySet()) {
+                sink += e.getValue();
+            }
+        }
+        nanos[3] = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int key : keys) {
+            tree.remove(key);
+        }
+        nanos[4] = System.nanoTime() - start;
+        consume(sink);
+        return nanos;
+    }
+
+    /**
+     * Keeps the JIT from eliminating the lookups as dead code.
+     */
+    private static void consume(long value) {
+        if (value == Long.MIN_VALUE) {
+            System.out.println(value);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package tree;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Aggregates of subtrees with respect to a Monoid, combined in in-order:
+ * the aggregate of a Node combines the aggregate of its left subtree,
+ * the lifted data of the Node, and the aggregate of its right subtree.
+ * Aggregates are cached in the Nodes like the Merkle hashes; a Node
+ * whose cache is null is recomputed on demand, so after modifications
+ * only the Nodes on the modified paths are recomputed, as long as the
+ * cache of every ancestor of a modified Node was reset, too. The caller
+ * must make sure that all cached aggregates belong to the same Monoid.
+ *
+ * @author agent
+ */
+final class SubtreeAggregates {
+
+    // stands for the aggregate null in the caches, where null means unknown
+    private static final Object NULL = new Object();
+
+    private SubtreeAggregates() {
+        // only static helpers
+    }
+
+    /**
+     * Computes the aggregate of the subtree below root, recomputing
+     * exactly the Nodes whose cache is null and that are reachable from
+     * root via such Nodes. Uses an explicit stack instead of recursion.
+     *
+     * @param root the root of the subtree; may be null
+     * @param monoid the Monoid of the cached aggregates
+     * @return the aggregate of the subtree
+     */
+    static <T, A> A aggregateOf(Node<T> root, Monoid<? super T, A> monoid) {
+        if (root == null) {
+            return monoid.identity();
+        }
+        if (root.getAggregate() == null) {
+            Deque<Node<T>> stack = new ArrayDeque<>();
+            stack.push(root);
+            while (!stack.isEmpty()) {
+                Node<T> node = stack.peek();
+                Node<T> left = node.getLeft();
+                Node<T> right = node.getRight();
+                if (left != null && left.getAggregate() == null) {
+                    stack.push(left);
+                } else if (right != null && right.getAggregate() == null) {
+                    stack.push(right);
+                } else { // both subtrees are aggregated
+                    stack.pop();
+                    A result = monoid.combine(cached(left, monoid), monoid.lift(node.getData()));
+                    result = monoid.combine(result, cached(right, monoid));
+                    node.setAggregate(result == null ? NULL : result);
+                }
+            }
+        }
+        return cached(root, monoid);
+    }
+
+    /**
+     * @param node a Node with a known aggregate; may be null
+     * @return the cached aggregate of node
+     */
+    @SuppressWarnings("unchecked")
+    private static <T, A> A cached(Node<T> node, Monoid<? super T, A> monoid) {
+        if (node == null) {
+            return monoid.identity();
+        }
+        Object result = node.getAggregate();
+        assert result != null;
+        return result == NULL ? null : (A) result;
+    }
+
+    /**
+     * Computes the aggregate of the values with in-order indices from
+     * (inclusive) to to (exclusive) in the subtree below root. Walks down
+     * to the Node where the paths to both ends of the range split and
+     * from there along both paths, combining the aggregates of the
+     * subtrees that lie completely in the range, so only O(depth) Nodes
+     * are visited once their aggregates are known.
+     *
+     * @param root the root of the subtree; may be null
+     * @param monoid the Monoid of the cached aggregates
+     * @param from 0 <= from <= to must hold
+     * @param to to <= Node.sizeOf(root) must hold
+     * @return the aggregate of the range
+     */
+    static <T, A> A range(Node<T> root, Monoid<? super T, A> monoid, int from, int to) {
+        aggregateOf(root, monoid); // makes all cached aggregates known
+        Node<T> node = root;
+        while (from < to) {
+            int leftSize = Node.sizeOf(node.getLeft());
+            if (to <= leftSize) {
+                node = node.getLeft();
+            } else if (from > leftSize) {
+                from -= leftSize + 1;
+                to -= leftSize + 1;
+                node = node.getRight();
+            } else { // the range contains node
+                A result = monoid.combine(suffix(node.getLeft(), monoid, from),
+                        monoid.lift(node.getData()));
+                return monoid.combine(result, prefix(node.getRight(), monoid, to - leftSize - 1));
+            }
+        }
+        return monoid.identity();
+    }
+
+    /**
+     * @return the aggregate of the values with in-order indices from
+     *  (inclusive) onwards in the subtree below node
+     */
+    private static <T, A> A suffix(Node<T> node, Monoid<? super T, A> monoid, int from) {
+        // parts further down come first in in-order
+        A result = monoid.identity();
+        while (node != null && from > 0) {
+            int leftSize = Node.sizeOf(node.getLeft());
+            if (from <= leftSize) {
+                A part = monoid.combine(monoid.lift(node.getData()),
+                        cached(node.getRight(), monoid));
+                result = monoid.combine(part, result);
+                node = node.getLeft();
+            } else {
+                from -= leftSize + 1;
+                node = node.getRight();
+            }
+        }
+        return monoid.combine(cached(node, monoid), result);
+    }
+
+    /**
+     * @return the aggregate of the values with in-order indices before to
+     *  (exclusive) in the subtree below node
+     */
+    private static <T, A> A prefix(Node<T> node, Monoid<? super T, A> monoid, int to) {
+        // parts further down come last in in-order
+        A result = monoid.identity();
+        while (node != null && to < node.getSize()) {
+            int leftSize = Node.sizeOf(node.getLeft());
+            if (to <= leftSize) {
+                node = node.getLeft();
+            } else {
+                A part = monoid.combine(cached(node.getLeft(), monoid),
+                        monoid.lift(node.getData()));
+                result = monoid.combine(result, part);
+                to -= leftSize + 1;
+                node = node.getRight();
+            }
+        }
+        return monoid.combine(result, cached(node, monoid));
+    }
+}
@@ -0,0 +1,18 @@
+package tree;
+
+/**
+ * Instances of this enum indicate the order in which a traversal visits
+ * the nodes of a tree.
+ *
+ * @author agent
+ */
+public enum TraversalOrder {
+    /** left subtree, node, right subtree */
+    IN_ORDER,
+    /** node, left subtree, right subtree */
+    PRE_ORDER,
+    /** left subtree, right subtree, node */
+    POST_ORDER,
+    /** breadth-first: by depth, and from left to right within a depth */
+    LEVEL_ORDER;
+}
@@ -0,0 +1,42 @@
+package tree;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+/**
+ * Iterative traversals over the Nodes of a binary tree that use an
+ * explicit stack instead of recursion, so they work on degenerate trees
+ * that are far too deep for the call stack. They only read the tree, so
+ * several traversals, and other readers, may run at the same time.
+ *
+ * @author agent
+ */
+final class Traversals {
+
+    private Traversals() {
+        // only static helpers
+    }
+
+    /**
+     * Visits all Nodes below root in in-order. The stack holds the Nodes
+     * on the current path whose left subtree is being visited, i.e.,
+     * O(depth) Nodes.
+     *
+     * @param root the root of the tree; may be null
+     * @param visit called with each Node in in-order
+     * @param <T> the type of the data in the Nodes
+     */
+    static <T> void inOrder(Node<T> root, Consumer<? super Node<T>> visit) {
+        Deque<Node<T>> stack = new ArrayDeque<>();
+        Node<T> current = root;
+        while (current != null || !stack.isEmpty()) {
+            for (; current != null; current = current.getLeft()) { // push the left spine
+                stack.push(current);
+            }
+            Node<T> node = stack.pop();
+            visit.accept(node);
+            current = node.getRight();
+        }
+    }
+}
@@ -1,12 +1,29 @@
 package tree;
 
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * Generic class providing an abstract data type for binary trees.
  *
  * @param <T> The type of the data stored in the tree.
  * @author Carsten Fuhs
  */
-public class Tree<T> {
+public class Tree<T> implements Iterable<T> {
 
     /*
      * The root node of the tree. Invariant of which all methods must take care:
@@ -16,6 +33,12 @@ public class Tree<T> {
      */
     private Node<T> root;
 
+    // optional cache for get; null if disabled
+    private PositionCache<T> cache;
+
+    // the Monoid of the aggregates cached in the Nodes; null if none
+    private Monoid<? super T, ?> monoid;
+
     /**
      * Constructs an empty tree.
      */
@@ -24,37 +47,193 @@ public class Tree<T> {
     }
 
     /**
-     * Get the data stored in the tree at Position pos.
+     * Constructs a tree with the given root node. The caller must make sure
+     * that no Node is reachable from root in more than one way and must not
+     * modify the Nodes afterwards except through this Tree. The sizes
+     * stored in the Nodes are recomputed in O(n).
+     *
+     * @param root the root node of the new tree; null for the empty tree
+     */
+    public Tree(Node<T> root) {
+        this.root = root;
+        recomputeSizes(root);
+    }
+
+    /**
+     * Constructs a tree with the given root node whose stored sizes are
+     * already correct, e.g., because the Nodes were built bottom-up with
+     * the constructor of Node. Saves the O(n) pass of Tree(Node).
+     *
+     * @param root the root node of the new tree; null for the empty tree
+     * @return the new Tree
+     */
+    static <T> Tree<T> withSizedRoot(Node<T> root) {
+        Tree<T> result = new Tree<>();
+        result.root = root;
+        return result;
+    }
+
+    /**
+     * Sets the size of every Node below root, children before parents,
+     * and marks the Merkle hashes and aggregates as unknown.
+     * Uses an explicit stack instead of recursion, so deep trees do not
+     * overflow the call stack.
+     *
+     * @param root the root of the subtree; may be null
+     */
+    private static <T> void recomputeSizes(Node<T> root) {
+        // nodes in pre-order (node, right, left) are a reversed post-order
+        Deque<Node<T>> toVisit = new ArrayDeque<>();
+        Deque<Node<T>> reversedPostOrder = new ArrayDeque<>();
+        if (root != null) {
+            toVisit.push(root);
+        }
+        while (!toVisit.isEmpty()) {
+            Node<T> node = toVisit.pop();
+            reversedPostOrder.push(node);
+            if (node.getLeft() != null) {
+                toVisit.push(node.getLeft());
+            }
+            if (node.getRight() != null) {
+                toVisit.push(node.getRight());
+            }
+        }
+        while (!reversedPostOrder.isEmpty()) {
+            Node<T> node = reversedPostOrder.pop();
+            node.updateSize();
+            node.resetCaches();
+        }
+    }
+
+    /**
+     * Get the data stored in the tree at Position pos. While the lookup
+     * cache is enabled, get updates the cache and its statistics, so even
+     * concurrent calls of get alone are then unsafe.
      *
      * @param pos must be a position in which this Tree has a Node
      * @return the data stored at that Node
      */
     public T get(Position pos) {
-        return get(pos, 0, this.root);
+        if (this.cache == null) {
+            return find(pos).getData();
+        }
+        Node<T> node = this.cache.get(pos);
+        if (node == null) {
+            node = find(pos);
+            this.cache.put(PackedPosition.of(pos), node);
+        }
+        return node.getData();
+    }
+
+    /**
+     * Replaces the data stored in the tree at Position pos. The Merkle
+     * hashes and aggregates of the Nodes on the path to pos are marked as
+     * unknown.
+     *
+     * @param pos must be a position in which this Tree has a Node
+     * @param value the new data for the Node at pos
+     * @throws IllegalArgumentException if there is no Node at pos
+     */
+    public void setData(Position pos, T value) {
+        Node<T> node = find(pos);
+        Node<T> current = this.root;
+        final int posSize = pos.size();
+        for (int posIndex = 0; posIndex < posSize; posIndex++) {
+            current.resetCaches();
+            current = getChild(current, pos.get(posIndex));
+        }
+        assert current == node;
+        node.resetCaches();
+        node.setData(value);
     }
 
     /**
-     * Recursive helper method to retrieve the data stored in a tree.
+     * @param pos must be a position in which this Tree has a Node
+     * @return the Node at pos
+     */
+    private Node<T> find(Position pos) {
+        if (pos instanceof PackedPosition) {
+            return find((PackedPosition) pos, this.root);
+        }
+        return find(pos, 0, this.root);
+    }
+
+    /**
+     * Iterative helper method to find the Node of a tree at a
+     * PackedPosition, reading the Directions 64 at a time from its words.
+     *
+     * @param pos the Position in the overall tree
+     * @param node the root of the tree
+     * @return the Node at pos
+     */
+    private static <T> Node<T> find(PackedPosition pos, Node<T> node) {
+        final int posSize = pos.size();
+        long word = 0L;
+        for (int index = 0; node != null && index < posSize; index++) {
+            if (index % Long.SIZE == 0) {
+                word = pos.word(index / Long.SIZE);
+            }
+            node = (word & 1L) == 0 ? node.getLeft() : node.getRight();
+            word >>>= 1;
+        }
+        if (node == null) {
+            throw new IllegalArgumentException("No data stored at this position!");
+        }
+        return node;
+    }
+
+    /**
+     * Iterative helper method to find a Node in a tree; a
+     * recursive version would need one stack frame per Direction in pos.
      * 
      * @param pos the Position in the overall tree
      * @param index the index of the Direction in Position that we have already
      *  reached in the overall tree
      * @param node the current Node in the tree
-     * @return the value stored in node at position pos where we consider that
+     * @return the Node below node at position pos where we consider that
      *  pos starts at index
      */
-    private static <T> T get(Position pos, int index, Node<T> node) {
-        if (node == null) {
-            throw new IllegalArgumentException("No data stored at this position!");
-        }
+    private static <T> Node<T> find(Position pos, int index, Node<T> node) {
         assert index >= 0;
         assert index <= pos.size();
-        if (index == pos.size()) { // we are there!
-            return node.getData();
+        final int posSize = pos.size();
+        for (; node != null && index < posSize; index++) {
+            node = getChild(node, pos.get(index));
         }
-        Direction d = pos.get(index);
-        Node<T> child = getChild(node, d);
-        return get(pos, index + 1, child);
+        if (node == null) {
+            throw new IllegalArgumentException("No data stored at this position!");
+        }
+        return node;
+    }
+
+    /**
+     * Enables a bounded cache from Positions to Nodes for get, replacing
+     * any previous cache. Worthwhile if a small set of deep Positions gets
+     * most of the reads. The cache stays correct across addAtPosition.
+     * The cache is not thread-safe: with it enabled, every get writes to
+     * it, so a Tree that several threads read must not use it unless the
+     * callers synchronize every get.
+     *
+     * @param capacity the maximum number of cached Positions; capacity > 0
+     * @throws IllegalArgumentException if capacity <= 0
+     */
+    public void enableLookupCache(int capacity) {
+        this.cache = new PositionCache<>(capacity);
+    }
+
+    /**
+     * Disables the cache for get.
+     */
+    public void disableLookupCache() {
+        this.cache = null;
+    }
+
+    /**
+     * @return the cache for get with its hit/miss statistics; null if it
+     *  is disabled
+     */
+    public PositionCache<T> getLookupCache() {
+        return this.cache;
     }
 
     /**
@@ -159,6 +338,11 @@ public class Tree<T> {
         if (posSize == 0) { // the root position is already occupied
             return false;
         }
+        if (pos instanceof PackedPosition) {
+            return addAtPosition((PackedPosition) pos, value);
+        }
+        // find the free slot first, so that nothing changes if pos turns
+        // out to be occupied
         int posIndex = 0;
         Node<T> currentNode = this.root;
         Direction dir = pos.get(posIndex);
@@ -171,11 +355,358 @@ public class Tree<T> {
             posIndex++;
             child = getChild(currentNode, dir);
         }
-        if (child == null) {
-            setChild(currentNode, new Node<>(value), dir);
-            return true;
+        if (child != null) { // pos is already occupied
+            return false;
+        }
+        setChild(currentNode, new Node<>(value), dir);
+        nodeAddedAt(pos, posIndex);
+        return true;
+    }
+
+    /**
+     * Walks from the root to a new Node again, incrementing the sizes of
+     * the Nodes above it and marking their cached Merkle hashes and
+     * aggregates as unknown. Walking twice on success keeps an insert
+     * free of allocations except for the new Node, where remembering the
+     * path of the first walk would need a list per insert.
+     *
+     * @param pos a Position whose prefix of length depth leads to the new
+     *  Node
+     * @param depth the depth of the new Node; depth >= 1
+     */
+    private void nodeAddedAt(Position pos, int depth) {
+        Node<T> currentNode = this.root;
+        for (int posIndex = 0; posIndex < depth; posIndex++) {
+            currentNode.setSize(currentNode.getSize() + 1);
+            currentNode.resetCaches();
+            currentNode = getChild(currentNode, pos.get(posIndex));
+        }
+    }
+
+    /**
+     * Variant of addAtPosition for a non-empty Tree and a PackedPosition of
+     * size >= 1 that reads the Directions 64 at a time from its words.
+     *
+     * @param pos the position where the value should be inserted
+     * @param value to be added to this Tree
+     * @return whether this Tree was modified
+     */
+    private boolean addAtPosition(PackedPosition pos, T value) {
+        assert this.root != null && pos.size() > 0;
+        final int posSize = pos.size();
+        Node<T> currentNode = this.root;
+        long word = pos.word(0);
+        boolean right = (word & 1L) != 0;
+        Node<T> child = right ? currentNode.getRight() : currentNode.getLeft();
+        int posIndex = 1; // the depth of child
+        for (; child != null && posIndex < posSize; posIndex++) {
+            currentNode = child;
+            word >>>= 1;
+            if (posIndex % Long.SIZE == 0) {
+                word = pos.word(posIndex / Long.SIZE);
+            }
+            right = (word & 1L) != 0;
+            child = right ? currentNode.getRight() : currentNode.getLeft();
+        }
+        if (child != null) { // pos is already occupied
+            return false;
+        }
+        if (right) {
+            currentNode.setRight(new Node<>(value));
+        } else {
+            currentNode.setLeft(new Node<>(value));
+        }
+        nodeAddedAt(pos, posIndex);
+        return true;
+    }
+
+    /**
+     * Adds several values at once. The effect is the same as calling
+     * addAtPosition for the entries of values with their Positions in
+     * PackedPosition.TRIE_ORDER, but the walk from the root is shared:
+     * after one Position, only the part of the path below the common
+     * prefix with the next Position is walked. Thus the number of Nodes
+     * visited is about the number of Nodes on the union of all paths
+     * instead of the sum of their lengths, and the subtree sizes along
+     * the shared parts of the paths are each updated once.
+     *
+     * @param values the values to add by their Positions; non-null
+     * @return for each Position in values, whether addAtPosition modified
+     *  this Tree, in TRIE_ORDER of the Positions
+     */
+    public Map<Position, Boolean> addAll(Map<? extends Position, ? extends T> values) {
+        List<Map.Entry<PackedPosition, T>> entries = new ArrayList<>(values.size());
+        for (Map.Entry<? extends Position, ? extends T> entry : values.entrySet()) {
+            entries.add(new AbstractMap.SimpleEntry<>(PackedPosition.of(entry.getKey()),
+                    entry.getValue()));
+        }
+        entries.sort(Map.Entry.comparingByKey(PackedPosition.TRIE_ORDER));
+
+        Map<Position, Boolean> result = new LinkedHashMap<>();
+        PathCursor<T> cursor = new PathCursor<>();
+        if (this.root != null) {
+            cursor.push(this.root);
+        }
+        PackedPosition previous = null;
+        for (Map.Entry<PackedPosition, T> entry : entries) {
+            PackedPosition pos = entry.getKey();
+            if (this.root == null) { // pos does not matter in this case
+                this.root = new Node<>(entry.getValue());
+                cursor.push(this.root);
+                result.put(pos, true);
+                previous = pos;
+                continue;
+            }
+            cursor.walk(previous, pos);
+            previous = pos;
+            int depth = cursor.depth();
+            if (depth == pos.size()) { // pos is already occupied
+                result.put(pos, false);
+                continue;
+            }
+            Node<T> newNode = new Node<>(entry.getValue());
+            setChild(cursor.top(), newNode, pos.get(depth));
+            cursor.added();
+            cursor.push(newNode);
+            result.put(pos, true);
+        }
+        cursor.truncate(0); // apply the pending size increments
+        return result;
+    }
+
+    /**
+     * Looks up several Positions at once, sharing the walk from the root
+     * between consecutive Positions in PackedPosition.TRIE_ORDER like
+     * addAll does.
+     *
+     * @param positions the Positions to look up; non-null
+     * @return for each Position in positions at which this Tree has a
+     *  Node, the data stored there, in TRIE_ORDER of the Positions;
+     *  Positions without a Node are left out
+     */
+    public Map<Position, T> getAll(Collection<? extends Position> positions) {
+        List<PackedPosition> sorted = new ArrayList<>(positions.size());
+        for (Position pos : positions) {
+            sorted.add(PackedPosition.of(pos));
+        }
+        sorted.sort(PackedPosition.TRIE_ORDER);
+
+        Map<Position, T> result = new LinkedHashMap<>();
+        if (this.root == null) {
+            return result;
+        }
+        PathCursor<T> cursor = new PathCursor<>();
+        cursor.push(this.root);
+        PackedPosition previous = null;
+        for (PackedPosition pos : sorted) {
+            cursor.walk(previous, pos);
+            previous = pos;
+            if (cursor.depth() == pos.size()) {
+                result.put(pos, cursor.top().getData());
+            }
         }
-        return false;
+        return result;
+    }
+
+    /**
+     * The path of Nodes from the root along the current Position, as far
+     * as it exists, for addAll and getAll. Size increments for Nodes on
+     * the path are collected per level and applied to a Node only when it
+     * leaves the path, so each Node on a shared prefix is updated once.
+     */
+    private static final class PathCursor<T> {
+        private final ArrayList<Node<T>> nodes = new ArrayList<>(); // nodes.get(i) at depth i
+        private int[] pending = new int[16]; // size increments not yet applied to nodes
+
+        /**
+         * @return the depth of the last Node on the path
+         */
+        int depth() {
+            return this.nodes.size() - 1;
+        }
+
+        Node<T> top() {
+            return this.nodes.get(this.nodes.size() - 1);
+        }
+
+        void push(Node<T> node) {
+            int level = this.nodes.size();
+            if (level == this.pending.length) {
+                this.pending = Arrays.copyOf(this.pending, 2 * level);
+            }
+            this.pending[level] = 0;
+            this.nodes.add(node);
+        }
+
+        /**
+         * Records that a Node was added below every Node on the path.
+         */
+        void added() {
+            this.pending[this.depth()]++;
+        }
+
+        /**
+         * Shortens the path to its first size Nodes, applying the pending
+         * increments of the removed Nodes and passing them on upwards.
+         */
+        void truncate(int size) {
+            for (int level = this.nodes.size() - 1; level >= size; level--) {
+                Node<T> node = this.nodes.remove(level);
+                if (this.pending[level] > 0) {
+                    node.setSize(node.getSize() + this.pending[level]);
+                    node.resetCaches();
+                }
+                if (level > 0) {
+                    this.pending[level - 1] += this.pending[level];
+                }
+            }
+        }
+
+        /**
+         * Moves the path from previous to pos: keeps the Nodes on the
+         * common prefix and then follows pos as far as there are Nodes.
+         * The path must not be empty.
+         *
+         * @param previous the Position that the path was walked for last;
+         *  null if none
+         * @param pos the Position to walk to next
+         */
+        void walk(PackedPosition previous, PackedPosition pos) {
+            int common = previous == null ? 0 : previous.commonPrefixLength(pos);
+            if (this.depth() > common) {
+                truncate(common + 1);
+            }
+            final int posSize = pos.size();
+            for (int depth = this.depth(); depth < posSize; depth++) {
+                Node<T> child = pos.isRight(depth) ? top().getRight() : top().getLeft();
+                if (child == null) {
+                    return;
+                }
+                push(child);
+            }
+        }
+    }
+
+    /**
+     * Copies this Tree into a read-only FrozenTree in contiguous arrays
+     * with the BFS-blocked layout of FrozenTree.DEFAULT_BLOCK_NODES Nodes
+     * per block. This Tree is not changed.
+     *
+     * @return a FrozenTree with the same Positions and values
+     */
+    public FrozenTree<T> freeze() {
+        return freeze(FrozenTree.DEFAULT_BLOCK_NODES);
+    }
+
+    /**
+     * Copies this Tree into a read-only FrozenTree in contiguous arrays
+     * with the BFS-blocked layout of blockNodes Nodes per block; 1 gives
+     * the plain BFS layout.
+     *
+     * @param blockNodes the maximum number of Nodes per block; >= 1
+     * @return a FrozenTree with the same Positions and values
+     * @throws IllegalArgumentException if blockNodes < 1
+     */
+    public FrozenTree<T> freeze(int blockNodes) {
+        return FrozenTree.of(this.root, blockNodes);
+    }
+
+    /**
+     * @return the root Node of this Tree; null iff this Tree is empty
+     */
+    Node<T> getRoot() {
+        return this.root;
+    }
+
+    /**
+     * @return an aggregator that traverses this Tree sequentially
+     */
+    public TreeAggregator<T> sequential() {
+        return new TreeAggregator<>(this, null, 0);
+    }
+
+    /**
+     * @return an aggregator that traverses this Tree in parallel on the
+     *  common ForkJoinPool
+     */
+    public TreeAggregator<T> parallel() {
+        return new TreeAggregator<>(this, ForkJoinPool.commonPool(), 0);
+    }
+
+    /**
+     * @param pool the pool to run the aggregations on; non-null
+     * @param cutoff subtrees with at most this many Nodes are traversed
+     *  sequentially; 0 to derive it from the size of this Tree
+     * @return an aggregator that traverses this Tree in parallel on pool
+     */
+    public TreeAggregator<T> parallel(ForkJoinPool pool, int cutoff) {
+        return new TreeAggregator<>(this, pool, cutoff);
+    }
+
+    /**
+     * Returns a lazy iterator over the values of this Tree in in-order.
+     * This Tree must not be modified during the iteration.
+     *
+     * @return an iterator over the values of this Tree in in-order
+     */
+    @Override
+    public Iterator<T> iterator() {
+        Iterator<TreeEntry<T>> entries = Spliterators.iterator(
+                new TreeSpliterator<>(this.root, TraversalOrder.IN_ORDER, false));
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return entries.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return entries.next().getData();
+            }
+        };
+    }
+
+    /**
+     * Returns the values of this Tree together with their Positions in the
+     * given order. Entries are produced lazily as the iteration proceeds,
+     * so stopping early does not cost a traversal of the whole tree. The
+     * depth-first orders keep O(depth) pending subtrees; LEVEL_ORDER keeps
+     * O(width) pending nodes. This Tree must not be modified during the
+     * iteration.
+     *
+     * @param order the order of the traversal; non-null
+     * @return the entries of this Tree in order
+     */
+    public Iterable<TreeEntry<T>> entries(TraversalOrder order) {
+        if (order == TraversalOrder.LEVEL_ORDER) {
+            return () -> new LevelOrderIterator<>(this.root, true);
+        }
+        return () -> Spliterators.iterator(new TreeSpliterator<>(this.root, order, true));
+    }
+
+    /**
+     * Returns a Spliterator over the entries of this Tree in the given
+     * order. For the depth-first orders it splits at subtrees and knows its
+     * exact size, so it is suited for parallel streams.
+     *
+     * @param order the order of the traversal; non-null
+     * @return a Spliterator over the entries of this Tree
+     */
+    public Spliterator<TreeEntry<T>> spliterator(TraversalOrder order) {
+        if (order == TraversalOrder.LEVEL_ORDER) {
+            return Spliterators.spliterator(new LevelOrderIterator<>(this.root, true),
+                    this.size(), Spliterator.ORDERED | Spliterator.NONNULL);
+        }
+        return new TreeSpliterator<>(this.root, order, true);
+    }
+
+    /**
+     * @param order the order of the traversal; non-null
+     * @param parallel whether the stream should be parallel
+     * @return a stream of the entries of this Tree in order
+     */
+    public Stream<TreeEntry<T>> stream(TraversalOrder order, boolean parallel) {
+        return StreamSupport.stream(spliterator(order), parallel);
     }
 
     /**
@@ -186,65 +717,237 @@ public class Tree<T> {
     }
 
     /**
-     * Computes the number of nodes in this tree.
+     * Returns the number of nodes in this tree in O(1); every Node stores
+     * the size of its subtree.
      * 
      * @return the number of nodes in this tree
      */
     public int size() {
-        return size(this.root);
+        return Node.sizeOf(this.root);
     }
 
     /**
-     * Recursive helper method to compute the size of a Tree.
-     * 
-     * @param root the root node of the (sub)tree
-     * @return the number of nodes
+     * Retrieves the k-th value of this Tree in in-order, i.e., the value
+     * at index k of toString(), in O(depth) using the subtree sizes.
+     *
+     * @param k the in-order index; 0 <= k < this.size() must hold
+     * @return the k-th value in in-order
+     * @throws IllegalArgumentException if k < 0 or k >= this.size()
      */
-    private static <T> int size(Node<T> root) {
-        if (root == null) {
-            return 0;
+    public T select(int k) {
+        if (k < 0 || k >= this.size()) {
+            throw new IllegalArgumentException("Illegal index: " + k);
+        }
+        Node<T> current = this.root;
+        while (true) {
+            int leftSize = Node.sizeOf(current.getLeft());
+            if (k < leftSize) {
+                current = current.getLeft();
+            } else if (k == leftSize) {
+                return current.getData();
+            } else {
+                k -= leftSize + 1;
+                current = current.getRight();
+            }
         }
-        return 1 + size(root.getLeft()) + size(root.getRight());
     }
 
     /**
-     * @return a String representation of this Tree via a list in
-     *  in-order representation of the values
+     * Computes the in-order index of the Node at pos in O(depth), i.e., the
+     * number of Nodes that come before it in in-order; select(rank(pos))
+     * is get(pos).
+     *
+     * @param pos must be a position in which this Tree has a Node
+     * @return the in-order index of the Node at pos
+     * @throws IllegalArgumentException if there is no Node at pos
+     */
+    public int rank(Position pos) {
+        int result = 0;
+        Node<T> current = this.root;
+        final int posSize = pos.size();
+        for (int posIndex = 0; current != null && posIndex < posSize; posIndex++) {
+            if (pos.get(posIndex) == Direction.RIGHT) {
+                result += Node.sizeOf(current.getLeft()) + 1;
+                current = current.getRight();
+            } else {
+                current = current.getLeft();
+            }
+        }
+        if (current == null) {
+            throw new IllegalArgumentException("No data stored at this position!");
+        }
+        return result + Node.sizeOf(current.getLeft());
+    }
+
+    /**
+     * Returns the aggregate of all values of this Tree with respect to
+     * monoid, combined in in-order. The aggregates of all subtrees are
+     * cached in the Nodes for the Monoid of the last call of an aggregate
+     * method, so the first call for a Monoid takes O(n), and later calls
+     * only recompute the Nodes on the paths modified since then by
+     * addAtPosition, addAll and setData, i.e., O(depth) per modification.
+     *
+     * @param monoid the aggregate to compute; non-null
+     * @param <A> the type of the aggregate
+     * @return the aggregate of all values; monoid.identity() if this Tree
+     *  is empty
+     */
+    public <A> A aggregate(Monoid<? super T, A> monoid) {
+        useMonoid(monoid);
+        return SubtreeAggregates.aggregateOf(this.root, monoid);
+    }
+
+    /**
+     * Returns the aggregate of the values in the subtree at pos with
+     * respect to monoid in O(depth) plus the recomputation described for
+     * aggregate(Monoid).
+     *
+     * @param monoid the aggregate to compute; non-null
+     * @param pos must be a position in which this Tree has a Node
+     * @param <A> the type of the aggregate
+     * @return the aggregate of the values in the subtree at pos
+     * @throws IllegalArgumentException if there is no Node at pos
+     */
+    public <A> A aggregate(Monoid<? super T, A> monoid, Position pos) {
+        Node<T> node = find(pos);
+        useMonoid(monoid);
+        return SubtreeAggregates.aggregateOf(node, monoid);
+    }
+
+    /**
+     * Returns the aggregate of the values with in-order indices from
+     * (inclusive) to to (exclusive) with respect to monoid, in O(depth)
+     * plus the recomputation described for aggregate(Monoid).
+     *
+     * @param monoid the aggregate to compute; non-null
+     * @param from the first in-order index of the range
+     * @param to the in-order index after the range; 0 <= from <= to <=
+     *  this.size() must hold
+     * @param <A> the type of the aggregate
+     * @return the aggregate of the values in the range; monoid.identity()
+     *  if the range is empty
+     * @throws IllegalArgumentException if the range is illegal
+     */
+    public <A> A aggregate(Monoid<? super T, A> monoid, int from, int to) {
+        if (from < 0 || from > to || to > this.size()) {
+            throw new IllegalArgumentException("Illegal range: [" + from + ", " + to + ")");
+        }
+        useMonoid(monoid);
+        return SubtreeAggregates.range(this.root, monoid, from, to);
+    }
+
+    /**
+     * Makes monoid the Monoid of the cached aggregates, marking all of
+     * them as unknown if it was a different one before.
+     */
+    private void useMonoid(Monoid<? super T, ?> monoid) {
+        if (monoid != this.monoid) {
+            Traversals.inOrder(this.root, node -> node.setAggregate(null));
+            this.monoid = monoid;
+        }
+    }
+
+    /**
+     * Returns the Merkle hash of this Tree, which combines the hashCodes
+     * of all values with the shape of this Tree. The hashes of subtrees
+     * are cached in the Nodes and, after an addAtPosition, recomputed only
+     * along the modified path. Replicas of a Tree can compare their hashes
+     * to check whether they are in sync, as long as the hashCodes of the
+     * values are the same in all processes.
+     *
+     * @return the Merkle hash of this Tree
+     */
+    public long merkleHash() {
+        return MerkleHashes.hashOf(this.root);
+    }
+
+    /**
+     * Returns the Positions at which this Tree and other differ: where
+     * both have a Node but with unequal data, and where only one of them
+     * has a Node (then only the topmost such Position, not the whole
+     * subtree). Subtrees with equal Merkle hashes are skipped, so the cost
+     * grows with the number of differences times their depth rather than
+     * with the size of the Trees. Differences may be missed only if hashes
+     * collide, e.g., for unequal values with equal hashCodes.
+     *
+     * @param other the Tree to compare with; non-null
+     * @return the Positions at which the Trees differ, in pre-order
+     */
+    public List<PackedPosition> diff(Tree<?> other) {
+        List<PackedPosition> result = new ArrayList<>();
+        MerkleHashes.diff(this.root, other.root, result);
+        return result;
+    }
+
+    /**
+     * Two Trees are equal if they have the same shape and equal data at
+     * every Position. Trees with different sizes or Merkle hashes are told
+     * apart without a traversal.
+     *
+     * @param obj the object to compare with
+     * @return whether obj is a Tree equal to this one
      */
     @Override
-    public String toString() {
-        if (this.root == null) {
-            return "[]";
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
         }
-        return "[" + toStringContent(this.root) + "]";
+        if (!(obj instanceof Tree)) {
+            return false;
+        }
+        return MerkleHashes.equal(this.root, ((Tree<?>) obj).root);
+    }
+
+    /**
+     * @return a hash code derived from the Merkle hash of this Tree
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(merkleHash());
     }
 
     /**
-     * Recursive helper method to convert a tree to a String.
+     * Writes the values of this Tree in in-order as a list, e.g. [4,2,5,1],
+     * directly into out. At most limit values are written; if there are
+     * more, the list ends with ... instead, e.g. [4,2,...].
      *
-     * @param node the node whose subtree we want as a String
-     * @return a list of the values in node in inOrder representation
+     * @param out where to write to; non-null
+     * @param limit the maximum number of values to write; limit >= 0
+     * @throws IOException if out throws an IOException
+     * @throws IllegalArgumentException if limit < 0
      */
-    private static <T> String toStringContent(Node<T> node) {
-        assert node != null;
+    public void render(Appendable out, int limit) throws IOException {
+        TreeRenderer.inOrder(this.root, out, limit);
+    }
 
-        // for a more efficient implementation that does not build intermediate
-        // String objects and then throws them away, use an object of the class
-        // StringBuilder as a parameter to construct the String object in it
-        if (node.getLeft() != null) {
-            if (node.getRight() != null) {
-                return toStringContent(node.getLeft()) + ","
-                        + node.toString() + ","
-                        + toStringContent(node.getRight());
-            } else {
-                return toStringContent(node.getLeft()) + "," + node.toString();
-            }
-        } else {
-            if (node.getRight() != null) {
-                return node.toString() + "," + toStringContent(node.getRight());
-            } else {
-                return node.toString();
-            }
+    /**
+     * Writes the shape of this Tree in pre-order directly into out: a leaf
+     * as its value, any other node as value(left,right) with - for a
+     * missing child, e.g. 1(2(4,5),3(-,6)). An empty Tree is written as -.
+     * After limit values, the rest is written as ... and only the open
+     * parentheses are closed.
+     *
+     * @param out where to write to; non-null
+     * @param limit the maximum number of values to write; limit >= 0
+     * @throws IOException if out throws an IOException
+     * @throws IllegalArgumentException if limit < 0
+     */
+    public void renderStructure(Appendable out, int limit) throws IOException {
+        TreeRenderer.structure(this.root, out, limit);
+    }
+
+    /**
+     * @return a String representation of this Tree via a list in
+     *  in-order representation of the values
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        try {
+            render(result, Integer.MAX_VALUE);
+        } catch (IOException e) {
+            throw new AssertionError("StringBuilder does not throw IOException", e);
         }
+        return result.toString();
     }
 }
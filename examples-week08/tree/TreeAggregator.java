@@ -0,0 +1,204 @@
+package tree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Aggregations over all values of a Tree, either sequentially or in
+ * parallel on a ForkJoinPool; both modes have the same API. Obtain
+ * instances via Tree.sequential() and Tree.parallel().
+ *
+ * In parallel mode, the tree is split into subtrees with RecursiveTasks.
+ * Subtrees with at most cutoff Nodes (according to the sizes stored in
+ * the Nodes) are aggregated sequentially. Results are always combined in
+ * in-order, so combiners need to be associative but not commutative.
+ * Tasks always descend into the larger child themselves and fork the
+ * smaller one, so degenerate trees do not lead to deep recursion.
+ *
+ * The Tree must not be modified during an aggregation. Aggregations only
+ * read the Tree, so several of them and other readers may run at the
+ * same time.
+ *
+ * @param <T> The type of the data stored in the tree.
+ * @author agent
+ */
+public class TreeAggregator<T> {
+    private final Tree<T> tree;
+    private final ForkJoinPool pool; // null for sequential mode
+    private final int cutoff; // 0 to derive the cutoff from the tree size
+
+    /**
+     * Constructs an aggregator for tree.
+     *
+     * @param tree the tree to aggregate over; non-null
+     * @param pool the pool for parallel mode; null for sequential mode
+     * @param cutoff subtrees with at most this many Nodes are aggregated
+     *  sequentially; 0 to use size / (4 * parallelism), but at least 1024
+     */
+    TreeAggregator(Tree<T> tree, ForkJoinPool pool, int cutoff) {
+        if (cutoff < 0) {
+            throw new IllegalArgumentException("Illegal cutoff: " + cutoff);
+        }
+        this.tree = tree;
+        this.pool = pool;
+        this.cutoff = cutoff;
+    }
+
+    /**
+     * @return whether this aggregator runs in parallel
+     */
+    public boolean isParallel() {
+        return this.pool != null;
+    }
+
+    /**
+     * Folds the values of the tree in in-order, like Stream.reduce with
+     * three arguments: each part of the tree starts with identity and
+     * adds its values with accumulator; the parts are combined with
+     * combiner.
+     *
+     * @param identity an identity for combiner
+     * @param accumulator adds one value to a partial result
+     * @param combiner combines two partial results; must be associative
+     *  and compatible with accumulator
+     * @param <R> the type of the result
+     * @return the result of the fold; identity for the empty tree
+     */
+    public <R> R fold(R identity, BiFunction<R, ? super T, R> accumulator,
+            BinaryOperator<R> combiner) {
+        Node<T> root = this.tree.getRoot();
+        if (this.pool == null || root == null) {
+            return sequentialFold(root, identity, accumulator);
+        }
+        int effectiveCutoff = this.cutoff > 0 ? this.cutoff
+                : Math.max(1024, root.getSize() / (4 * this.pool.getParallelism()));
+        return this.pool.invoke(new FoldTask<>(root, identity, accumulator, combiner,
+                effectiveCutoff));
+    }
+
+    /**
+     * Maps every value of the tree and reduces the results in in-order.
+     *
+     * @param mapper applied to each value
+     * @param identity an identity for reducer
+     * @param reducer combines two results; must be associative
+     * @param <R> the type of the result
+     * @return the reduced result; identity for the empty tree
+     */
+    public <R> R mapReduce(Function<? super T, ? extends R> mapper, R identity,
+            BinaryOperator<R> reducer) {
+        return fold(identity, (result, value) -> reducer.apply(result, mapper.apply(value)),
+                reducer);
+    }
+
+    /**
+     * Performs action for every value of the tree. In sequential mode the
+     * values come in in-order; in parallel mode action is called
+     * concurrently from several threads in no particular order.
+     *
+     * @param action the action to perform; must be thread-safe in parallel
+     *  mode
+     */
+    public void forEach(Consumer<? super T> action) {
+        fold(null, (ignored, value) -> {
+            action.accept(value);
+            return null;
+        }, (a, b) -> null);
+    }
+
+    /**
+     * Folds a subtree sequentially with an explicit-stack in-order
+     * traversal that only reads the tree, so concurrent folds and other
+     * readers are safe.
+     */
+    private static <T, R> R sequentialFold(Node<T> node, R identity,
+            BiFunction<R, ? super T, R> accumulator) {
+        List<R> result = new ArrayList<>(1);
+        result.add(identity);
+        Traversals.inOrder(node, current ->
+                result.set(0, accumulator.apply(result.get(0), current.getData())));
+        return result.get(0);
+    }
+
+    /**
+     * Folds one subtree, forking tasks for large parts of it.
+     */
+    private static class FoldTask<T, R> extends RecursiveTask<R> {
+        private static final long serialVersionUID = 1L;
+
+        private final Node<T> node;
+        private final R identity;
+        private final BiFunction<R, ? super T, R> accumulator;
+        private final BinaryOperator<R> combiner;
+        private final int cutoff;
+
+        FoldTask(Node<T> node, R identity, BiFunction<R, ? super T, R> accumulator,
+                BinaryOperator<R> combiner, int cutoff) {
+            this.node = node;
+            this.identity = identity;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+            this.cutoff = cutoff;
+        }
+
+        @Override
+        protected R compute() {
+            // Walk down into the larger child, forking the smaller one.
+            // Parts before the current subtree (in in-order) are collected
+            // in before, parts after it in after, in reverse order. A part
+            // is either a partial result (possibly null) or a forked FoldTask.
+            List<Object> before = new ArrayList<>();
+            List<Object> after = new ArrayList<>();
+            Node<T> current = this.node;
+            while (current != null && current.getSize() > this.cutoff) {
+                Node<T> left = current.getLeft();
+                Node<T> right = current.getRight();
+                R middle = this.accumulator.apply(this.identity, current.getData());
+                if (Node.sizeOf(left) >= Node.sizeOf(right)) {
+                    if (right != null) {
+                        after.add(fork(right));
+                    }
+                    after.add(middle);
+                    current = left;
+                } else {
+                    if (left != null) {
+                        before.add(fork(left));
+                    }
+                    before.add(middle);
+                    current = right;
+                }
+            }
+            R result = this.identity;
+            for (Object part : before) {
+                result = this.combiner.apply(result, valueOf(part));
+            }
+            result = this.combiner.apply(result,
+                    sequentialFold(current, this.identity, this.accumulator));
+            for (int i = after.size() - 1; i >= 0; i--) {
+                result = this.combiner.apply(result, valueOf(after.get(i)));
+            }
+            return result;
+        }
+
+        private FoldTask<T, R> fork(Node<T> subtree) {
+            FoldTask<T, R> task = new FoldTask<>(subtree, this.identity, this.accumulator,
+                    this.combiner, this.cutoff);
+            task.fork();
+            return task;
+        }
+
+        @SuppressWarnings("unchecked")
+        private R valueOf(Object part) {
+            if (part instanceof FoldTask) {
+                return ((FoldTask<T, R>) part).join();
+            }
+            return (R) part;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package tree;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Bulk construction of Trees in O(n) time. Unlike n calls to
+ * Tree.addAtPosition, the builders here never walk from the root to a
+ * leaf: each Node is created exactly once, directly below its parent.
+ *
+ * @author agent
+ */
+public final class TreeBuilders {
+
+    private TreeBuilders() {
+        // only static helpers
+    }
+
+    /**
+     * Builds a height-balanced Tree whose in-order representation is
+     * values: the middle value becomes the root, the values before it the
+     * left subtree and the values after it the right subtree. If values is
+     * sorted, the result is thus a balanced search tree. For every Node,
+     * the sizes of its two subtrees differ by at most one.
+     *
+     * @param values the values in in-order; non-null
+     * @return a balanced Tree with the values in in-order
+     */
+    @SafeVarargs
+    public static <T> Tree<T> balanced(T... values) {
+        // copy instead of passing the generic array on
+        List<T> list = new ArrayList<>(values.length);
+        for (T value : values) {
+            list.add(value);
+        }
+        return balanced(list);
+    }
+
+    /**
+     * Builds a height-balanced Tree whose in-order representation is given
+     * by values; see balanced(T...). Values that are not a random access
+     * List are first copied into one.
+     *
+     * @param values the values in in-order; non-null
+     * @return a balanced Tree with the values in in-order
+     */
+    public static <T> Tree<T> balanced(Iterable<? extends T> values) {
+        List<? extends T> list = asRandomAccessList(values);
+        return Tree.withSizedRoot(TreeBuilders.<T>build(list, 0, list.size()));
+    }
+
+    /**
+     * Like balanced(values), but builds the subtrees in parallel on pool.
+     * Ranges of at most cutoff values are built sequentially.
+     *
+     * @param values the values in in-order; non-null
+     * @param pool the pool to build on; non-null
+     * @param cutoff ranges with at most this many values are built
+     *  sequentially; 0 to derive it from the number of values
+     * @return a balanced Tree with the values in in-order
+     * @throws IllegalArgumentException if cutoff < 0
+     */
+    public static <T> Tree<T> balancedParallel(Iterable<? extends T> values,
+            ForkJoinPool pool, int cutoff) {
+        if (cutoff < 0) {
+            throw new IllegalArgumentException("Illegal cutoff: " + cutoff);
+        }
+        List<? extends T> list = asRandomAccessList(values);
+        int effectiveCutoff = cutoff > 0 ? cutoff
+                : Math.max(1024, list.size() / (4 * pool.getParallelism()));
+        return Tree.withSizedRoot(pool.invoke(new BuildTask<T>(list, 0, list.size(),
+                effectiveCutoff)));
+    }
+
+    /**
+     * @return values itself if it is a random access List, otherwise a
+     *  copy of values as an ArrayList
+     */
+    private static <T> List<? extends T> asRandomAccessList(Iterable<? extends T> values) {
+        if (values instanceof List && values instanceof RandomAccess) {
+            return (List<? extends T>) values;
+        }
+        List<T> result = values instanceof Collection
+                ? new ArrayList<>(((Collection<? extends T>) values).size())
+                : new ArrayList<>();
+        for (T value : values) {
+            result.add(value);
+        }
+        return result;
+    }
+
+    /**
+     * Builds a balanced subtree from values[from], ..., values[to - 1].
+     * The recursion depth is O(log n) since the ranges are halved.
+     *
+     * @return the root of the subtree; null if from == to
+     */
+    private static <T> Node<T> build(List<? extends T> values, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        // the constructor of Node computes the size from the subtrees
+        return new Node<>(values.get(middle), build(values, from, middle),
+                build(values, middle + 1, to));
+    }
+
+    /**
+     * Builds a balanced subtree, forking the left half and computing the
+     * right half itself until the range is at most cutoff values long.
+     */
+    private static class BuildTask<T> extends RecursiveTask<Node<T>> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<? extends T> values;
+        private final int from;
+        private final int to;
+        private final int cutoff;
+
+        BuildTask(List<? extends T> values, int from, int to, int cutoff) {
+            this.values = values;
+            this.from = from;
+            this.to = to;
+            this.cutoff = cutoff;
+        }
+
+        @Override
+        protected Node<T> compute() {
+            if (this.to - this.from <= this.cutoff) {
+                return build(this.values, this.from, this.to);
+            }
+            int middle = (this.from + this.to) >>> 1;
+            BuildTask<T> leftTask = new BuildTask<T>(this.values, this.from, middle, this.cutoff);
+            leftTask.fork();
+            Node<T> right = new BuildTask<T>(this.values, middle + 1, this.to, this.cutoff)
+                    .compute();
+            return new Node<>(this.values.get(middle), leftTask.join(), right);
+        }
+    }
+
+    /**
+     * Builds a Tree from its values in pre-order and a bitmap of its
+     * shape: for the i-th Node in pre-order (counting from 0), bit 2 * i
+     * of structure is set iff the Node has a left child and bit 2 * i + 1
+     * is set iff it has a right child. Uses an explicit stack of the
+     * places where the next Nodes go, so deep trees do not overflow the
+     * call stack.
+     *
+     * @param preOrder the values in pre-order; non-null
+     * @param structure the shape of the tree as described above; non-null
+     * @return the Tree with the given values and shape
+     * @throws IllegalArgumentException if the number of values does not
+     *  fit the structure
+     */
+    public static <T> Tree<T> fromPreOrder(Iterable<? extends T> preOrder, BitSet structure) {
+        Iterator<? extends T> values = preOrder.iterator();
+        if (!values.hasNext()) {
+            return new Tree<>();
+        }
+        // the places for the next Nodes: a parent and the side of the parent
+        Deque<Node<T>> parents = new ArrayDeque<>();
+        Deque<Direction> sides = new ArrayDeque<>();
+        Node<T> root = null;
+        int index = 0;
+        while (values.hasNext()) {
+            Node<T> node = new Node<>(values.next());
+            if (root == null) {
+                root = node;
+            } else if (parents.isEmpty()) {
+                throw new IllegalArgumentException("More values than Nodes in the structure: "
+                        + (index + 1));
+            } else {
+                Node<T> parent = parents.pop();
+                if (sides.pop() == Direction.LEFT) {
+                    parent.setLeft(node);
+                } else {
+                    parent.setRight(node);
+                }
+            }
+            // push in reverse order: the left subtree comes first
+            if (structure.get(2 * index + 1)) {
+                parents.push(node);
+                sides.push(Direction.RIGHT);
+            }
+            if (structure.get(2 * index)) {
+                parents.push(node);
+                sides.push(Direction.LEFT);
+            }
+            index++;
+        }
+        if (!parents.isEmpty()) {
+            throw new IllegalArgumentException("Fewer values than Nodes in the structure: "
+                    + index);
+        }
+        return new Tree<>(root); // computes the sizes
+    }
+
+    /**
+     * Computes the shape of tree in the format of fromPreOrder, so that
+     * fromPreOrder(values of tree in pre-order, preOrderStructure(tree))
+     * rebuilds tree.
+     *
+     * @param tree the tree whose shape we want; non-null
+     * @return the shape of tree as a bitmap
+     */
+    public static BitSet preOrderStructure(Tree<?> tree) {
+        return preOrderStructure(tree.getRoot());
+    }
+
+    private static <T> BitSet preOrderStructure(Node<T> root) {
+        BitSet result = new BitSet();
+        Deque<Node<T>> toVisit = new ArrayDeque<>();
+        if (root != null) {
+            toVisit.push(root);
+        }
+        int index = 0;
+        while (!toVisit.isEmpty()) {
+            Node<T> node = toVisit.pop();
+            if (node.getRight() != null) {
+                result.set(2 * index + 1);
+                toVisit.push(node.getRight());
+            }
+            if (node.getLeft() != null) {
+                result.set(2 * index);
+                toVisit.push(node.getLeft());
+            }
+            index++;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,73 @@
+package tree;
+
+/**
+ * A value of a Tree together with the Position at which it is stored,
+ * as produced by the traversals of Tree.
+ *
+ * @param <T> The type of the data stored in the tree.
+ * @author agent
+ */
+public final class TreeEntry<T> {
+    private PackedPosition position; // where data is stored; built on demand from link
+    private final PathLink link; // null if position was given or is not needed
+    private final T data; // the data stored at position
+
+    /**
+     * Constructs a new TreeEntry.
+     *
+     * @param position the Position of data in its Tree; null if not needed
+     * @param data the data stored at position
+     */
+    TreeEntry(PackedPosition position, T data) {
+        this.position = position;
+        this.link = null;
+        this.data = data;
+    }
+
+    /**
+     * Constructs a new TreeEntry whose Position is only built from link
+     * when it is asked for, so traversals need O(1) per entry also in
+     * deep trees.
+     *
+     * @param link the Position of data in its Tree; null if not needed
+     * @param data the data stored at link
+     */
+    TreeEntry(PathLink link, T data) {
+        this.position = null;
+        this.link = link;
+        this.data = data;
+    }
+
+    /**
+     * @return the Position at which the data is stored; computed in
+     *  O(depth) on the first call for entries of traversals; null if the
+     *  traversal was run without Positions
+     */
+    public PackedPosition getPosition() {
+        if (this.position == null && this.link != null) {
+            // racy but benign: PackedPositions are immutable
+            this.position = this.link.toPosition();
+        }
+        return this.position;
+    }
+
+    /**
+     * @return the data stored at the Position
+     */
+    public T getData() {
+        return this.data;
+    }
+
+    /**
+     * @return a String representation of this TreeEntry; just the data if
+     *  there is no Position
+     */
+    @Override
+    public String toString() {
+        PackedPosition pos = getPosition();
+        if (pos == null) {
+            return String.valueOf(this.data);
+        }
+        return pos.toCompactString() + "=" + this.data;
+    }
+}
@@ -0,0 +1,123 @@
+package tree;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Writes String representations of a binary tree directly into an
+ * Appendable, without building intermediate Strings per subtree. Both
+ * forms use an explicit stack instead of recursion, so deep trees do not
+ * overflow the call stack, and both can stop after a given number of
+ * nodes, which makes it cheap to render a prefix of a huge tree.
+ *
+ * @author agent
+ */
+final class TreeRenderer {
+
+    /** Marks output that was cut off at the node limit. */
+    static final String ELLIPSIS = "...";
+
+    /** Stands for a missing child in the structural form. */
+    static final String EMPTY = "-";
+
+    // tokens on the stack of structure; compared by identity
+    private static final String CLOSE = ")";
+    private static final String COMMA = ",";
+
+    private TreeRenderer() {
+        // only static helpers
+    }
+
+    /**
+     * Writes the values below root in in-order as a list, e.g. [4,2,5,1].
+     * If there are more than limit values, only the first limit values
+     * are written, followed by ELLIPSIS, e.g. [4,2,...].
+     *
+     * @param root the root of the tree; may be null
+     * @param out where to write to
+     * @param limit the maximum number of values to write; limit >= 0
+     * @throws IOException if out throws an IOException
+     */
+    static <T> void inOrder(Node<T> root, Appendable out, int limit) throws IOException {
+        checkLimit(limit);
+        out.append('[');
+        Deque<Node<T>> stack = new ArrayDeque<>(); // nodes whose left subtree we are in
+        Node<T> current = root;
+        int written = 0;
+        while (current != null || !stack.isEmpty()) {
+            for (; current != null; current = current.getLeft()) {
+                stack.push(current);
+            }
+            current = stack.pop();
+            if (written > 0) { // use commas only from the second node onwards
+                out.append(',');
+            }
+            if (written == limit) {
+                out.append(ELLIPSIS);
+                break;
+            }
+            out.append(String.valueOf(current.getData()));
+            written++;
+            current = current.getRight();
+        }
+        out.append(']');
+    }
+
+    /**
+     * Writes the shape of the tree below root in pre-order: a leaf is
+     * written as its value, an inner node as value(left,right) where a
+     * missing child is written as EMPTY, e.g. 1(2(4,5),3(-,6)). An empty
+     * tree is written as EMPTY. After limit values, ELLIPSIS is written
+     * in place of the rest and only the open parentheses are closed.
+     *
+     * @param root the root of the tree; may be null
+     * @param out where to write to
+     * @param limit the maximum number of values to write; limit >= 0
+     * @throws IOException if out throws an IOException
+     */
+    static <T> void structure(Node<T> root, Appendable out, int limit) throws IOException {
+        checkLimit(limit);
+        if (root == null) {
+            out.append(EMPTY);
+            return;
+        }
+        // pending output: Nodes still to be written and String tokens
+        Deque<Object> stack = new ArrayDeque<>();
+        stack.push(root);
+        int written = 0;
+        boolean truncated = false;
+        while (!stack.isEmpty()) {
+            Object top = stack.pop();
+            if (truncated) { // only close what is open
+                if (top == CLOSE) {
+                    out.append(CLOSE);
+                }
+            } else if (top instanceof String) {
+                out.append((String) top);
+            } else if (written == limit) {
+                out.append(ELLIPSIS);
+                truncated = true;
+            } else {
+                @SuppressWarnings("unchecked")
+                Node<T> node = (Node<T>) top;
+                out.append(String.valueOf(node.getData()));
+                written++;
+                if (node.getLeft() != null || node.getRight() != null) {
+                    out.append('(');
+                    // push in reverse order
+                    stack.push(CLOSE);
+                    stack.push(node.getRight() == null ? EMPTY : node.getRight());
+                    stack.push(COMMA);
+                    stack.push(node.getLeft() == null ? EMPTY : node.getLeft());
+                }
+            }
+        }
+    }
+
+    private static void checkLimit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Illegal limit: " + limit);
+        }
+    }
+}
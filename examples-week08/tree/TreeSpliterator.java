@@ -0,0 +1,158 @@
+package tree;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Lazy depth-first traversal (in-, pre- or post-order) of a tree as a
+ * Spliterator. The pending work is a deque of items, each either a whole
+ * subtree or a single node whose subtrees have already been scheduled.
+ * Advancing expands the first subtree item into its parts in the chosen
+ * order; splitting hands the first half of the items (expanding a lone
+ * subtree item first) to a new Spliterator, so parallel streams split the
+ * tree at subtrees. The sizes stored in the Nodes make the Spliterator
+ * SIZED and SUBSIZED.
+ *
+ * @param <T> The type of the data stored in the tree.
+ * @author agent
+ */
+class TreeSpliterator<T> implements Spliterator<TreeEntry<T>> {
+    private final TraversalOrder order; // IN_ORDER, PRE_ORDER or POST_ORDER
+    private final boolean withPositions; // whether to compute Positions
+    private final Deque<Item<T>> items; // the pending work in order
+    private long remaining; // the number of nodes in items
+
+    /**
+     * Constructs a Spliterator over the subtree below root.
+     *
+     * @param root the root of the subtree; may be null
+     * @param order a depth-first order
+     * @param withPositions whether the entries should carry Positions;
+     *  if false, their Position is null
+     */
+    TreeSpliterator(Node<T> root, TraversalOrder order, boolean withPositions) {
+        if (order == TraversalOrder.LEVEL_ORDER) {
+            throw new IllegalArgumentException("Not a depth-first order: " + order);
+        }
+        this.order = order;
+        this.withPositions = withPositions;
+        this.items = new ArrayDeque<>();
+        if (root != null) {
+            this.items.add(new Item<>(root, withPositions ? PathLink.ROOT : null, false));
+        }
+        this.remaining = Node.sizeOf(root);
+    }
+
+    private TreeSpliterator(TraversalOrder order, boolean withPositions, Deque<Item<T>> items,
+            long remaining) {
+        this.order = order;
+        this.withPositions = withPositions;
+        this.items = items;
+        this.remaining = remaining;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super TreeEntry<T>> action) {
+        while (!this.items.isEmpty()) {
+            Item<T> item = this.items.pollFirst();
+            if (item.single) {
+                this.remaining--;
+                action.accept(new TreeEntry<>(item.position, item.node.getData()));
+                return true;
+            }
+            expand(item);
+        }
+        return false;
+    }
+
+    /**
+     * Replaces a subtree item by its node and its subtrees in this.order
+     * at the front of this.items.
+     */
+    private void expand(Item<T> item) {
+        Item<T> single = new Item<>(item.node, item.position, true);
+        Item<T> left = child(item, Direction.LEFT);
+        Item<T> right = child(item, Direction.RIGHT);
+        // push in reverse order
+        switch (this.order) {
+        case IN_ORDER:
+            pushIfPresent(right);
+            this.items.push(single);
+            pushIfPresent(left);
+            break;
+        case PRE_ORDER:
+            pushIfPresent(right);
+            pushIfPresent(left);
+            this.items.push(single);
+            break;
+        case POST_ORDER:
+            this.items.push(single);
+            pushIfPresent(right);
+            pushIfPresent(left);
+            break;
+        default:
+            throw new UnsupportedOperationException("Unknown order " + this.order + "!");
+        }
+    }
+
+    private Item<T> child(Item<T> item, Direction d) {
+        Node<T> child = d == Direction.LEFT ? item.node.getLeft() : item.node.getRight();
+        if (child == null) {
+            return null;
+        }
+        return new Item<>(child, this.withPositions ? item.position.child(d) : null, false);
+    }
+
+    private void pushIfPresent(Item<T> item) {
+        if (item != null) {
+            this.items.push(item);
+        }
+    }
+
+    @Override
+    public Spliterator<TreeEntry<T>> trySplit() {
+        if (this.items.size() == 1 && !this.items.peekFirst().single) {
+            expand(this.items.pollFirst());
+        }
+        int prefixItems = this.items.size() / 2;
+        if (prefixItems == 0) {
+            return null;
+        }
+        Deque<Item<T>> prefix = new ArrayDeque<>();
+        long prefixSize = 0;
+        for (int i = 0; i < prefixItems; i++) {
+            Item<T> item = this.items.pollFirst();
+            prefixSize += item.single ? 1 : item.node.getSize();
+            prefix.add(item);
+        }
+        this.remaining -= prefixSize;
+        return new TreeSpliterator<>(this.order, this.withPositions, prefix, prefixSize);
+    }
+
+    @Override
+    public long estimateSize() {
+        return this.remaining;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | NONNULL;
+    }
+
+    /**
+     * Pending work: a whole subtree, or (if single) just its root node.
+     */
+    private static final class Item<T> {
+        final Node<T> node;
+        final PathLink position; // null if positions are not needed
+        final boolean single;
+
+        Item(Node<T> node, PathLink position, boolean single) {
+            this.node = node;
+            this.position = position;
+            this.single = single;
+        }
+    }
+}
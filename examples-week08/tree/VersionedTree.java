@@ -0,0 +1,88 @@
+package tree;
+
+/**
+ * A mutable binary tree with the insertion semantics of Tree that can
+ * hand out point-in-time views in O(1): internally it holds the current
+ * PersistentTree, addAtPosition replaces it by a path-copied successor,
+ * and snapshot() just returns it. A snapshot thus stays unchanged by
+ * later inserts and shares all unchanged Nodes with the current version.
+ *
+ * At most one thread may call addAtPosition at a time. Since the current
+ * version is held in a volatile field, snapshot() and get may be called
+ * from any thread and see the result of a completed addAtPosition.
+ *
+ * @param <T> The type of the data stored in the tree.
+ * @author agent
+ */
+public class VersionedTree<T> {
+    private volatile PersistentTree<T> current;
+    private long version; // the number of successful inserts
+
+    /**
+     * Constructs an empty VersionedTree.
+     */
+    public VersionedTree() {
+        this.current = PersistentTree.empty();
+        this.version = 0;
+    }
+
+    /**
+     * Tries to add value to this tree at Position pos, as described for
+     * Tree.addAtPosition. Allocates one new Node per Node on the path to
+     * the new Node; snapshots taken before are not affected.
+     *
+     * @param pos the position where the value should be inserted; non-null
+     * @param value to be added to this tree
+     * @return whether this tree was modified
+     */
+    public boolean addAtPosition(Position pos, T value) {
+        PersistentTree<T> next = this.current.with(pos, value);
+        if (next == this.current) {
+            return false;
+        }
+        this.current = next;
+        this.version++;
+        return true;
+    }
+
+    /**
+     * @return an immutable view of the current contents of this tree; O(1)
+     */
+    public PersistentTree<T> snapshot() {
+        return this.current;
+    }
+
+    /**
+     * @return the number of successful inserts so far, i.e., the number of
+     *  versions after the initial empty one
+     */
+    public long version() {
+        return this.version;
+    }
+
+    /**
+     * Get the data stored in the tree at Position pos.
+     *
+     * @param pos must be a position in which this tree has a node
+     * @return the data stored at that node
+     */
+    public T get(Position pos) {
+        return this.current.get(pos);
+    }
+
+    /**
+     * @return the number of nodes in this tree
+     */
+    public int size() {
+        return this.current.size();
+    }
+
+    /**
+     * @return a String representation of this tree via a list in
+     *  in-order representation of the values
+     */
+    @Override
+    public String toString() {
+        return this.current.toString();
+    }
+}
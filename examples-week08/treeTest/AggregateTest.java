@@ -0,0 +1,162 @@
+package treeTest;
+
+import static org.junit.Assert.*;
+import static treeTest.Positions.randomPosition;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import tree.Direction;
+import tree.Monoid;
+import tree.PackedPosition;
+import tree.TraversalOrder;
+import tree.Tree;
+
+/**
+ * Test cases for the cached subtree aggregates of Tree, by comparison
+ * with aggregates computed from the in-order list of values.
+ *
+ * @author agent
+ */
+public class AggregateTest {
+
+    private static final Monoid<Integer, Long> SUM = Monoid.sum(Integer::longValue);
+    private static final Monoid<Integer, Integer> EVEN = Monoid.count(x -> x % 2 == 0);
+    private static final Monoid<Integer, Integer> MIN = Monoid.min(Comparator.naturalOrder());
+    // not commutative, so it also checks the in-order combination
+    private static final Monoid<Integer, String> CONCAT = Monoid.of("", x -> x + ";",
+            String::concat);
+
+    private static List<Integer> values(Tree<Integer> tree) {
+        List<Integer> result = new ArrayList<>();
+        tree.forEach(result::add);
+        return result;
+    }
+
+    private static String concat(List<Integer> values) {
+        StringBuilder result = new StringBuilder();
+        for (int value : values) {
+            result.append(value).append(';');
+        }
+        return result.toString();
+    }
+
+    @Test
+    public void test_empty() {
+        Tree<Integer> tree = new Tree<>();
+        assertEquals(0L, (long) tree.aggregate(SUM));
+        assertNull(tree.aggregate(MIN));
+        assertEquals("", tree.aggregate(CONCAT, 0, 0));
+    }
+
+    @Test
+    public void test_small() {
+        Tree<Integer> tree = new Tree<>();
+        tree.addAtPosition(PackedPosition.parse(""), 1);
+        tree.addAtPosition(PackedPosition.parse("L"), 2);
+        tree.addAtPosition(PackedPosition.parse("R"), 3);
+        tree.addAtPosition(PackedPosition.parse("LL"), 4);
+        tree.addAtPosition(PackedPosition.parse("LR"), 5);
+        assertEquals("[4,2,5,1,3]", tree.toString());
+        assertEquals(15L, (long) tree.aggregate(SUM));
+        assertEquals(11L, (long) tree.aggregate(SUM, PackedPosition.parse("L")));
+        assertEquals("4;2;5;", tree.aggregate(CONCAT, PackedPosition.parse("L")));
+        assertEquals("2;5;1;", tree.aggregate(CONCAT, 1, 4));
+        assertEquals(2, (int) tree.aggregate(EVEN));
+        tree.setData(PackedPosition.parse("LR"), 6);
+        assertEquals("[4,2,6,1,3]", tree.toString());
+        assertEquals(3, (int) tree.aggregate(EVEN));
+        assertEquals(12L, (long) tree.aggregate(SUM, PackedPosition.parse("L")));
+        assertEquals(1, (int) tree.aggregate(MIN, 1, 5));
+        assertEquals(2, (int) tree.aggregate(MIN, 0, 3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_illegalRange() {
+        Tree<Integer> tree = new Tree<>();
+        tree.addAtPosition(PackedPosition.parse(""), 1);
+        tree.aggregate(SUM, 0, 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_noSubtree() {
+        Tree<Integer> tree = new Tree<>();
+        tree.addAtPosition(PackedPosition.parse(""), 1);
+        tree.aggregate(SUM, PackedPosition.parse("R"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_setDataMissing() {
+        new Tree<Integer>().setData(PackedPosition.parse(""), 1);
+    }
+
+    @Test
+    public void test_setDataResetsMerkleHash() {
+        Tree<Integer> tree = new Tree<>();
+        Tree<Integer> other = new Tree<>();
+        for (String pos : new String[] { "", "L", "LR", "R" }) {
+            tree.addAtPosition(PackedPosition.parse(pos), pos.length());
+            other.addAtPosition(PackedPosition.parse(pos), pos.length());
+        }
+        assertEquals(tree.merkleHash(), other.merkleHash());
+        tree.setData(PackedPosition.parse("LR"), 7);
+        assertNotEquals(tree.merkleHash(), other.merkleHash());
+        assertEquals(1, tree.diff(other).size());
+        other.setData(PackedPosition.parse("LR"), 7);
+        assertEquals(tree, other);
+    }
+
+    /**
+     * @return the Positions of all Nodes of tree
+     */
+    private static List<PackedPosition> positions(Tree<Integer> tree) {
+        List<PackedPosition> result = new ArrayList<>();
+        tree.entries(TraversalOrder.PRE_ORDER).forEach(e -> result.add(e.getPosition()));
+        return result;
+    }
+
+    @Test
+    public void test_randomAgainstLists() {
+        Random random = new Random(49);
+        Tree<Integer> tree = new Tree<>();
+        List<PackedPosition> positions = new ArrayList<>();
+        for (int step = 0; step < 3000; step++) {
+            if (random.nextInt(4) == 0 && !positions.isEmpty()) {
+                tree.setData(positions.get(random.nextInt(positions.size())),
+                        random.nextInt(100));
+            } else {
+                tree.addAtPosition(randomPosition(random, 12), random.nextInt(100));
+            }
+            if (step % 10 != 0) {
+                continue;
+            }
+            positions = positions(tree);
+            // switching between the Monoids also checks the invalidation
+            List<Integer> values = values(tree);
+            int from = random.nextInt(values.size() + 1);
+            int to = from + random.nextInt(values.size() - from + 1);
+            List<Integer> range = values.subList(from, to);
+            assertEquals(concat(range), tree.aggregate(CONCAT, from, to));
+            assertEquals(range.stream().mapToLong(x -> x).sum(),
+                    (long) tree.aggregate(SUM, from, to));
+            assertEquals(range.stream().min(Comparator.naturalOrder()).orElse(null),
+                    tree.aggregate(MIN, from, to));
+            assertEquals(range.stream().filter(x -> x % 2 == 0).count(),
+                    (long) tree.aggregate(EVEN, from, to));
+        }
+        assertEquals(concat(values(tree)), tree.aggregate(CONCAT));
+        // the subtree at a Position is a range of in-order indices
+        Monoid<Integer, Integer> all = Monoid.count(x -> true);
+        for (PackedPosition pos : positions(tree)) {
+            int size = tree.aggregate(all, pos);
+            PackedPosition left = pos.child(Direction.LEFT);
+            int leftSize = tree.getAll(List.of(left)).isEmpty() ? 0 : tree.aggregate(all, left);
+            int from = tree.rank(pos) - leftSize;
+            assertEquals(tree.aggregate(CONCAT, from, from + size), tree.aggregate(CONCAT, pos));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package treeTest;
+
+import static org.junit.Assert.*;
+import static treeTest.Positions.randomPosition;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import tree.PackedPosition;
+import tree.Position;
+import tree.Tree;
+
+/**
+ * Test cases for Tree.addAll, Tree.getAll and PackedPosition.TRIE_ORDER.
+ *
+ * @author agent
+ */
+public class BatchTest {
+
+    @Test
+    public void test_trieOrder() {
+        List<PackedPosition> positions = new ArrayList<>();
+        for (String s : new String[] { "R", "LR", "", "L", "RL", "LL", "LRL" }) {
+            positions.add(PackedPosition.parse(s));
+        }
+        positions.sort(PackedPosition.TRIE_ORDER);
+        List<String> sorted = new ArrayList<>();
+        positions.forEach(p -> sorted.add(p.toCompactString()));
+        assertEquals(List.of("", "L", "LL", "LR", "LRL", "R", "RL"), sorted);
+        assertEquals(70, PackedPosition.parse("L".repeat(70) + "R")
+                .commonPrefixLength(PackedPosition.parse("L".repeat(80))));
+    }
+
+    @Test
+    public void test_addAllMatchesSequentialInserts() {
+        Random random = new Random(43);
+        for (int round = 0; round < 20; round++) {
+            Map<Position, Integer> values = new HashMap<>();
+            for (int i = 0; i < 300; i++) {
+                values.put(randomPosition(random, 12), i);
+            }
+            Tree<Integer> sequential = new Tree<>();
+            Tree<Integer> batched = new Tree<>();
+            if (round % 2 == 1) { // also start from a non-empty tree
+                for (int i = 0; i < 50; i++) {
+                    PackedPosition pos = randomPosition(random, 8);
+                    sequential.addAtPosition(pos, -i);
+                    batched.addAtPosition(pos, -i);
+                }
+            }
+            List<PackedPosition> order = new ArrayList<>();
+            values.keySet().forEach(p -> order.add(PackedPosition.of(p)));
+            order.sort(PackedPosition.TRIE_ORDER);
+            Map<Position, Boolean> expected = new HashMap<>();
+            for (PackedPosition pos : order) {
+                expected.put(pos, sequential.addAtPosition(pos, values.get(pos)));
+            }
+            Map<Position, Boolean> actual = batched.addAll(values);
+            assertEquals(expected, actual);
+            assertEquals(sequential.toString(), batched.toString());
+            assertEquals(sequential.size(), batched.size());
+            for (int k = 0; k < sequential.size(); k++) { // checks all subtree sizes
+                assertEquals(sequential.select(k), batched.select(k));
+            }
+        }
+    }
+
+    @Test
+    public void test_getAll() {
+        Tree<String> tree = new Tree<>();
+        for (String s : new String[] { "", "L", "R", "LL", "LR", "RR" }) {
+            tree.addAtPosition(PackedPosition.parse(s), "v" + s);
+        }
+        List<Position> wanted = new ArrayList<>();
+        for (String s : new String[] { "RR", "LRL", "", "LL", "RLR" }) {
+            wanted.add(PackedPosition.parse(s));
+        }
+        Map<Position, String> result = tree.getAll(wanted);
+        assertEquals(3, result.size());
+        assertEquals("vRR", result.get(PackedPosition.parse("RR")));
+        assertEquals("v", result.get(PackedPosition.root()));
+        assertEquals("vLL", result.get(PackedPosition.parse("LL")));
+        assertFalse(result.containsKey(PackedPosition.parse("LRL")));
+        assertTrue(new Tree<String>().getAll(wanted).isEmpty());
+    }
+
+    @Test
+    public void test_getAllMatchesGet() {
+        Random random = new Random(43);
+        Tree<Integer> tree = new Tree<>();
+        for (int i = 0; i < 2000; i++) {
+            tree.addAtPosition(randomPosition(random, 14), i);
+        }
+        List<Position> wanted = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            wanted.add(randomPosition(random, 14));
+        }
+        Map<Position, Integer> result = tree.getAll(wanted);
+        for (Position pos : wanted) {
+            Integer expected;
+            try {
+                expected = tree.get(pos);
+            } catch (IllegalArgumentException e) {
+                expected = null;
+            }
+            assertEquals(expected, result.get(pos));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package treeTest;
+
+import static org.junit.Assert.*;
+import static treeTest.Positions.randomPosition;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import tree.CompactTree;
+import tree.Node;
+import tree.PackedPosition;
+import tree.TraversalOrder;
+import tree.Tree;
+import tree.TreeEntry;
+
+/**
+ * Test cases for CompactTree and its hash-consing.
+ *
+ * @author agent
+ */
+public class CompactTreeTest {
+
+    /**
+     * @return a complete tree of the given height where each value is
+     *  the depth of its Node
+     */
+    private static Node<Integer> levels(int height, int depth) {
+        if (height == 0) {
+            return null;
+        }
+        return new Node<>(depth, levels(height - 1, depth + 1), levels(height - 1, depth + 1));
+    }
+
+    @Test
+    public void test_compactSharesIdenticalSubtrees() {
+        Tree<Integer> tree = new Tree<>(levels(16, 0));
+        CompactTree<Integer> compact = CompactTree.compact(tree);
+        assertEquals(65535, compact.size());
+        assertEquals(16, compact.storedNodes()); // one Node per level
+        assertEquals(15, (int) compact.get(PackedPosition.parse("LRLRLRLRLRLRLRL")));
+        assertEquals(tree.toString(), compact.toString());
+        assertEquals(tree, compact.toTree());
+    }
+
+    @Test
+    public void test_compactKeepsDistinctSubtreesApart() {
+        Random random = new Random(45);
+        Tree<Integer> tree = new Tree<>();
+        for (int i = 0; i < 3000; i++) {
+            tree.addAtPosition(randomPosition(random, 14), random.nextInt(3));
+        }
+        CompactTree<Integer> compact = CompactTree.compact(tree);
+        assertEquals(tree.size(), compact.size());
+        assertTrue(compact.storedNodes() < tree.size());
+        for (TreeEntry<Integer> entry : tree.entries(TraversalOrder.PRE_ORDER)) {
+            assertEquals(entry.getData(), compact.get(entry.getPosition()));
+        }
+        assertEquals(tree, compact.toTree());
+    }
+
+    @Test
+    public void test_hashConsingInsert() {
+        Random random = new Random(45);
+        Tree<String> tree = new Tree<>();
+        CompactTree<String> compact = CompactTree.empty();
+        for (int i = 0; i < 2000; i++) {
+            PackedPosition pos = randomPosition(random, 10);
+            String value = "v" + pos.size();
+            boolean added = tree.addAtPosition(pos, value);
+            CompactTree<String> next = compact.with(pos, value);
+            assertEquals(added, next != compact);
+            compact = next;
+        }
+        assertEquals(tree, compact.toTree());
+        assertEquals(tree.size(), compact.size());
+    }
+
+    @Test
+    public void test_insertsDropReplacedPaths() {
+        // unique values, so there is no sharing and the old paths would
+        // dominate the table without rebuilds
+        Random random = new Random(45);
+        CompactTree<Integer> compact = CompactTree.empty();
+        for (int i = 0; i < 100_000; i++) {
+            compact = compact.with(randomPosition(random, 20), i);
+        }
+        int live = CompactTree.compact(compact.toTree()).storedNodes();
+        assertEquals(compact.size(), live);
+        assertTrue(compact.storedNodes() + " stored for " + live + " live Nodes",
+                compact.storedNodes() <= 2 * live + 1024);
+        assertEquals(compact.toTree(), CompactTree.compact(compact.toTree()).toTree());
+    }
+
+    @Test
+    public void test_oldVersionsUnchanged() {
+        CompactTree<String> v1 = CompactTree.<String>empty().with(PackedPosition.root(), "a");
+        CompactTree<String> v2 = v1.with(PackedPosition.parse("L"), "b");
+        CompactTree<String> v3 = v2.with(PackedPosition.parse("R"), "b");
+        assertEquals("[a]", v1.toString());
+        assertEquals("[b,a]", v2.toString());
+        assertEquals("[b,a,b]", v3.toString());
+        assertSame(v3, v3.with(PackedPosition.parse("R"), "c"));
+        // a, b, a(b,-) and a(b,b): the leaves b at L and R are one Node
+        assertEquals(4, v3.storedNodes());
+    }
+
+    @Test
+    public void test_deepChain() {
+        Node<Integer> root = null;
+        for (int i = 0; i < 1_000_000; i++) {
+            root = new Node<>(7, root, null);
+        }
+        CompactTree<Integer> compact = CompactTree.compact(new Tree<>(root));
+        assertEquals(1_000_000, compact.size());
+        assertEquals(1_000_000, compact.storedNodes()); // no two subtrees are equal
+        assertEquals(7, (int) compact.iterator().next());
+    }
+}
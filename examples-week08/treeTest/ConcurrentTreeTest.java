@@ -0,0 +1,213 @@
+package treeTest;
+
+import static org.junit.Assert.*;
+import static treeTest.Positions.randomPosition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import tree.ConcurrentTree;
+import tree.PackedPosition;
+import tree.Tree;
+
+/**
+ * Test cases for ConcurrentTree, including inserts from several threads.
+ *
+ * @author agent
+ */
+public class ConcurrentTreeTest {
+    private static final int THREADS = 4;
+
+    @Test
+    public void test_sequentialMatchesTree() {
+        Random random = new Random(42);
+        Tree<Integer> tree = new Tree<>();
+        ConcurrentTree<Integer> concurrent = new ConcurrentTree<>();
+        for (int i = 0; i < 5000; i++) {
+            PackedPosition pos = randomPosition(random, 14);
+            assertEquals(tree.addAtPosition(pos, i), concurrent.addAtPosition(pos, i));
+        }
+        assertEquals(tree.size(), concurrent.size());
+        assertEquals(tree.toString(), concurrent.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_getMissing() {
+        ConcurrentTree<Integer> tree = new ConcurrentTree<>();
+        tree.addAtPosition(PackedPosition.root(), 1);
+        tree.get(PackedPosition.parse("R"));
+    }
+
+    /**
+     * Runs each task on its own thread, all starting at the same time, and
+     * waits for all of them. A failure inside a task does not reach JUnit
+     * from its thread, so the first one is kept and rethrown here after
+     * all threads have been joined.
+     */
+    private static void runConcurrently(List<Runnable> tasks) throws InterruptedException {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        for (Runnable task : tasks) {
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    task.run();
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError("worker thread failed", failure.get());
+        }
+    }
+
+    /**
+     * Runs one thread per list of positions; thread t inserts the value
+     * t * 1_000_000 + i for the i-th of its positions.
+     *
+     * @return for each thread, the values of its successful inserts
+     */
+    private static List<List<Integer>> race(ConcurrentTree<Integer> tree,
+            List<List<PackedPosition>> work) throws InterruptedException {
+        List<List<Integer>> won = new ArrayList<>();
+        List<Runnable> tasks = new ArrayList<>();
+        for (int t = 0; t < work.size(); t++) {
+            final int thread = t;
+            final List<PackedPosition> positions = work.get(t);
+            List<Integer> mine = new ArrayList<>();
+            won.add(mine);
+            tasks.add(() -> {
+                for (int i = 0; i < positions.size(); i++) {
+                    int value = thread * 1_000_000 + i;
+                    if (tree.addAtPosition(positions.get(i), value)) {
+                        mine.add(value);
+                    }
+                }
+            });
+        }
+        runConcurrently(tasks);
+        return won;
+    }
+
+    /**
+     * All threads race for the same leaf Positions below a complete tree,
+     * each in its own order: for every Position exactly one thread must
+     * win, and the tree must hold the value of the winner there.
+     */
+    @Test
+    public void test_exactlyOneWinnerPerPosition() throws InterruptedException {
+        ConcurrentTree<Integer> tree = new ConcurrentTree<>();
+        List<PackedPosition> leaves = new ArrayList<>();
+        for (int i = 1; i < 2048; i++) { // complete tree of depth 10
+            StringBuilder path = new StringBuilder();
+            for (int bit = 30 - Integer.numberOfLeadingZeros(i); bit >= 0; bit--) {
+                path.append((i >>> bit & 1) == 0 ? 'L' : 'R');
+            }
+            PackedPosition pos = PackedPosition.parse(path);
+            if (path.length() < 10) {
+                assertTrue(tree.addAtPosition(pos, -i));
+            } else {
+                leaves.add(pos);
+            }
+        }
+        List<List<PackedPosition>> work = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            List<PackedPosition> order = new ArrayList<>(leaves);
+            Collections.shuffle(order, new Random(t));
+            work.add(order);
+        }
+        List<List<Integer>> won = race(tree, work);
+
+        // which thread won each leaf, by the value it stored there
+        Map<PackedPosition, Integer> winners = new HashMap<>();
+        for (int t = 0; t < THREADS; t++) {
+            for (int value : won.get(t)) {
+                PackedPosition leaf = work.get(t).get(value % 1_000_000);
+                assertNull("two winners at " + leaf, winners.put(leaf, value));
+            }
+        }
+        assertEquals(leaves.size(), winners.size());
+        for (PackedPosition leaf : leaves) {
+            assertEquals(winners.get(leaf), tree.get(leaf));
+        }
+        assertEquals(1023 + 1024, tree.size());
+    }
+
+    /**
+     * All threads insert at the same random Positions; inserts may end up
+     * at prefixes of their Positions, but every value in the tree must
+     * come from exactly one successful insert.
+     */
+    @Test
+    public void test_racingRandomInserts() throws InterruptedException {
+        Random random = new Random(42);
+        List<PackedPosition> positions = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            positions.add(randomPosition(random, 16));
+        }
+        ConcurrentTree<Integer> tree = new ConcurrentTree<>();
+        List<List<Integer>> won = race(tree, Collections.nCopies(THREADS, positions));
+
+        List<Integer> winners = new ArrayList<>();
+        for (List<Integer> mine : won) {
+            winners.addAll(mine);
+        }
+        List<Integer> stored = new ArrayList<>();
+        tree.toTree().forEach(stored::add);
+        winners.sort(null);
+        stored.sort(null);
+        assertEquals(winners, stored);
+        assertEquals(winners.size(), tree.size());
+    }
+
+    /**
+     * Threads insert into disjoint subtrees below a shared root.
+     */
+    @Test
+    public void test_disjointSubtrees() throws InterruptedException {
+        ConcurrentTree<String> tree = new ConcurrentTree<>();
+        assertTrue(tree.addAtPosition(PackedPosition.root(), "root"));
+        String[] prefixes = { "LL", "LR", "RL", "RR" };
+        assertTrue(tree.addAtPosition(PackedPosition.parse("L"), "L"));
+        assertTrue(tree.addAtPosition(PackedPosition.parse("R"), "R"));
+        for (String prefix : prefixes) {
+            assertTrue(tree.addAtPosition(PackedPosition.parse(prefix), prefix));
+            assertFalse(tree.addAtPosition(PackedPosition.parse(prefix), prefix));
+        }
+        List<Runnable> tasks = new ArrayList<>();
+        for (String prefix : prefixes) {
+            tasks.add(() -> {
+                StringBuilder path = new StringBuilder(prefix);
+                for (int i = 0; i < 2000; i++) {
+                    path.append(i % 3 == 0 ? 'L' : 'R');
+                    assertTrue("insert at " + path,
+                            tree.addAtPosition(PackedPosition.parse(path), prefix + i));
+                }
+            });
+        }
+        runConcurrently(tasks);
+        assertEquals(1 + 2 + 4 + 4 * 2000, tree.size());
+        for (String prefix : prefixes) {
+            StringBuilder path = new StringBuilder(prefix);
+            for (int i = 0; i < 2000; i++) {
+                path.append(i % 3 == 0 ? 'L' : 'R');
+                assertEquals(prefix + i, tree.get(PackedPosition.parse(path)));
+            }
+        }
+    }
+}
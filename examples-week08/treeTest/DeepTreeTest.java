@@ -0,0 +1,119 @@
+package treeTest;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import tree.Direction;
+import tree.Node;
+import tree.PackedPosition;
+import tree.Position;
+import tree.Tree;
+
+/**
+ * Regression tests for Tree operations on degenerate trees that are far
+ * deeper than the call stack allows for recursion.
+ *
+ * @author agent
+ */
+public class DeepTreeTest {
+    private static final int DEPTH = 1_000_000;
+
+    /**
+     * @return a chain of DEPTH + 1 nodes labelled 0..DEPTH from the root
+     *  downwards, where node i + 1 is the child of node i in direction
+     *  directions[i % directions.length]
+     */
+    private static Tree<Integer> buildChain(Direction... directions) {
+        Node<Integer> root = new Node<>(0);
+        Node<Integer> current = root;
+        for (int i = 0; i < DEPTH; i++) {
+            Node<Integer> child = new Node<>(i + 1);
+            if (directions[i % directions.length] == Direction.LEFT) {
+                current.setLeft(child);
+            } else {
+                current.setRight(child);
+            }
+            current = child;
+        }
+        return new Tree<>(root);
+    }
+
+    private static Position chainPosition(int depth, Direction... directions) {
+        List<Direction> result = new ArrayList<>(depth);
+        for (int i = 0; i < depth; i++) {
+            result.add(directions[i % directions.length]);
+        }
+        return new Position(result);
+    }
+
+    @Test
+    public void test_leftChain_sizeAndToString() {
+        Tree<Integer> tree = buildChain(Direction.LEFT);
+        assertEquals(DEPTH + 1, tree.size());
+        String s = tree.toString();
+        assertTrue(s.startsWith("[" + DEPTH + "," + (DEPTH - 1) + ","));
+        assertTrue(s.endsWith(",1,0]"));
+        // the traversal must leave the tree unchanged
+        assertEquals(DEPTH + 1, tree.size());
+        assertEquals(s, tree.toString());
+    }
+
+    @Test
+    public void test_rightChain_sizeAndToString() {
+        Tree<Integer> tree = buildChain(Direction.RIGHT);
+        assertEquals(DEPTH + 1, tree.size());
+        assertTrue(tree.toString().startsWith("[0,1,2,"));
+        assertTrue(tree.toString().endsWith("," + DEPTH + "]"));
+    }
+
+    @Test
+    public void test_zigzagChain_get() {
+        Direction[] zigzag = { Direction.LEFT, Direction.RIGHT };
+        Tree<Integer> tree = buildChain(zigzag);
+        assertEquals(DEPTH + 1, tree.size());
+        Position deepest = chainPosition(DEPTH, zigzag);
+        assertEquals(DEPTH, (int) tree.get(deepest));
+        assertEquals(DEPTH, (int) tree.get(PackedPosition.of(deepest)));
+        assertEquals(DEPTH / 2, (int) tree.get(chainPosition(DEPTH / 2, zigzag)));
+    }
+
+    @Test
+    public void test_chain_addAtPositionBelowDeepestNode() {
+        Tree<Integer> tree = buildChain(Direction.LEFT);
+        Position below = chainPosition(DEPTH + 1, Direction.LEFT);
+        assertTrue(tree.addAtPosition(below, -1));
+        assertFalse(tree.addAtPosition(below, -2));
+        assertEquals(-1, (int) tree.get(PackedPosition.of(below)));
+        assertEquals(DEPTH + 2, tree.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_chain_getMissing() {
+        Tree<Integer> tree = buildChain(Direction.RIGHT);
+        tree.get(chainPosition(DEPTH, Direction.LEFT));
+    }
+
+    @Test
+    public void test_toString_restoresTreeAfterException() {
+        Node<Object> root = new Node<>(1, new Node<>(2), new Node<>(3));
+        root.getLeft().setRight(new Node<Object>(new Object() {
+            @Override
+            public String toString() {
+                throw new IllegalStateException("boom");
+            }
+        }));
+        Tree<Object> tree = new Tree<>(root);
+        try {
+            tree.toString();
+            fail("exception expected");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertNull(root.getLeft().getRight().getRight());
+        assertEquals(4, tree.size());
+    }
+}
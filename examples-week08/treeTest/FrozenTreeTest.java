@@ -0,0 +1,109 @@
+package treeTest;
+
+import static org.junit.Assert.*;
+import static treeTest.Positions.randomPosition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import tree.Direction;
+import tree.FrozenTree;
+import tree.PackedPosition;
+import tree.Position;
+import tree.TraversalOrder;
+import tree.Tree;
+
+/**
+ * Test cases for FrozenTree, by comparison with the Tree it was frozen
+ * from.
+ *
+ * @author agent
+ */
+public class FrozenTreeTest {
+
+    @Test
+    public void test_empty() {
+        FrozenTree<Integer> frozen = new Tree<Integer>().freeze();
+        assertTrue(frozen.isEmpty());
+        assertEquals(0, frozen.size());
+        assertEquals("[]", frozen.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_getEmpty() {
+        new Tree<Integer>().freeze().get(PackedPosition.parse(""));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_illegalBlockSize() {
+        new Tree<Integer>().freeze(0);
+    }
+
+    @Test
+    public void test_small() {
+        Tree<String> tree = new Tree<>();
+        tree.addAtPosition(PackedPosition.parse(""), "a");
+        tree.addAtPosition(PackedPosition.parse("L"), "b");
+        tree.addAtPosition(PackedPosition.parse("R"), "c");
+        tree.addAtPosition(PackedPosition.parse("RL"), "d");
+        FrozenTree<String> frozen = tree.freeze(2);
+        assertEquals("[b,a,d,c]", frozen.toString());
+        assertEquals("d", frozen.get(PackedPosition.parse("RL")));
+        assertEquals("d", frozen.get(new Position(Arrays.asList(Direction.RIGHT,
+                Direction.LEFT))));
+        assertEquals(4, frozen.size());
+        tree.addAtPosition(PackedPosition.parse("LL"), "e"); // not visible
+        assertEquals(4, frozen.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_getMissing() {
+        Tree<String> tree = new Tree<>();
+        tree.addAtPosition(PackedPosition.parse(""), "a");
+        tree.addAtPosition(PackedPosition.parse("L"), "b");
+        tree.freeze().get(PackedPosition.parse("LR"));
+    }
+
+    private static Integer getOrNull(Tree<Integer> tree, Position pos) {
+        try {
+            return tree.get(pos);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static Integer getOrNull(FrozenTree<Integer> tree, Position pos) {
+        try {
+            return tree.get(pos);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Test
+    public void test_randomAgainstTree() {
+        Random random = new Random(50);
+        Tree<Integer> tree = new Tree<>();
+        for (int i = 0; i < 5000; i++) {
+            tree.addAtPosition(randomPosition(random, 100), i);
+        }
+        List<PackedPosition> positions = new ArrayList<>();
+        tree.entries(TraversalOrder.PRE_ORDER).forEach(e -> positions.add(e.getPosition()));
+        for (int blockNodes : new int[] { 1, 3, 8, 64 }) {
+            FrozenTree<Integer> frozen = tree.freeze(blockNodes);
+            assertEquals(tree.size(), frozen.size());
+            assertEquals(tree.toString(), frozen.toString());
+            for (PackedPosition pos : positions) {
+                assertEquals(tree.get(pos), frozen.get(pos));
+            }
+            for (int i = 0; i < 1000; i++) { // mostly missing Positions
+                PackedPosition pos = randomPosition(random, 30);
+                assertEquals(getOrNull(tree, pos), getOrNull(frozen, pos));
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package treeTest;
+
+import static org.junit.Assert.*;
+import static treeTest.Positions.randomPosition;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import tree.Direction;
+import tree.ImplicitTree;
+import tree.PackedPosition;
+import tree.Position;
+import tree.Tree;
+
+/**
+ * Test cases for the class ImplicitTree, mostly checking that it behaves
+ * like Tree in both storage modes.
+ *
+ * @author agent
+ */
+public class ImplicitTreeTest {
+
+    private static void assertSameAsTree(int completeLevels, int maxDepth, int inserts,
+            boolean expectImplicit) {
+        Random random = new Random(maxDepth);
+        Tree<Integer> expected = new Tree<>();
+        ImplicitTree<Integer> actual = new ImplicitTree<>();
+        // build the complete levels level by level
+        for (int level = 0; level < completeLevels; level++) {
+            for (int bits = 0; bits < 1 << level; bits++) {
+                PackedPosition.Builder builder = new PackedPosition.Builder();
+                for (int i = level - 1; i >= 0; i--) {
+                    builder.append((bits >>> i & 1) == 1 ? Direction.RIGHT : Direction.LEFT);
+                }
+                PackedPosition pos = builder.build();
+                assertTrue(expected.addAtPosition(pos, -1));
+                assertTrue(actual.addAtPosition(pos, -1));
+            }
+        }
+        for (int i = 0; i < inserts; i++) {
+            Position pos = randomPosition(random, maxDepth);
+            assertEquals(expected.addAtPosition(pos, i), actual.addAtPosition(pos, i));
+            assertEquals(expected.size(), actual.size());
+        }
+        assertEquals(expectImplicit, actual.isImplicit());
+        assertEquals(expected.toString(), actual.toString());
+        for (int i = 0; i < 1000; i++) {
+            Position pos = randomPosition(random, maxDepth);
+            Integer expectedValue;
+            try {
+                expectedValue = expected.get(pos);
+            } catch (IllegalArgumentException e) {
+                expectedValue = null;
+            }
+            Integer actualValue;
+            try {
+                actualValue = actual.get(pos);
+            } catch (IllegalArgumentException e) {
+                actualValue = null;
+            }
+            assertEquals(expectedValue, actualValue);
+        }
+        assertEquals(expected.toString(), actual.toTree().toString());
+        assertFalse(actual.isImplicit());
+    }
+
+    @Test
+    public void test_denseTree_staysImplicit() {
+        assertSameAsTree(9, 11, 3000, true);
+    }
+
+    @Test
+    public void test_sparseDeepTree_switchesToPointers() {
+        assertSameAsTree(0, 40, 2000, false);
+    }
+
+    @Test
+    public void test_empty() {
+        ImplicitTree<Integer> tree = new ImplicitTree<>();
+        assertTrue(tree.isEmpty());
+        assertEquals("[]", tree.toString());
+        assertTrue(tree.toTree().isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_get_missing() {
+        ImplicitTree<Integer> tree = new ImplicitTree<>();
+        tree.addAtPosition(new Position(), 1);
+        tree.get(PackedPosition.parse("R"));
+    }
+}
@@ -0,0 +1,127 @@
+package treeTest;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import tree.Codec;
+import tree.MappedTree;
+import tree.Node;
+import tree.PackedPosition;
+import tree.TraversalOrder;
+import tree.Tree;
+import tree.TreeEntry;
+
+/**
+ * Test cases for writing Trees with MappedTree and reading them back.
+ *
+ * @author agent
+ */
+public class MappedTreeTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path file() throws IOException {
+        return this.folder.newFile().toPath();
+    }
+
+    private static void assertSameTree(Tree<String> expected, MappedTree<String> actual)
+            throws IOException {
+        assertEquals(expected.size(), actual.size());
+        for (TreeEntry<String> entry : expected.entries(TraversalOrder.LEVEL_ORDER)) {
+            assertEquals(entry.getData(), actual.get(entry.getPosition()));
+        }
+        assertEquals(expected.toString(), actual.toTree().toString());
+    }
+
+    @Test
+    public void test_smallTree() throws IOException {
+        Tree<String> tree = new Tree<>();
+        for (String pos : new String[] { "", "L", "R", "LL", "LR", "RR", "RRL" }) {
+            assertTrue(tree.addAtPosition(PackedPosition.parse(pos), "v" + pos));
+        }
+        Path file = file();
+        MappedTree.write(tree, Codec.strings(), file);
+        try (MappedTree<String> mapped = MappedTree.open(file, Codec.strings())) {
+            assertSameTree(tree, mapped);
+            assertEquals("vRRL", mapped.get(PackedPosition.parse("RRL")));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_missingPosition() throws IOException {
+        Tree<String> tree = new Tree<>();
+        tree.addAtPosition(PackedPosition.root(), "root");
+        tree.addAtPosition(PackedPosition.parse("L"), "left");
+        Path file = file();
+        MappedTree.write(tree, Codec.strings(), file);
+        try (MappedTree<String> mapped = MappedTree.open(file, Codec.strings())) {
+            mapped.get(PackedPosition.parse("R"));
+        }
+    }
+
+    @Test
+    public void test_emptyTree() throws IOException {
+        Path file = file();
+        MappedTree.write(new Tree<>(), Codec.integers(), file);
+        try (MappedTree<Integer> mapped = MappedTree.open(file, Codec.integers())) {
+            assertTrue(mapped.isEmpty());
+            assertEquals("[]", mapped.toTree().toString());
+            try {
+                mapped.get(PackedPosition.root());
+                fail();
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void test_randomTree() throws IOException {
+        Random random = new Random(40);
+        Tree<String> tree = new Tree<>();
+        for (int i = 0; i < 20_000; i++) {
+            StringBuilder pos = new StringBuilder();
+            int depth = random.nextInt(30);
+            for (int d = 0; d < depth; d++) {
+                pos.append(random.nextBoolean() ? 'L' : 'R');
+            }
+            tree.addAtPosition(PackedPosition.parse(pos), "#" + i);
+        }
+        Path file = file();
+        MappedTree.write(tree, Codec.strings(), file);
+        try (MappedTree<String> mapped = MappedTree.open(file, Codec.strings())) {
+            assertSameTree(tree, mapped);
+        }
+    }
+
+    @Test
+    public void test_deepChain() throws IOException {
+        Node<String> root = null;
+        for (int i = 0; i < 100_000; i++) {
+            root = new Node<>("" + i, root, null);
+        }
+        Tree<String> tree = new Tree<>(root);
+        Path file = file();
+        MappedTree.write(tree, Codec.strings(), file);
+        try (MappedTree<String> mapped = MappedTree.open(file, Codec.strings())) {
+            assertEquals("0", mapped.get(PackedPosition.parse("L".repeat(99_999))));
+            assertEquals(tree.toString(), mapped.toTree().toString());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void test_notATreeFile() throws IOException {
+        Path file = file();
+        Files.write(file, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12 });
+        MappedTree.open(file, Codec.strings());
+    }
+}
@@ -0,0 +1,145 @@
+package treeTest;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import tree.Node;
+import tree.PackedPosition;
+import tree.Position;
+import tree.Tree;
+import tree.TreeBuilders;
+
+/**
+ * Test cases for the Merkle hashes of Tree: merkleHash, equals, hashCode
+ * and diff.
+ *
+ * @author agent
+ */
+public class MerkleTest {
+
+    private static Tree<String> tree(String... positions) {
+        Tree<String> result = new Tree<>();
+        for (String pos : positions) {
+            assertTrue(result.addAtPosition(PackedPosition.parse(pos), "v" + pos));
+        }
+        return result;
+    }
+
+    private static List<String> diff(Tree<String> t1, Tree<String> t2) {
+        List<String> result = new ArrayList<>();
+        t1.diff(t2).forEach(p -> result.add(p.toCompactString()));
+        return result;
+    }
+
+    @Test
+    public void test_equalsAndHashCode() {
+        Tree<String> t1 = tree("", "L", "R", "LR");
+        Tree<String> t2 = tree("", "R", "L", "LR"); // other insertion order
+        assertEquals(t1, t2);
+        assertEquals(t1.hashCode(), t2.hashCode());
+        assertEquals(t1.merkleHash(), t2.merkleHash());
+        assertNotEquals(t1, tree("", "L", "R", "LL"));
+        assertNotEquals(t1, tree("", "L", "R"));
+        assertEquals(new Tree<String>(), new Tree<Integer>());
+        assertNotEquals(new Tree<String>(), t1);
+    }
+
+    @Test
+    public void test_mirroredTreesDiffer() {
+        Tree<String> left = new Tree<>();
+        left.addAtPosition(PackedPosition.root(), "x");
+        left.addAtPosition(PackedPosition.parse("L"), "y");
+        Tree<String> right = new Tree<>();
+        right.addAtPosition(PackedPosition.root(), "x");
+        right.addAtPosition(PackedPosition.parse("R"), "y");
+        assertNotEquals(left.merkleHash(), right.merkleHash());
+        assertNotEquals(left, right);
+        assertEquals(List.of("L", "R"), diff(left, right));
+    }
+
+    @Test
+    public void test_hashIsUpdatedAfterInsert() {
+        Tree<String> t1 = tree("", "L", "R");
+        Tree<String> t2 = tree("", "L", "R");
+        long before = t1.merkleHash();
+        assertTrue(t1.addAtPosition(PackedPosition.parse("RL"), "new"));
+        assertNotEquals(before, t1.merkleHash());
+        assertNotEquals(t1, t2);
+        assertTrue(t2.addAtPosition(PackedPosition.parse("RL"), "new"));
+        assertEquals(t1.merkleHash(), t2.merkleHash());
+        assertEquals(t1, t2);
+
+        // addAll must invalidate the hashes along its paths, too
+        Map<Position, String> batch = new HashMap<>();
+        batch.put(PackedPosition.parse("LL"), "a");
+        batch.put(PackedPosition.parse("RLR"), "b");
+        t1.addAll(batch);
+        t2.addAtPosition(PackedPosition.parse("LL"), "a");
+        assertNotEquals(t1.merkleHash(), t2.merkleHash());
+        t2.addAtPosition(PackedPosition.parse("RLR"), "b");
+        assertEquals(t1.merkleHash(), t2.merkleHash());
+    }
+
+    @Test
+    public void test_diff() {
+        Tree<String> t1 = tree("", "L", "R", "LL", "RR");
+        Tree<String> t2 = new Tree<>();
+        for (String pos : new String[] { "", "L", "R", "LL", "RL" }) {
+            t2.addAtPosition(PackedPosition.parse(pos), pos.equals("LL") ? "changed" : "v" + pos);
+        }
+        assertEquals(List.of("LL", "RL", "RR"), diff(t1, t2));
+        assertTrue(diff(t1, t1).isEmpty());
+        assertEquals(List.of(""), diff(t1, new Tree<>()));
+    }
+
+    @Test
+    public void test_diffOfLargeReplicas() {
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            values.add(i);
+        }
+        Tree<Integer> t1 = TreeBuilders.balanced(values);
+        Tree<Integer> t2 = TreeBuilders.balanced(values);
+        assertEquals(t1, t2);
+        assertTrue(t1.diff(t2).isEmpty());
+        Random random = new Random(44);
+        List<PackedPosition> added = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            StringBuilder pos = new StringBuilder();
+            for (int d = 0; d < 17; d++) {
+                pos.append(random.nextBoolean() ? 'L' : 'R');
+            }
+            PackedPosition p = PackedPosition.parse(pos.append("LLL"));
+            if (t2.addAtPosition(p, -i)) {
+                added.add(p);
+            }
+        }
+        // each new Node is a difference where only t2 has a Node
+        List<PackedPosition> differences = t1.diff(t2);
+        assertEquals(added.size(), differences.size());
+        assertTrue(t1.getAll(differences).isEmpty());
+        assertEquals(differences.size(), t2.getAll(differences).size());
+    }
+
+    @Test
+    public void test_deepTrees() {
+        Node<Integer> root1 = null;
+        Node<Integer> root2 = null;
+        for (int i = 0; i < 1_000_000; i++) {
+            root1 = new Node<>(i, root1, null);
+            root2 = new Node<>(i == 0 ? -1 : i, root2, null);
+        }
+        Tree<Integer> t1 = new Tree<>(root1);
+        Tree<Integer> t2 = new Tree<>(root2);
+        assertNotEquals(t1, t2);
+        assertEquals(1, t1.diff(t2).size());
+        assertEquals(999_999, t1.diff(t2).get(0).size());
+    }
+}
@@ -0,0 +1,128 @@
+package treeTest;
+
+import static org.junit.Assert.*;
+import static treeTest.Positions.randomPosition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import tree.Direction;
+import tree.Node;
+import tree.PackedPosition;
+import tree.Position;
+import tree.Tree;
+
+/**
+ * Test cases for the subtree sizes of Tree: size(), select(k) and
+ * rank(pos).
+ *
+ * @author agent
+ */
+public class OrderStatisticTest {
+
+    /**
+     * @return the in-order values of tree, parsed from toString()
+     */
+    private static List<String> inOrder(Tree<Integer> tree) {
+        List<String> result = new ArrayList<>();
+        String s = tree.toString();
+        for (String value : s.substring(1, s.length() - 1).split(",")) {
+            if (!value.isEmpty()) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    @Test
+    public void test_size_failedInsertsDoNotCount() {
+        Tree<Integer> tree = new Tree<>();
+        assertEquals(0, tree.size());
+        assertTrue(tree.addAtPosition(new Position(), 1));
+        assertFalse(tree.addAtPosition(new Position(), 2));
+        assertTrue(tree.addAtPosition(PackedPosition.parse("R"), 3));
+        assertFalse(tree.addAtPosition(PackedPosition.parse("R"), 4));
+        assertTrue(tree.addAtPosition(PackedPosition.parse("RL"), 5));
+        assertTrue(tree.addAtPosition(PackedPosition.parse("RLLL"), 6)); // adds at RLL
+        assertFalse(tree.addAtPosition(PackedPosition.parse("RLL"), 7));
+        assertEquals(4, tree.size());
+        assertEquals(1, tree.rank(PackedPosition.parse("RLL"))); // [1,6,5,3]
+    }
+
+    @Test
+    public void test_failedInsertKeepsCaches() {
+        Node<Integer> leaf = new Node<>(3);
+        Node<Integer> root = new Node<>(1, new Node<>(2, null, leaf), null);
+        Tree<Integer> tree = new Tree<>(root);
+        long hash = tree.merkleHash();
+        for (Position pos : List.of(PackedPosition.parse("LR"), new Position(List.of(
+                Direction.LEFT, Direction.RIGHT)))) {
+            assertFalse(tree.addAtPosition(pos, 4));
+            assertEquals(hash, root.getHash()); // still cached
+            assertEquals(3, root.getSize());
+            assertEquals(1, leaf.getSize());
+        }
+        assertTrue(tree.addAtPosition(PackedPosition.parse("LL"), 4));
+        assertEquals(0L, root.getHash()); // reset on the modified path
+        assertEquals(4, root.getSize());
+        assertEquals(3, root.getLeft().getSize());
+        // a plain Position whose prefix R is free: the new Node goes there
+        assertTrue(tree.addAtPosition(new Position(List.of(Direction.RIGHT, Direction.LEFT)), 5));
+        assertEquals(5, root.getSize());
+        assertEquals(3, root.getLeft().getSize());
+        assertEquals(1, root.getRight().getSize());
+        assertEquals(5, tree.select(4).intValue());
+    }
+
+    @Test
+    public void test_randomTree_selectAndRank() {
+        Random random = new Random(5);
+        Tree<Integer> tree = new Tree<>();
+        List<PackedPosition> occupied = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            PackedPosition pos = randomPosition(random, 14);
+            Position listPos = i % 2 == 0 ? pos : new Position(directionsOf(pos));
+            if (tree.addAtPosition(listPos, i)) {
+                occupied.add(pos);
+            }
+            assertEquals(inOrder(tree).size(), tree.size());
+        }
+        List<String> values = inOrder(tree);
+        for (int k = 0; k < values.size(); k++) {
+            assertEquals(values.get(k), tree.select(k).toString());
+        }
+        for (PackedPosition pos : occupied) {
+            try {
+                int rank = tree.rank(pos);
+                assertEquals(tree.get(pos), tree.select(rank));
+            } catch (IllegalArgumentException e) {
+                // pos was only a prefix of the requested position
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_select_outOfRange() {
+        Tree<Integer> tree = new Tree<>();
+        tree.addAtPosition(new Position(), 1);
+        tree.select(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_rank_missing() {
+        Tree<Integer> tree = new Tree<>();
+        tree.addAtPosition(new Position(), 1);
+        tree.rank(PackedPosition.parse("L"));
+    }
+
+    private static List<Direction> directionsOf(Position pos) {
+        List<Direction> result = new ArrayList<>();
+        for (int i = 0; i < pos.size(); i++) {
+            result.add(pos.get(i));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,117 @@
+package treeTest;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import tree.Direction;
+import tree.PackedPosition;
+import tree.Position;
+import tree.Tree;
+
+/**
+ * Test cases for the class PackedPosition and its use in Tree.
+ *
+ * @author agent
+ */
+public class PackedPositionTest {
+
+    private static String randomPath(int depth, long seed) {
+        Random random = new Random(seed);
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            result.append(random.nextBoolean() ? 'R' : 'L');
+        }
+        return result.toString();
+    }
+
+    private static Position listPosition(String path) {
+        List<Direction> directions = new ArrayList<>();
+        for (char c : path.toCharArray()) {
+            directions.add(c == 'R' ? Direction.RIGHT : Direction.LEFT);
+        }
+        return new Position(directions);
+    }
+
+    private static Integer getOrNull(Tree<Integer> tree, Position pos) {
+        try {
+            return tree.get(pos);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Test
+    public void test_parse_get() {
+        PackedPosition pos = PackedPosition.parse("RLLR");
+        assertEquals(4, pos.size());
+        assertEquals(Direction.RIGHT, pos.get(0));
+        assertEquals(Direction.LEFT, pos.get(2));
+        assertEquals("[RIGHT, LEFT, LEFT, RIGHT]", pos.toString());
+        assertEquals("RLLR", pos.toCompactString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_parse_illegalCharacter() {
+        PackedPosition.parse("RLX");
+    }
+
+    @Test
+    public void test_equalsHashCode_sameAsListPosition() {
+        for (int depth : new int[] { 0, 1, 63, 64, 65, 130 }) {
+            String path = randomPath(depth, depth);
+            PackedPosition packed = PackedPosition.parse(path);
+            Position list = listPosition(path);
+            assertEquals(packed, list);
+            assertEquals(list, packed);
+            assertEquals(list.hashCode(), packed.hashCode());
+            assertEquals(path, packed.toCompactString());
+        }
+        assertNotEquals(PackedPosition.parse("LR"), PackedPosition.parse("LRL"));
+        assertNotEquals(PackedPosition.parse("LR"), PackedPosition.parse("LL"));
+    }
+
+    @Test
+    public void test_builder_and_child_matchParse() {
+        String path = randomPath(150, 7);
+        PackedPosition.Builder builder = new PackedPosition.Builder();
+        PackedPosition viaChild = PackedPosition.root();
+        for (char c : path.toCharArray()) {
+            Direction d = c == 'R' ? Direction.RIGHT : Direction.LEFT;
+            builder.append(d);
+            viaChild = viaChild.child(d);
+        }
+        assertEquals(PackedPosition.parse(path), builder.build());
+        assertEquals(PackedPosition.parse(path), viaChild);
+        assertEquals(PackedPosition.root(), builder.reset().build());
+        assertEquals(PackedPosition.parse("RR"), builder.right().right().build());
+    }
+
+    @Test
+    public void test_tree_sameResultsForBothRepresentations() {
+        Tree<Integer> listTree = new Tree<>();
+        Tree<Integer> packedTree = new Tree<>();
+        for (int i = 0; i < 500; i++) {
+            String path = randomPath(i % 80, i);
+            assertEquals(listTree.addAtPosition(listPosition(path), i),
+                    packedTree.addAtPosition(PackedPosition.parse(path), i));
+        }
+        assertEquals(listTree.toString(), packedTree.toString());
+        for (String path : Arrays.asList("", "L", "R", "LR", "RL", "RR", "LLL")) {
+            assertEquals(getOrNull(listTree, listPosition(path)),
+                    getOrNull(packedTree, PackedPosition.parse(path)));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_tree_get_missing() {
+        Tree<Integer> tree = new Tree<>();
+        tree.addAtPosition(PackedPosition.root(), 1);
+        tree.get(PackedPosition.parse("L"));
+    }
+}
@@ -0,0 +1,104 @@
+package treeTest;
+
+import static org.junit.Assert.*;
+import static treeTest.Positions.randomPosition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import tree.PackedPosition;
+import tree.PersistentTree;
+import tree.Tree;
+import tree.VersionedTree;
+
+/**
+ * Test cases for PersistentTree and VersionedTree.
+ *
+ * @author agent
+ */
+public class PersistentTreeTest {
+
+    @Test
+    public void test_withLeavesOldVersionUnchanged() {
+        PersistentTree<Integer> v0 = PersistentTree.empty();
+        PersistentTree<Integer> v1 = v0.with(PackedPosition.root(), 1);
+        PersistentTree<Integer> v2 = v1.with(PackedPosition.parse("L"), 2);
+        PersistentTree<Integer> v3 = v2.with(PackedPosition.parse("RL"), 3); // adds at R
+        assertEquals("[]", v0.toString());
+        assertEquals("[1]", v1.toString());
+        assertEquals("[2,1]", v2.toString());
+        assertEquals("[2,1,3]", v3.toString());
+        assertEquals(3, (int) v3.get(PackedPosition.parse("R")));
+        assertEquals(2, v2.size());
+        assertEquals(3, v3.size());
+    }
+
+    @Test
+    public void test_withOccupiedReturnsSameTree() {
+        PersistentTree<Integer> v1 = PersistentTree.<Integer>empty().with(PackedPosition.root(), 1);
+        assertSame(v1, v1.with(PackedPosition.root(), 2));
+        assertEquals(1, (int) v1.get(PackedPosition.root()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_getMissing() {
+        PersistentTree.<Integer>empty().with(PackedPosition.root(), 1)
+                .get(PackedPosition.parse("L"));
+    }
+
+    @Test
+    public void test_versionedTreeMatchesTree() {
+        Random random = new Random(41);
+        Tree<Integer> tree = new Tree<>();
+        VersionedTree<Integer> versioned = new VersionedTree<>();
+        List<PersistentTree<Integer>> snapshots = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            PackedPosition pos = randomPosition(random, 12);
+            assertEquals(tree.addAtPosition(pos, i), versioned.addAtPosition(pos, i));
+            if (i % 100 == 0) {
+                snapshots.add(versioned.snapshot());
+                expected.add(tree.toString());
+            }
+        }
+        assertEquals(tree.toString(), versioned.toString());
+        assertEquals(tree.size(), versioned.size());
+        assertEquals(tree.size(), versioned.version());
+        for (int i = 0; i < snapshots.size(); i++) {
+            assertEquals(expected.get(i), snapshots.get(i).toString());
+        }
+    }
+
+    @Test
+    public void test_snapshotReadableWhileWriting() throws InterruptedException {
+        VersionedTree<Integer> versioned = new VersionedTree<>();
+        versioned.addAtPosition(PackedPosition.root(), 0);
+        Thread writer = new Thread(() -> {
+            StringBuilder path = new StringBuilder();
+            for (int i = 1; i <= 10_000; i++) {
+                path.append('R');
+                versioned.addAtPosition(PackedPosition.parse(path), i);
+            }
+        });
+        writer.start();
+        List<Integer> failures = new ArrayList<>();
+        while (writer.isAlive()) {
+            PersistentTree<Integer> snapshot = versioned.snapshot();
+            int expected = 0;
+            for (int value : snapshot) { // must be 0, 1, ..., size - 1
+                if (value != expected++) {
+                    failures.add(value);
+                }
+            }
+            if (expected != snapshot.size()) {
+                failures.add(-expected);
+            }
+        }
+        writer.join();
+        assertTrue(failures.toString(), failures.isEmpty());
+        assertEquals(10_001, versioned.size());
+    }
+}
@@ -0,0 +1,115 @@
+package treeTest;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import tree.Direction;
+import tree.PackedPosition;
+import tree.Position;
+import tree.PositionCache;
+import tree.Tree;
+
+/**
+ * Test cases for the lookup cache of Tree.get.
+ *
+ * @author agent
+ */
+public class PositionCacheTest {
+
+    /**
+     * @return a tree with a right chain of the given length, with the
+     *  depth of each Node as its value
+     */
+    private static Tree<Integer> chain(int length) {
+        Tree<Integer> tree = new Tree<>();
+        StringBuilder path = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            assertTrue(tree.addAtPosition(PackedPosition.parse(path), i));
+            path.append('R');
+        }
+        return tree;
+    }
+
+    @Test
+    public void test_hitsAndMisses() {
+        Tree<Integer> tree = chain(100);
+        tree.enableLookupCache(10);
+        PositionCache<Integer> cache = tree.getLookupCache();
+        PackedPosition deep = PackedPosition.parse("R".repeat(99));
+        assertEquals(99, (int) tree.get(deep));
+        assertEquals(99, (int) tree.get(deep));
+        assertEquals(99, (int) tree.get(PackedPosition.parse("R".repeat(99))));
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void test_plainPositionsShareEntries() {
+        Tree<Integer> tree = chain(10);
+        tree.enableLookupCache(10);
+        List<Direction> directions = new ArrayList<>(Arrays.asList(Direction.RIGHT,
+                Direction.RIGHT));
+        Position pos = new Position(directions);
+        assertEquals(2, (int) tree.get(pos));
+        directions.add(Direction.RIGHT); // the cache must have copied the key
+        assertEquals(3, (int) tree.get(pos));
+        assertEquals(2, (int) tree.get(PackedPosition.parse("RR")));
+        assertEquals(1, tree.getLookupCache().getHits());
+    }
+
+    @Test
+    public void test_missingPositionsAreNotCached() {
+        Tree<Integer> tree = chain(3);
+        tree.enableLookupCache(10);
+        PackedPosition pos = PackedPosition.parse("RRL");
+        try {
+            tree.get(pos);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertTrue(tree.addAtPosition(pos, 42));
+        assertEquals(42, (int) tree.get(pos));
+        assertEquals(0, tree.getLookupCache().getHits());
+        assertEquals(42, (int) tree.get(pos));
+        assertEquals(1, tree.getLookupCache().getHits());
+    }
+
+    @Test
+    public void test_clockEviction() {
+        Tree<Integer> tree = chain(20);
+        tree.enableLookupCache(4);
+        PositionCache<Integer> cache = tree.getLookupCache();
+        PackedPosition hot = PackedPosition.parse("RRRRR");
+        tree.get(hot);
+        for (int i = 6; i < 20; i++) {
+            tree.get(hot); // keeps its reference bit set
+            tree.get(PackedPosition.parse("R".repeat(i)));
+        }
+        assertEquals(4, cache.size());
+        assertEquals(11, cache.getEvictions());
+        long hits = cache.getHits();
+        tree.get(hot);
+        assertEquals(hits + 1, cache.getHits());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_illegalCapacity() {
+        new Tree<Integer>().enableLookupCache(0);
+    }
+
+    @Test
+    public void test_disable() {
+        Tree<Integer> tree = chain(3);
+        tree.enableLookupCache(2);
+        tree.disableLookupCache();
+        assertNull(tree.getLookupCache());
+        assertEquals(2, (int) tree.get(PackedPosition.parse("RR")));
+    }
+}
@@ -0,0 +1,42 @@
+package treeTest;
+
+import java.util.Random;
+
+import tree.Direction;
+import tree.PackedPosition;
+
+/**
+ * Random Positions for the randomised test cases in this package.
+ *
+ * @author agent
+ */
+final class Positions {
+
+    private Positions() {
+        // only static helpers
+    }
+
+    /**
+     * @param random source of randomness; non-null
+     * @param maxDepth the maximum depth; non-negative
+     * @return a Position of a depth drawn uniformly from 0..maxDepth, with
+     *  each step independently LEFT or RIGHT
+     */
+    static PackedPosition randomPosition(Random random, int maxDepth) {
+        return randomPositionOfDepth(random, random.nextInt(maxDepth + 1));
+    }
+
+    /**
+     * @param random source of randomness; non-null
+     * @param depth the depth of the result; non-negative
+     * @return a Position of exactly the given depth, with each step
+     *  independently LEFT or RIGHT
+     */
+    static PackedPosition randomPositionOfDepth(Random random, int depth) {
+        PackedPosition.Builder builder = new PackedPosition.Builder();
+        for (int i = 0; i < depth; i++) {
+            builder.append(random.nextBoolean() ? Direction.RIGHT : Direction.LEFT);
+        }
+        return builder.build();
+    }
+}
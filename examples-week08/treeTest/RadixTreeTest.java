@@ -0,0 +1,129 @@
+package treeTest;
+
+import static org.junit.Assert.*;
+import static treeTest.Positions.randomPositionOfDepth;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import tree.Direction;
+import tree.PackedPosition;
+import tree.RadixTree;
+import tree.Tree;
+
+/**
+ * Test cases for the path-compressed RadixTree, mostly by comparison
+ * with Tree.
+ *
+ * @author agent
+ */
+public class RadixTreeTest {
+
+    @Test
+    public void test_empty() {
+        RadixTree<Integer> tree = new RadixTree<>();
+        assertTrue(tree.isEmpty());
+        assertEquals(0, tree.size());
+        assertEquals("[]", tree.toString());
+        assertFalse(tree.iterator().hasNext());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_getEmpty() {
+        new RadixTree<Integer>().get(PackedPosition.parse(""));
+    }
+
+    @Test
+    public void test_longChain() {
+        RadixTree<Integer> tree = new RadixTree<>();
+        StringBuilder path = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            assertTrue(tree.addAtPosition(PackedPosition.parse(path), i));
+            path.append(i % 3 == 0 ? 'L' : 'R');
+        }
+        assertEquals(300, tree.size());
+        path.setLength(0);
+        for (int i = 0; i < 300; i++) {
+            assertEquals(i, (int) tree.get(PackedPosition.parse(path)));
+            path.append(i % 3 == 0 ? 'L' : 'R');
+        }
+        assertFalse(tree.addAtPosition(PackedPosition.parse("LRR"), -1));
+        assertEquals(300, tree.size());
+    }
+
+    @Test
+    public void test_splitInsideChain() {
+        RadixTree<String> tree = new RadixTree<>();
+        tree.addAtPosition(PackedPosition.parse(""), "a");
+        tree.addAtPosition(PackedPosition.parse("L"), "b");
+        tree.addAtPosition(PackedPosition.parse("LL"), "c");
+        tree.addAtPosition(PackedPosition.parse("LLR"), "d");
+        assertEquals("[c,d,b,a]", tree.toString());
+        assertTrue(tree.addAtPosition(PackedPosition.parse("LR"), "e"));
+        assertEquals("[c,d,b,e,a]", tree.toString());
+        assertEquals("d", tree.get(PackedPosition.parse("LLR")));
+        assertEquals("e", tree.get(PackedPosition.parse("LR")));
+        assertEquals(5, tree.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_getOffChain() {
+        RadixTree<String> tree = new RadixTree<>();
+        tree.addAtPosition(PackedPosition.parse(""), "a");
+        tree.addAtPosition(PackedPosition.parse("L"), "b");
+        tree.addAtPosition(PackedPosition.parse("LL"), "c");
+        tree.get(PackedPosition.parse("LR"));
+    }
+
+    @Test
+    public void test_randomAgainstTree() {
+        Random random = new Random(47);
+        for (int round = 0; round < 20; round++) {
+            Tree<Integer> expected = new Tree<>();
+            RadixTree<Integer> actual = new RadixTree<>();
+            List<PackedPosition> positions = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                PackedPosition pos;
+                if (!positions.isEmpty() && random.nextInt(3) == 0) {
+                    // extend or branch off a known Position
+                    PackedPosition base = positions.get(random.nextInt(positions.size()));
+                    PackedPosition.Builder builder = new PackedPosition.Builder();
+                    for (int d = 0; d < base.size(); d++) {
+                        builder.append(base.get(d));
+                    }
+                    pos = builder.append(random.nextBoolean() ? Direction.RIGHT
+                            : Direction.LEFT).build();
+                } else {
+                    pos = randomPositionOfDepth(random, random.nextInt(150));
+                }
+                positions.add(pos);
+                assertEquals(expected.addAtPosition(pos, i), actual.addAtPosition(pos, i));
+                assertEquals(expected.size(), actual.size());
+            }
+            assertEquals(expected.toString(), actual.toString());
+            for (PackedPosition pos : positions) {
+                boolean present;
+                Integer value = null;
+                try {
+                    value = expected.get(pos);
+                    present = true;
+                } catch (IllegalArgumentException e) {
+                    present = false;
+                }
+                if (present) {
+                    assertEquals(value, actual.get(pos));
+                } else {
+                    try {
+                        actual.get(pos);
+                        fail("expected no data at " + pos);
+                    } catch (IllegalArgumentException e) {
+                        // expected
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package treeTest;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import tree.Node;
+import tree.PackedPosition;
+import tree.Tree;
+
+/**
+ * Test cases for Tree.render, Tree.renderStructure and Tree.toString.
+ *
+ * @author agent
+ */
+public class RenderTest {
+
+    /**
+     * @return the tree
+     *        1
+     *       / \
+     *      2   3
+     *     / \   \
+     *    4   5   6
+     */
+    private static Tree<Integer> sample() {
+        Tree<Integer> tree = new Tree<>();
+        String[] positions = { "", "L", "R", "LL", "LR", "RR" };
+        for (int i = 0; i < positions.length; i++) {
+            assertTrue(tree.addAtPosition(PackedPosition.parse(positions[i]), i + 1));
+        }
+        return tree;
+    }
+
+    private static String render(Tree<Integer> tree, int limit) throws IOException {
+        StringBuilder result = new StringBuilder();
+        tree.render(result, limit);
+        return result.toString();
+    }
+
+    private static String structure(Tree<Integer> tree, int limit) throws IOException {
+        StringBuilder result = new StringBuilder();
+        tree.renderStructure(result, limit);
+        return result.toString();
+    }
+
+    @Test
+    public void test_toString() {
+        assertEquals("[]", new Tree<Integer>().toString());
+        assertEquals("[4,2,5,1,3,6]", sample().toString());
+    }
+
+    @Test
+    public void test_renderWithLimit() throws IOException {
+        Tree<Integer> tree = sample();
+        assertEquals("[...]", render(tree, 0));
+        assertEquals("[4,2,...]", render(tree, 2));
+        assertEquals("[4,2,5,1,3,6]", render(tree, 6));
+        assertEquals("[]", render(new Tree<>(), 0));
+    }
+
+    @Test
+    public void test_renderStructure() throws IOException {
+        Tree<Integer> tree = sample();
+        assertEquals("1(2(4,5),3(-,6))", structure(tree, Integer.MAX_VALUE));
+        assertEquals("1(2(...))", structure(tree, 2));
+        assertEquals("...", structure(tree, 0));
+        assertEquals("-", structure(new Tree<>(), 5));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_negativeLimit() throws IOException {
+        render(sample(), -1);
+    }
+
+    @Test
+    public void test_deepTreeWithLimit() throws IOException {
+        Node<Integer> root = null;
+        for (int i = 999_999; i >= 0; i--) {
+            root = new Node<>(i, null, root);
+        }
+        Tree<Integer> tree = new Tree<>(root);
+        assertEquals("[0,1,2,...]", render(tree, 3));
+        assertEquals("0(-,1(-,...))", structure(tree, 2));
+        String full = tree.toString();
+        assertTrue(full.endsWith(",999999]"));
+    }
+}
@@ -0,0 +1,119 @@
+package treeTest;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import tree.SortedTree;
+
+/**
+ * Test cases for the class SortedTree, mostly checking that it behaves
+ * like java.util.TreeMap.
+ *
+ * @author agent
+ */
+public class SortedTreeTest {
+
+    @Test
+    public void test_putGetRemove() {
+        SortedTree<String, Integer> tree = new SortedTree<>();
+        assertNull(tree.put("b", 2));
+        assertNull(tree.put("a", 1));
+        assertEquals(2, (int) tree.put("b", 3));
+        assertEquals(3, (int) tree.get("b"));
+        assertNull(tree.get("c"));
+        assertEquals("[a=1,b=3]", tree.toString());
+        assertEquals(1, (int) tree.remove("a"));
+        assertNull(tree.remove("a"));
+        assertEquals(1, tree.size());
+    }
+
+    @Test
+    public void test_floorCeiling() {
+        SortedTree<Integer, String> tree = new SortedTree<>();
+        for (int i = 0; i < 100; i += 10) {
+            tree.put(i, "v" + i);
+        }
+        assertEquals(20, (int) tree.floor(25).getKey());
+        assertEquals(30, (int) tree.ceiling(25).getKey());
+        assertEquals(30, (int) tree.floor(30).getKey());
+        assertNull(tree.floor(-1));
+        assertNull(tree.ceiling(91));
+    }
+
+    @Test
+    public void test_comparator() {
+        SortedTree<Integer, Integer> tree = new SortedTree<>(Comparator.reverseOrder());
+        for (int i = 0; i < 5; i++) {
+            tree.put(i, i);
+        }
+        assertEquals("[4=4,3=3,2=2,1=1,0=0]", tree.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_nullKey() {
+        new SortedTree<String, String>().put(null, "x");
+    }
+
+    @Test
+    public void test_ascendingInserts_logarithmicHeight() {
+        SortedTree<Integer, Integer> tree = new SortedTree<>();
+        final int n = 100000;
+        for (int i = 0; i < n; i++) {
+            tree.put(i, i);
+        }
+        double bound = Math.log(n + 1) / Math.log(4.0 / 3.0);
+        assertTrue("height " + tree.height(), tree.height() <= bound);
+        for (int i = 0; i < n; i += 2) {
+            tree.remove(i);
+        }
+        assertTrue("height " + tree.height(),
+                tree.height() <= Math.log(n / 2 + 1) / Math.log(4.0 / 3.0));
+    }
+
+    @Test
+    public void test_randomOperations_sameAsTreeMap() {
+        Random random = new Random(11);
+        SortedTree<Integer, Integer> tree = new SortedTree<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(2000);
+            switch (random.nextInt(4)) {
+            case 0:
+                assertEquals(expected.remove(key), tree.remove(key));
+                break;
+            case 1:
+                assertEquals(expected.floorEntry(key), tree.floor(key));
+                assertEquals(expected.ceilingEntry(key), tree.ceiling(key));
+                break;
+            default:
+                assertEquals(expected.put(key, i), tree.put(key, i));
+            }
+            assertEquals(expected.size(), tree.size());
+        }
+        assertEquals(new ArrayList<>(expected.entrySet()), toList(tree));
+        for (int i = 0; i < 100; i++) {
+            int from = random.nextInt(2000);
+            int to = from + random.nextInt(300);
+            boolean fromInclusive = random.nextBoolean();
+            boolean toInclusive = random.nextBoolean();
+            assertEquals(new ArrayList<>(expected.subMap(from, fromInclusive, to, toInclusive)
+                    .entrySet()), toList(tree.range(from, fromInclusive, to, toInclusive)));
+        }
+    }
+
+    private static <K, V> List<Map.Entry<K, V>> toList(Iterable<Map.Entry<K, V>> entries) {
+        List<Map.Entry<K, V>> result = new ArrayList<>();
+        for (Map.Entry<K, V> entry : entries) {
+            result.add(entry);
+        }
+        return result;
+    }
+}
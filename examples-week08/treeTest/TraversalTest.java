@@ -0,0 +1,157 @@
+package treeTest;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import tree.Node;
+import tree.PackedPosition;
+import tree.TraversalOrder;
+import tree.Tree;
+import tree.TreeEntry;
+
+/**
+ * Test cases for the lazy traversals of Tree.
+ *
+ * @author agent
+ */
+public class TraversalTest {
+
+    /**
+     * @return the tree
+     *        1
+     *       / \
+     *      2   3
+     *     / \   \
+     *    4   5   6
+     */
+    private static Tree<Integer> sample() {
+        Tree<Integer> tree = new Tree<>();
+        String[] positions = { "", "L", "R", "LL", "LR", "RR" };
+        for (int i = 0; i < positions.length; i++) {
+            assertTrue(tree.addAtPosition(PackedPosition.parse(positions[i]), i + 1));
+        }
+        return tree;
+    }
+
+    private static String render(Iterable<TreeEntry<Integer>> entries) {
+        List<String> result = new ArrayList<>();
+        for (TreeEntry<Integer> entry : entries) {
+            result.add(entry.toString());
+        }
+        return String.join(" ", result);
+    }
+
+    @Test
+    public void test_orders() {
+        Tree<Integer> tree = sample();
+        assertEquals("LL=4 L=2 LR=5 =1 R=3 RR=6", render(tree.entries(TraversalOrder.IN_ORDER)));
+        assertEquals("=1 L=2 LL=4 LR=5 R=3 RR=6", render(tree.entries(TraversalOrder.PRE_ORDER)));
+        assertEquals("LL=4 LR=5 L=2 RR=6 R=3 =1", render(tree.entries(TraversalOrder.POST_ORDER)));
+        assertEquals("=1 L=2 R=3 LL=4 LR=5 RR=6", render(tree.entries(TraversalOrder.LEVEL_ORDER)));
+    }
+
+    @Test
+    public void test_positionsMatchGet() {
+        Tree<Integer> tree = sample();
+        for (TraversalOrder order : TraversalOrder.values()) {
+            for (TreeEntry<Integer> entry : tree.entries(order)) {
+                assertEquals(entry.getData(), tree.get(entry.getPosition()));
+            }
+        }
+    }
+
+    @Test
+    public void test_deepPositions() {
+        // a zigzag chain across several 64-bit words of a PackedPosition
+        Tree<Integer> tree = new Tree<>();
+        StringBuilder path = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            tree.addAtPosition(PackedPosition.parse(path), i);
+            path.append(i % 3 == 0 ? 'R' : 'L');
+        }
+        for (TraversalOrder order : TraversalOrder.values()) {
+            for (TreeEntry<Integer> entry : tree.entries(order)) {
+                int depth = entry.getData();
+                assertEquals(path.substring(0, depth), entry.getPosition().toCompactString());
+                assertEquals(PackedPosition.parse(path.substring(0, depth)),
+                        entry.getPosition());
+            }
+        }
+    }
+
+    @Test
+    public void test_valueIterator() {
+        List<Integer> values = new ArrayList<>();
+        for (int value : sample()) {
+            values.add(value);
+        }
+        assertEquals(List.of(4, 2, 5, 1, 3, 6), values);
+        assertFalse(new Tree<Integer>().iterator().hasNext());
+    }
+
+    @Test
+    public void test_earlyStopOnDeepTree() {
+        // a left chain of a million nodes: taking the first entries in
+        // pre-order must not touch the whole tree
+        Node<Integer> root = null;
+        for (int i = 1_000_000; i > 0; i--) {
+            root = new Node<>(i, root, null);
+        }
+        Tree<Integer> tree = new Tree<>(root);
+        Iterator<TreeEntry<Integer>> it = tree.entries(TraversalOrder.PRE_ORDER).iterator();
+        assertEquals(1, (int) it.next().getData());
+        assertEquals(2, (int) it.next().getData());
+        assertEquals("LL", it.next().getPosition().toCompactString());
+        assertEquals(1_000_000, (int) tree.iterator().next());
+    }
+
+    @Test
+    public void test_spliteratorSplitsAtSubtrees() {
+        Tree<Integer> tree = sample();
+        Spliterator<TreeEntry<Integer>> right = tree.spliterator(TraversalOrder.IN_ORDER);
+        assertEquals(6, right.getExactSizeIfKnown());
+        Spliterator<TreeEntry<Integer>> left = right.trySplit();
+        assertNotNull(left);
+        assertEquals(6, left.estimateSize() + right.estimateSize());
+        List<Integer> values = new ArrayList<>();
+        left.forEachRemaining(e -> values.add(e.getData()));
+        right.forEachRemaining(e -> values.add(e.getData()));
+        assertEquals(List.of(4, 2, 5, 1, 3, 6), values);
+    }
+
+    @Test
+    public void test_parallelStreamKeepsOrder() {
+        Tree<Integer> tree = new Tree<>();
+        List<Integer> expected = new ArrayList<>();
+        // a complete tree of depth 9, numbered in pre-order
+        fill(tree, "", 9, expected);
+        for (TraversalOrder order : new TraversalOrder[] { TraversalOrder.PRE_ORDER,
+                TraversalOrder.LEVEL_ORDER }) {
+            List<Integer> sequential = tree.stream(order, false)
+                    .map(TreeEntry::getData).collect(Collectors.toList());
+            List<Integer> parallel = tree.stream(order, true)
+                    .map(TreeEntry::getData).collect(Collectors.toList());
+            assertEquals(sequential, parallel);
+        }
+        assertEquals(expected, tree.stream(TraversalOrder.PRE_ORDER, true)
+                .map(TreeEntry::getData).collect(Collectors.toList()));
+    }
+
+    private static void fill(Tree<Integer> tree, String path, int depth,
+            List<Integer> preOrder) {
+        int value = preOrder.size();
+        preOrder.add(value);
+        assertTrue(tree.addAtPosition(PackedPosition.parse(path), value));
+        if (depth > 0) {
+            fill(tree, path + "L", depth - 1, preOrder);
+            fill(tree, path + "R", depth - 1, preOrder);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package treeTest;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.Test;
+
+import tree.Direction;
+import tree.Node;
+import tree.PackedPosition;
+import tree.Tree;
+import tree.TreeAggregator;
+
+/**
+ * Test cases for sequential and parallel aggregations over Trees.
+ *
+ * @author agent
+ */
+public class TreeAggregatorTest {
+
+    private static Tree<Integer> buildRandomTree(int inserts) {
+        Random random = new Random(3);
+        Tree<Integer> tree = new Tree<>();
+        for (int i = 0; i < inserts; i++) {
+            PackedPosition.Builder builder = new PackedPosition.Builder();
+            int depth = random.nextInt(30);
+            for (int d = 0; d < depth; d++) {
+                builder.append(random.nextBoolean() ? Direction.RIGHT : Direction.LEFT);
+            }
+            tree.addAtPosition(builder.build(), i);
+        }
+        return tree;
+    }
+
+    private static String concat(TreeAggregator<Integer> aggregator) {
+        // associative but not commutative
+        return aggregator.mapReduce(value -> value + ",", "", String::concat);
+    }
+
+    @Test
+    public void test_sumAndOrder_sameInAllModes() {
+        Tree<Integer> tree = buildRandomTree(50000);
+        String expectedOrder = tree.toString();
+        expectedOrder = expectedOrder.substring(1, expectedOrder.length() - 1) + ",";
+        long expectedSum = tree.sequential().mapReduce(Integer::longValue, 0L, Long::sum);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        List<TreeAggregator<Integer>> aggregators = List.of(tree.sequential(), tree.parallel(),
+                tree.parallel(pool, 1), tree.parallel(pool, 100));
+        for (TreeAggregator<Integer> aggregator : aggregators) {
+            assertEquals(expectedSum,
+                    (long) aggregator.mapReduce(Integer::longValue, 0L, Long::sum));
+            assertEquals(tree.size(), (long) aggregator.fold(0L, (n, v) -> n + 1, Long::sum));
+            assertEquals(expectedOrder, concat(aggregator));
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void test_foldOnlyReadsTree() {
+        // the accumulator reads the tree while the fold is running
+        Tree<Integer> tree = buildRandomTree(200);
+        String expected = tree.toString();
+        long checked = tree.sequential().fold(0L, (n, value) -> {
+            assertEquals(expected, tree.toString());
+            return n + 1;
+        }, Long::sum);
+        assertEquals(tree.size(), checked);
+    }
+
+    @Test
+    public void test_forEach_parallelVisitsAll() {
+        Tree<Integer> tree = buildRandomTree(20000);
+        LongAdder count = new LongAdder();
+        tree.parallel(ForkJoinPool.commonPool(), 16).forEach(value -> count.increment());
+        assertEquals(tree.size(), count.sum());
+    }
+
+    @Test
+    public void test_empty() {
+        Tree<Integer> tree = new Tree<>();
+        assertEquals(0L, (long) tree.parallel().mapReduce(Integer::longValue, 0L, Long::sum));
+    }
+
+    @Test
+    public void test_deepChain_parallel() {
+        final int depth = 1_000_000;
+        Node<Integer> root = new Node<>(0);
+        Node<Integer> current = root;
+        for (int i = 1; i <= depth; i++) {
+            Node<Integer> child = new Node<>(i);
+            if (i % 2 == 0) {
+                current.setLeft(child);
+            } else {
+                current.setRight(child);
+            }
+            current = child;
+        }
+        Tree<Integer> tree = new Tree<>(root);
+        long expected = (long) depth * (depth + 1) / 2;
+        assertEquals(expected, (long) tree.parallel(ForkJoinPool.commonPool(), 1000)
+                .mapReduce(Integer::longValue, 0L, Long::sum));
+        assertEquals(expected, (long) tree.sequential()
+                .mapReduce(Integer::longValue, 0L, Long::sum));
+    }
+}
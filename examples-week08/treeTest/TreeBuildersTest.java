@@ -0,0 +1,132 @@
+package treeTest;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import tree.PackedPosition;
+import tree.TraversalOrder;
+import tree.Tree;
+import tree.TreeBuilders;
+import tree.TreeEntry;
+
+/**
+ * Test cases for the bulk builders in TreeBuilders.
+ *
+ * @author agent
+ */
+public class TreeBuildersTest {
+
+    private static List<Integer> range(int n) {
+        List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            result.add(i);
+        }
+        return result;
+    }
+
+    private static List<Integer> inOrder(Tree<Integer> tree) {
+        List<Integer> result = new ArrayList<>();
+        tree.forEach(result::add);
+        return result;
+    }
+
+    /**
+     * @return the depth of the deepest Node; -1 for the empty tree
+     */
+    private static int height(Tree<Integer> tree) {
+        int result = -1;
+        for (TreeEntry<Integer> entry : tree.entries(TraversalOrder.LEVEL_ORDER)) {
+            result = entry.getPosition().size();
+        }
+        return result;
+    }
+
+    @Test
+    public void test_balancedFromArray() {
+        Tree<Integer> tree = TreeBuilders.balanced(1, 2, 3, 4, 5, 6, 7);
+        assertEquals("[1,2,3,4,5,6,7]", tree.toString());
+        assertEquals(4, (int) tree.get(PackedPosition.root()));
+        assertEquals(2, (int) tree.get(PackedPosition.parse("L")));
+        assertEquals(7, (int) tree.get(PackedPosition.parse("RR")));
+        assertEquals(7, tree.size());
+        assertEquals(3, tree.rank(PackedPosition.root()));
+    }
+
+    @Test
+    public void test_balancedIsHeightBalanced() {
+        for (int n : new int[] { 0, 1, 2, 3, 100, 1023, 1024, 1025 }) {
+            Tree<Integer> tree = TreeBuilders.balanced(new LinkedList<>(range(n)));
+            assertEquals(range(n), inOrder(tree));
+            assertEquals(n, tree.size());
+            assertEquals(32 - Integer.numberOfLeadingZeros(n) - 1, height(tree));
+            for (int k = 0; k < n; k++) {
+                assertEquals(k, (int) tree.select(k));
+            }
+        }
+    }
+
+    @Test
+    public void test_balancedParallel() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            List<Integer> values = range(100_000);
+            Tree<Integer> tree = TreeBuilders.balancedParallel(values, pool, 100);
+            assertEquals(values, inOrder(tree));
+            assertEquals(TreeBuilders.balanced(values).toString(), tree.toString());
+            assertEquals(100_000, tree.size());
+            assertEquals(0, TreeBuilders.balancedParallel(range(0), pool, 0).size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void test_fromPreOrderRoundTrip() {
+        Tree<Integer> tree = new Tree<>();
+        String[] positions = { "", "L", "R", "LL", "LR", "RR", "RRL", "LRL" };
+        for (int i = 0; i < positions.length; i++) {
+            assertTrue(tree.addAtPosition(PackedPosition.parse(positions[i]), i));
+        }
+        List<Integer> preOrder = new ArrayList<>();
+        tree.entries(TraversalOrder.PRE_ORDER).forEach(e -> preOrder.add(e.getData()));
+        BitSet structure = TreeBuilders.preOrderStructure(tree);
+        Tree<Integer> copy = TreeBuilders.fromPreOrder(preOrder, structure);
+        for (String pos : positions) {
+            assertEquals(tree.get(PackedPosition.parse(pos)), copy.get(PackedPosition.parse(pos)));
+        }
+        assertEquals(tree.size(), copy.size());
+        assertEquals(tree.toString(), copy.toString());
+    }
+
+    @Test
+    public void test_fromPreOrderDeepChain() {
+        int n = 1_000_000;
+        BitSet structure = new BitSet();
+        for (int i = 0; i < n - 1; i++) {
+            structure.set(2 * i + 1); // every Node but the last has a right child
+        }
+        Tree<Integer> tree = TreeBuilders.fromPreOrder(range(n), structure);
+        assertEquals(n, tree.size());
+        assertEquals(n - 1, (int) tree.select(n - 1));
+        assertEquals(0, (int) tree.iterator().next());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_fromPreOrderTooFewValues() {
+        BitSet structure = new BitSet();
+        structure.set(0);
+        TreeBuilders.fromPreOrder(range(1), structure);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_fromPreOrderTooManyValues() {
+        TreeBuilders.fromPreOrder(range(2), new BitSet());
+    }
+}
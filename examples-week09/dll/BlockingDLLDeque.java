@@ -0,0 +1,521 @@
+package dll;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread-safe deque with a fixed capacity, stored in a DoublyLinkedList.
+ * Producers block while the deque is full and consumers block while it is
+ * empty. All waiting uses a ReentrantLock and its Conditions instead of
+ * synchronized/wait, so a blocked virtual thread releases its carrier
+ * thread.
+ *
+ * The deque does not accept null elements, since null is the result of a
+ * poll on an empty deque.
+ *
+ * @param <T> The type of the data objects to store
+ * @author agent
+ */
+public class BlockingDLLDeque<T> {
+    private final DoublyLinkedList<T> list; // guarded by lock
+    private final int capacity; // maximum number of elements
+    private int count; // number of elements in list; guarded by lock
+
+    private final ReentrantLock lock;
+    private final Condition notEmpty; // signalled when an element is added
+    private final Condition notFull; // signalled when an element is removed
+
+    /**
+     * Constructs an empty BlockingDLLDeque.
+     *
+     * @param capacity the maximum number of elements; must be positive
+     * @throws IllegalArgumentException if capacity <= 0
+     */
+    public BlockingDLLDeque(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        this.list = new DoublyLinkedList<>();
+        this.capacity = capacity;
+        this.count = 0;
+        this.lock = new ReentrantLock();
+        this.notEmpty = this.lock.newCondition();
+        this.notFull = this.lock.newCondition();
+    }
+
+    /**
+     * Adds value at the front if there is space.
+     *
+     * @param value to be added; non-null
+     * @return whether value was added
+     */
+    public boolean offerFirst(T value) {
+        checkNotNull(value);
+        this.lock.lock();
+        try {
+            return linkFirst(value);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Adds value at the end if there is space.
+     *
+     * @param value to be added; non-null
+     * @return whether value was added
+     */
+    public boolean offerLast(T value) {
+        checkNotNull(value);
+        this.lock.lock();
+        try {
+            return linkLast(value);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Adds value at the front, waiting up to timeout for space.
+     *
+     * @param value to be added; non-null
+     * @param timeout how long to wait at most
+     * @param unit the unit of timeout
+     * @return whether value was added before the timeout elapsed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean offerFirst(T value, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        checkNotNull(value);
+        long nanos = unit.toNanos(timeout);
+        this.lock.lockInterruptibly();
+        try {
+            while (!linkFirst(value)) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = this.notFull.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Adds value at the end, waiting up to timeout for space.
+     *
+     * @param value to be added; non-null
+     * @param timeout how long to wait at most
+     * @param unit the unit of timeout
+     * @return whether value was added before the timeout elapsed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean offerLast(T value, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        checkNotNull(value);
+        long nanos = unit.toNanos(timeout);
+        this.lock.lockInterruptibly();
+        try {
+            while (!linkLast(value)) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = this.notFull.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Adds value at the front, waiting as long as necessary for space.
+     *
+     * @param value to be added; non-null
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void putFirst(T value) throws InterruptedException {
+        checkNotNull(value);
+        this.lock.lockInterruptibly();
+        try {
+            while (!linkFirst(value)) {
+                this.notFull.await();
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Adds value at the end, waiting as long as necessary for space.
+     *
+     * @param value to be added; non-null
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void putLast(T value) throws InterruptedException {
+        checkNotNull(value);
+        this.lock.lockInterruptibly();
+        try {
+            while (!linkLast(value)) {
+                this.notFull.await();
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Adds as many elements of values at the end as there is space for,
+     * in iteration order, taking the lock only once.
+     *
+     * @param values to be added; no element may be null
+     * @return the number of elements that were added; these are the first
+     *  elements of values
+     */
+    public int offerAll(Collection<? extends T> values) {
+        for (T value : values) {
+            checkNotNull(value);
+        }
+        this.lock.lock();
+        try {
+            int added = 0;
+            for (T value : values) {
+                if (this.count == this.capacity) {
+                    break;
+                }
+                this.list.addLast(value);
+                this.count++;
+                added++;
+            }
+            signalAfterAdding(added);
+            return added;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Adds all elements of values at the end in iteration order, waiting up
+     * to timeout in total for space. Elements are added in batches as space
+     * becomes available, so consumers can start before all have been added.
+     * If the waiting thread is interrupted after some elements have been
+     * added, those elements stay in this deque: the method then returns
+     * their number with the interrupt status set again, so that the caller
+     * knows which elements remain to be added.
+     *
+     * @param values to be added; no element may be null
+     * @param timeout how long to wait at most
+     * @param unit the unit of timeout
+     * @return the number of elements that were added before the timeout
+     *  elapsed or the thread was interrupted; these are the first elements
+     *  of values
+     * @throws InterruptedException if interrupted before any element was
+     *  added
+     */
+    public int offerAll(Collection<? extends T> values, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        for (T value : values) {
+            checkNotNull(value);
+        }
+        long nanos = unit.toNanos(timeout);
+        this.lock.lockInterruptibly();
+        try {
+            int added = 0;
+            int addedSinceSignal = 0;
+            for (T value : values) {
+                while (this.count == this.capacity) {
+                    signalAfterAdding(addedSinceSignal);
+                    addedSinceSignal = 0;
+                    if (nanos <= 0) {
+                        return added;
+                    }
+                    try {
+                        nanos = this.notFull.awaitNanos(nanos);
+                    } catch (InterruptedException e) {
+                        if (added == 0) {
+                            throw e;
+                        }
+                        Thread.currentThread().interrupt();
+                        return added;
+                    }
+                }
+                this.list.addLast(value);
+                this.count++;
+                added++;
+                addedSinceSignal++;
+            }
+            signalAfterAdding(addedSinceSignal);
+            return added;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the first element if there is one.
+     *
+     * @return the first element, or null if this deque is empty
+     */
+    public T pollFirst() {
+        this.lock.lock();
+        try {
+            return this.count == 0 ? null : unlinkFirst();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the last element if there is one.
+     *
+     * @return the last element, or null if this deque is empty
+     */
+    public T pollLast() {
+        this.lock.lock();
+        try {
+            return this.count == 0 ? null : unlinkLast();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the first element, waiting up to timeout for one.
+     *
+     * @param timeout how long to wait at most
+     * @param unit the unit of timeout
+     * @return the first element, or null if the timeout elapsed first
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public T pollFirst(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        this.lock.lockInterruptibly();
+        try {
+            while (this.count == 0) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = this.notEmpty.awaitNanos(nanos);
+            }
+            return unlinkFirst();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the last element, waiting up to timeout for one.
+     *
+     * @param timeout how long to wait at most
+     * @param unit the unit of timeout
+     * @return the last element, or null if the timeout elapsed first
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public T pollLast(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        this.lock.lockInterruptibly();
+        try {
+            while (this.count == 0) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = this.notEmpty.awaitNanos(nanos);
+            }
+            return unlinkLast();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the first element, waiting as long as necessary for one.
+     *
+     * @return the first element
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public T takeFirst() throws InterruptedException {
+        this.lock.lockInterruptibly();
+        try {
+            while (this.count == 0) {
+                this.notEmpty.await();
+            }
+            return unlinkFirst();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the last element, waiting as long as necessary for one.
+     *
+     * @return the last element
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public T takeLast() throws InterruptedException {
+        this.lock.lockInterruptibly();
+        try {
+            while (this.count == 0) {
+                this.notEmpty.await();
+            }
+            return unlinkLast();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Removes up to maxElements elements from the front and adds them to
+     * target, taking the lock only once.
+     *
+     * @param target receives the removed elements in order; must not be
+     *  shared with other threads while this method runs
+     * @param maxElements the maximum number of elements to move
+     * @return the number of elements moved
+     */
+    public int drainTo(Collection<? super T> target, int maxElements) {
+        this.lock.lock();
+        try {
+            int moved = 0;
+            while (moved < maxElements && this.count > 0) {
+                target.add(this.list.removeFirst());
+                this.count--;
+                moved++;
+            }
+            if (moved == 1) {
+                this.notFull.signal();
+            } else if (moved > 1) {
+                this.notFull.signalAll();
+            }
+            return moved;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Removes all elements and adds them to target.
+     *
+     * @param target receives the removed elements in order
+     * @return the number of elements moved
+     */
+    public int drainTo(Collection<? super T> target) {
+        return drainTo(target, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return the first element, or null if this deque is empty
+     */
+    public T peekFirst() {
+        this.lock.lock();
+        try {
+            return this.count == 0 ? null : this.list.getFirst();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * @return the last element, or null if this deque is empty
+     */
+    public T peekLast() {
+        this.lock.lock();
+        try {
+            return this.count == 0 ? null : this.list.getLast();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of elements in this deque
+     */
+    public int size() {
+        this.lock.lock();
+        try {
+            return this.count;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of elements that can still be added without
+     *  blocking
+     */
+    public int remainingCapacity() {
+        this.lock.lock();
+        try {
+            return this.capacity - this.count;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * @return a String representation of this deque
+     */
+    @Override
+    public String toString() {
+        this.lock.lock();
+        try {
+            return this.list.toString();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /*
+     * The following helpers must be called while holding the lock.
+     */
+
+    private boolean linkFirst(T value) {
+        if (this.count == this.capacity) {
+            return false;
+        }
+        this.list.addFirst(value);
+        this.count++;
+        this.notEmpty.signal();
+        return true;
+    }
+
+    private boolean linkLast(T value) {
+        if (this.count == this.capacity) {
+            return false;
+        }
+        this.list.addLast(value);
+        this.count++;
+        this.notEmpty.signal();
+        return true;
+    }
+
+    private T unlinkFirst() {
+        T result = this.list.removeFirst();
+        this.count--;
+        this.notFull.signal();
+        return result;
+    }
+
+    private T unlinkLast() {
+        T result = this.list.removeLast();
+        this.count--;
+        this.notFull.signal();
+        return result;
+    }
+
+    private void signalAfterAdding(int added) {
+        if (added == 1) {
+            this.notEmpty.signal();
+        } else if (added > 1) {
+            this.notEmpty.signalAll();
+        }
+    }
+
+    private static void checkNotNull(Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null elements are not supported");
+        }
+    }
+}
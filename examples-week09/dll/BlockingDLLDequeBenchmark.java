@@ -0,0 +1,190 @@
+package dll;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs many producer and consumer tasks against a BlockingDLLDeque and,
+ * for comparison, against java.util.concurrent.LinkedBlockingDeque. On a
+ * JDK with virtual threads (21+) every task gets its own virtual thread;
+ * on older JDKs the tasks run on platform threads. Usage:
+ * <pre>
+ * java dll.BlockingDLLDequeBenchmark [producers] [consumers] [itemsPerProducer] [capacity] [batch]
+ * </pre>
+ * With batch > 1 the tasks use offerAll/drainTo instead of single
+ * putLast/takeFirst calls. LinkedBlockingDeque has no blocking bulk insert,
+ * so its producers keep using putLast, but its consumers use drainTo too.
+ *
+ * @author agent
+ */
+public class BlockingDLLDequeBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int producers = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int consumers = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int itemsPerProducer = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+        int capacity = args.length > 3 ? Integer.parseInt(args[3]) : 1024;
+        int batch = args.length > 4 ? Integer.parseInt(args[4]) : 1;
+
+        System.out.println("threads: " + (isVirtual() ? "virtual" : "platform")
+                + ", " + producers + " producers, " + consumers + " consumers, "
+                + itemsPerProducer + " items each, capacity " + capacity
+                + ", batch " + batch);
+        for (int round = 0; round < 3; round++) { // the first rounds warm up
+            long dll = runDLL(producers, consumers, itemsPerProducer, capacity, batch);
+            long jdk = runJDK(producers, consumers, itemsPerProducer, capacity, batch);
+            long items = (long) producers * itemsPerProducer;
+            System.out.printf("round %d: BlockingDLLDeque %8.0f items/ms, LinkedBlockingDeque %8.0f items/ms%n",
+                    round, items / (dll / 1e6), items / (jdk / 1e6));
+        }
+    }
+
+    /**
+     * @return the elapsed time in nanoseconds
+     */
+    private static long runDLL(int producers, int consumers, int itemsPerProducer,
+            int capacity, int batch) {
+        BlockingDLLDeque<Integer> deque = new BlockingDLLDeque<>(capacity);
+        long total = (long) producers * itemsPerProducer;
+        LongAdder consumed = new LongAdder();
+        long start = System.nanoTime();
+        try (Pool pool = new Pool()) {
+            for (int p = 0; p < producers; p++) {
+                pool.submit(() -> {
+                    List<Integer> chunk = new ArrayList<>(batch);
+                    for (int i = 0; i < itemsPerProducer; i++) {
+                        if (batch == 1) {
+                            deque.putLast(i);
+                            continue;
+                        }
+                        chunk.add(i);
+                        if (chunk.size() == batch || i == itemsPerProducer - 1) {
+                            int done = 0;
+                            while (done < chunk.size()) {
+                                done += deque.offerAll(chunk.subList(done, chunk.size()),
+                                        1, TimeUnit.SECONDS);
+                            }
+                            chunk.clear();
+                        }
+                    }
+                    return null;
+                });
+            }
+            for (int c = 0; c < consumers; c++) {
+                pool.submit(() -> {
+                    List<Integer> sink = new ArrayList<>(batch);
+                    while (consumed.sum() < total) {
+                        if (batch == 1) {
+                            if (deque.pollFirst(1, TimeUnit.MILLISECONDS) != null) {
+                                consumed.increment();
+                            }
+                        } else {
+                            Integer first = deque.pollFirst(1, TimeUnit.MILLISECONDS);
+                            if (first != null) {
+                                sink.clear();
+                                consumed.add(1 + deque.drainTo(sink, batch - 1));
+                            }
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * @return the elapsed time in nanoseconds
+     */
+    private static long runJDK(int producers, int consumers, int itemsPerProducer,
+            int capacity, int batch) {
+        LinkedBlockingDeque<Integer> deque = new LinkedBlockingDeque<>(capacity);
+        long total = (long) producers * itemsPerProducer;
+        LongAdder consumed = new LongAdder();
+        long start = System.nanoTime();
+        try (Pool pool = new Pool()) {
+            for (int p = 0; p < producers; p++) {
+                pool.submit(() -> {
+                    for (int i = 0; i < itemsPerProducer; i++) {
+                        deque.putLast(i);
+                    }
+                    return null;
+                });
+            }
+            for (int c = 0; c < consumers; c++) {
+                pool.submit(() -> {
+                    List<Integer> sink = new ArrayList<>(batch);
+                    while (consumed.sum() < total) {
+                        if (batch == 1) {
+                            if (deque.pollFirst(1, TimeUnit.MILLISECONDS) != null) {
+                                consumed.increment();
+                            }
+                        } else {
+                            Integer first = deque.pollFirst(1, TimeUnit.MILLISECONDS);
+                            if (first != null) {
+                                sink.clear();
+                                consumed.add(1 + deque.drainTo(sink, batch - 1));
+                            }
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * @return whether this JDK offers virtual threads
+     */
+    private static boolean isVirtual() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * One thread per task, virtual if possible; close() waits for all tasks.
+     * If the waiting thread is interrupted, close() cancels the remaining
+     * tasks and restores the interrupt flag instead of throwing.
+     */
+    private static class Pool implements AutoCloseable {
+        private final ExecutorService executor;
+
+        Pool() {
+            ExecutorService result;
+            try {
+                // looked up reflectively so that this class compiles on JDK 17
+                result = (ExecutorService) Executors.class
+                        .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                result = Executors.newCachedThreadPool();
+            }
+            this.executor = result;
+        }
+
+        void submit(Callable<Void> task) {
+            this.executor.submit(task);
+        }
+
+        @Override
+        public void close() {
+            this.executor.shutdown();
+            try {
+                this.executor.awaitTermination(1, TimeUnit.HOURS);
+            } catch (InterruptedException e) {
+                this.executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package dll;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Converts the data objects of a list to and from bytes, e.g., for
+ * DurableDoublyLinkedList.
+ *
+ * @param <T> The type of the data objects to convert
+ * @author agent
+ */
+public interface Codec<T> {
+
+    /**
+     * Writes value to out such that read can reconstruct it.
+     *
+     * @param value the value to write
+     * @param out where to write value
+     * @throws IOException if out cannot be written
+     */
+    void write(T value, DataOutput out) throws IOException;
+
+    /**
+     * Reads a value written by write.
+     *
+     * @param in where to read the value from
+     * @return the value read
+     * @throws IOException if in cannot be read
+     */
+    T read(DataInput in) throws IOException;
+
+    /**
+     * @return a Codec for non-null Integers
+     */
+    static Codec<Integer> integers() {
+        return new Codec<Integer>() {
+            @Override
+            public void write(Integer value, DataOutput out) throws IOException {
+                out.writeInt(value);
+            }
+
+            @Override
+            public Integer read(DataInput in) throws IOException {
+                return in.readInt();
+            }
+        };
+    }
+
+    /**
+     * @return a Codec for non-null Strings
+     */
+    static Codec<String> strings() {
+        return new Codec<String>() {
+            @Override
+            public void write(String value, DataOutput out) throws IOException {
+                out.writeUTF(value);
+            }
+
+            @Override
+            public String read(DataInput in) throws IOException {
+                return in.readUTF();
+            }
+        };
+    }
+}
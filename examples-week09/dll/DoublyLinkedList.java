@@ -1,12 +1,18 @@
 package dll;
 
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
 /**
  * Implementation of a generic doubly linked list in Java.
  * 
  * @param <T> The type of the data objects to store
  * @author Carsten Fuhs
  */
-public class DoublyLinkedList<T> {
+public class DoublyLinkedList<T> implements Iterable<T> {
     // the first element of this list; null iff this list is empty
     private DLLElement<T> firstElement;
 
@@ -206,6 +212,178 @@ public class DoublyLinkedList<T> {
         target.getPrevious().setNext(target.getNext());
     }
 
+    /**
+     * Adds <code>value</code> before the first element of this list in O(1).
+     *
+     * @param value to be added
+     */
+    public void addFirst(T value) {
+        this.addAtPosition(0, value);
+    }
+
+    /**
+     * Adds <code>value</code> after the last element of this list in O(1),
+     * unlike addAtPosition(size(), value), which walks the list twice.
+     *
+     * @param value to be added
+     */
+    public void addLast(T value) {
+        assert this.hasSaneStructure();
+        if (this.isEmpty()) {
+            this.addAtPosition(0, value);
+            return;
+        }
+        DLLElement<T> newElem = new DLLElement<T>(value, null, this.lastElement);
+        this.lastElement.setNext(newElem);
+        this.lastElement = newElem;
+    }
+
+    /**
+     * @return the first element of this list
+     * @throws NoSuchElementException if this list is empty
+     */
+    public T getFirst() {
+        if (this.isEmpty()) {
+            throw new NoSuchElementException("List is empty");
+        }
+        return this.firstElement.getData();
+    }
+
+    /**
+     * @return the last element of this list
+     * @throws NoSuchElementException if this list is empty
+     */
+    public T getLast() {
+        if (this.isEmpty()) {
+            throw new NoSuchElementException("List is empty");
+        }
+        return this.lastElement.getData();
+    }
+
+    /**
+     * Deletes the first element of this list in O(1).
+     *
+     * @return the deleted element
+     * @throws NoSuchElementException if this list is empty
+     */
+    public T removeFirst() {
+        T result = this.getFirst();
+        this.delete(0);
+        return result;
+    }
+
+    /**
+     * Deletes the last element of this list in O(1), unlike
+     * delete(size() - 1), which walks the list twice.
+     *
+     * @return the deleted element
+     * @throws NoSuchElementException if this list is empty
+     */
+    public T removeLast() {
+        T result = this.getLast();
+        if (this.firstElement == this.lastElement) { // just 1 element in list
+            this.firstElement = null;
+            this.lastElement = null;
+        } else {
+            this.lastElement.getPrevious().setNext(null);
+            this.lastElement = this.lastElement.getPrevious();
+        }
+        return result;
+    }
+
+    /**
+     * Performs action for each element of this list, from first to last,
+     * in O(n) overall (unlike n calls of get, which take O(n^2)).
+     *
+     * @param action to be performed for each element; non-null
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        assert this.hasSaneStructure();
+        for (DLLElement<T> current = this.firstElement;
+             current != null;
+             current = current.getNext()) {
+            action.accept(current.getData());
+        }
+    }
+
+    /**
+     * Returns an iterator over the elements of this list from first to
+     * last. This list must not be modified during the iteration.
+     *
+     * @return an iterator over the elements of this list
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new ElementIterator<>(this.firstElement, true);
+    }
+
+    /**
+     * Returns an iterator over the elements of this list from last to
+     * first, following the previous references. This list must not be
+     * modified during the iteration.
+     *
+     * @return an iterator over the elements of this list in reverse order
+     */
+    public Iterator<T> descendingIterator() {
+        return new ElementIterator<>(this.lastElement, false);
+    }
+
+    /**
+     * Returns a Spliterator over the elements of this list from first to
+     * last, e.g., for StreamSupport.stream(list.spliterator(), true). It
+     * hands out batches of elements to other threads when split.
+     *
+     * @return a Spliterator over the elements of this list
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return Spliterators.spliterator(this.iterator(), this.size(), Spliterator.ORDERED);
+    }
+
+    /**
+     * @return a Spliterator over the elements of this list from last to
+     *  first
+     */
+    public Spliterator<T> descendingSpliterator() {
+        return Spliterators.spliterator(this.descendingIterator(), this.size(),
+                Spliterator.ORDERED);
+    }
+
+    /**
+     * Returns a live view of this list in reverse order. The view does
+     * not copy any elements: changes to this list are visible in the view
+     * and vice versa.
+     *
+     * @return a view of this list in reverse order
+     */
+    public ReversedDLLView<T> reversed() {
+        return new ReversedDLLView<>(this);
+    }
+
+    /**
+     * Retrieves the index-th element from the end of this list by walking
+     * index steps along the previous references from the last element.
+     *
+     * @param index 0 <= index and index < this.size() must hold
+     * @return the element at position this.size() - 1 - index
+     * @throws IllegalArgumentException if index < 0 or index >= this.size()
+     */
+    T getFromEnd(int index) {
+        assert this.hasSaneStructure();
+        if (index < 0) {
+            throw new IllegalArgumentException("Illegal index: " + index);
+        }
+        DLLElement<T> current = this.lastElement;
+        for (int i = 0; i < index && current != null; i++) {
+            current = current.getPrevious();
+        }
+        if (current == null) {
+            throw new IllegalArgumentException("Illegal index: " + index);
+        }
+        return current.getData();
+    }
+
     /**
      * @return a String representation of this DoublyLinkedList
      */
@@ -295,4 +473,34 @@ public class DoublyLinkedList<T> {
         }
         return true;
     }
+
+    /**
+     * Iterator that follows either the next or the previous references.
+     */
+    private static class ElementIterator<T> implements Iterator<T> {
+        private DLLElement<T> nextElement; // null iff the iteration is over
+        private final boolean forward;
+
+        ElementIterator(DLLElement<T> start, boolean forward) {
+            this.nextElement = start;
+            this.forward = forward;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.nextElement != null;
+        }
+
+        @Override
+        public T next() {
+            if (this.nextElement == null) {
+                throw new NoSuchElementException();
+            }
+            T result = this.nextElement.getData();
+            this.nextElement = this.forward
+                    ? this.nextElement.getNext()
+                    : this.nextElement.getPrevious();
+            return result;
+        }
+    }
 }
@@ -0,0 +1,507 @@
+package dll;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * A DoublyLinkedList whose contents survive restarts. Every addAtPosition
+ * and delete is appended to a write-ahead log before it is applied. From
+ * time to time the whole list is written to a compact snapshot, and the
+ * log is started afresh, so that recovery only needs to read the snapshot
+ * and replay the operations logged since.
+ *
+ * The directory contains the file "snapshot" with the list at the start of
+ * generation g and the log "wal-g" with the operations of generation g.
+ * Each log record is framed by its length and a CRC32 checksum; a torn
+ * record at the end of the log (from a crash during a write) is dropped
+ * during recovery.
+ *
+ * The list is fail-stop: once writing the log, forcing it or taking a
+ * snapshot has thrown an IOException, the in-memory list and the files
+ * may disagree, so all later operations that write are rejected with an
+ * IOException until the list is reopened. Whether the operation that
+ * failed survives is decided by recovery, as after a crash. Reads keep
+ * answering from the in-memory list.
+ *
+ * Instances are not thread-safe.
+ *
+ * @param <T> The type of the data objects to store
+ * @author agent
+ */
+public class DurableDoublyLinkedList<T> implements Closeable {
+    private static final int SNAPSHOT_MAGIC = 0x444c4c53; // "DLLS"
+    private static final String SNAPSHOT_FILE = "snapshot";
+    private static final String SNAPSHOT_TMP_FILE = "snapshot.tmp";
+    private static final String WAL_PREFIX = "wal-";
+
+    private static final byte OP_ADD = 1;
+    private static final byte OP_DELETE = 2;
+
+    private final Path directory;
+    private final Codec<T> codec;
+    private final FsyncPolicy fsyncPolicy;
+    private final int groupSize; // records per forced write for GROUP
+    private final int snapshotInterval; // records between snapshots; 0: never
+
+    private final DoublyLinkedList<T> list;
+    private int size; // cached, since DoublyLinkedList.size() is O(n)
+
+    private long generation; // generation of the current log
+    private FileChannel walChannel;
+    private DataOutputStream walOut; // buffered on top of walChannel
+    private int unforcedRecords; // records written since the last force
+    private int recordsSinceSnapshot;
+    private IOException failure; // the first failed write; non-null: fail-stop
+    private boolean closed;
+
+    // reused to encode a single record before framing it
+    private final RecordBuffer recordBytes = new RecordBuffer();
+    private final DataOutputStream recordOut = new DataOutputStream(this.recordBytes);
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * Opens (or creates) a durable list in directory that forces its log
+     * once per 64 operations and snapshots every 1,000,000 operations.
+     *
+     * @param directory where the snapshot and the log are kept
+     * @param codec to convert the elements to and from bytes
+     * @throws IOException if the files cannot be read or written
+     */
+    public DurableDoublyLinkedList(Path directory, Codec<T> codec) throws IOException {
+        this(directory, codec, FsyncPolicy.GROUP, 64, 1_000_000);
+    }
+
+    /**
+     * Opens (or creates) a durable list in directory and recovers its
+     * contents from the snapshot and the log found there.
+     *
+     * @param directory where the snapshot and the log are kept
+     * @param codec to convert the elements to and from bytes
+     * @param fsyncPolicy when to force the log to the device
+     * @param groupSize number of operations per forced write; only used
+     *  for FsyncPolicy.GROUP; must be positive
+     * @param snapshotInterval number of logged operations after which a
+     *  snapshot is taken automatically; 0 to take snapshots only on request
+     * @throws IOException if the files cannot be read or written
+     */
+    public DurableDoublyLinkedList(Path directory, Codec<T> codec, FsyncPolicy fsyncPolicy,
+            int groupSize, int snapshotInterval) throws IOException {
+        if (groupSize <= 0 || snapshotInterval < 0) {
+            throw new IllegalArgumentException("Illegal group size " + groupSize
+                    + " or snapshot interval " + snapshotInterval);
+        }
+        this.directory = directory;
+        this.codec = codec;
+        this.fsyncPolicy = fsyncPolicy;
+        this.groupSize = groupSize;
+        this.snapshotInterval = snapshotInterval;
+        this.list = new DoublyLinkedList<>();
+        this.size = 0;
+        Files.createDirectories(directory);
+        recover();
+    }
+
+    /**
+     * Adds <code>value</code> at position <code>index</code> to this list
+     * and logs the operation.
+     *
+     * @param index we want to add <code>value</code> at this position,
+     *  0 <= index <= this.size() must hold
+     * @param value to be added
+     * @throws IllegalArgumentException if index < 0 or index > this.size()
+     * @throws IOException if the log cannot be written, or if this list
+     *  is closed or has failed before
+     */
+    public void addAtPosition(int index, T value) throws IOException {
+        checkWritable();
+        if (index < 0 || index > this.size) {
+            throw new IllegalArgumentException("Illegal index: " + index);
+        }
+        this.recordBytes.reset();
+        this.recordOut.writeByte(OP_ADD);
+        this.recordOut.writeInt(index);
+        this.codec.write(value, this.recordOut);
+        try {
+            appendRecord();
+            applyAdd(index, value);
+            afterRecord();
+        } catch (IOException e) {
+            this.failure = e;
+            throw e;
+        }
+    }
+
+    /**
+     * Deletes the index-th element from this list and logs the operation.
+     *
+     * @param index the position at which we want to delete the stored
+     *  data from the list; 0 <= index and index < this.size() must hold
+     * @throws IllegalArgumentException if index < 0 or index >= this.size()
+     * @throws IOException if the log cannot be written, or if this list
+     *  is closed or has failed before
+     */
+    public void delete(int index) throws IOException {
+        checkWritable();
+        if (index < 0 || index >= this.size) {
+            throw new IllegalArgumentException("Illegal index: " + index);
+        }
+        this.recordBytes.reset();
+        this.recordOut.writeByte(OP_DELETE);
+        this.recordOut.writeInt(index);
+        try {
+            appendRecord();
+            applyDelete(index);
+            afterRecord();
+        } catch (IOException e) {
+            this.failure = e;
+            throw e;
+        }
+    }
+
+    /**
+     * Retrieves the index-th element from this list.
+     *
+     * @param index 0 <= index and index < this.size() must hold
+     * @return the element at position index in this list
+     * @throws IllegalArgumentException if index < 0 or index >= this.size()
+     */
+    public T get(int index) {
+        return this.list.get(index);
+    }
+
+    /**
+     * @return the number of elements in this list; O(1)
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return true if this list is empty; false otherwise
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Forces all operations so far to the storage device, regardless of
+     * the FsyncPolicy.
+     *
+     * @throws IOException if the log cannot be written, or if this list
+     *  is closed or has failed before
+     */
+    public void sync() throws IOException {
+        checkWritable();
+        try {
+            forceLog();
+        } catch (IOException e) {
+            this.failure = e;
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the whole list to a new snapshot and starts a new, empty log.
+     * Recovery afterwards reads the snapshot only.
+     *
+     * @throws IOException if the files cannot be written, or if this list
+     *  is closed or has failed before
+     */
+    public void snapshot() throws IOException {
+        checkWritable();
+        try {
+            writeSnapshot();
+        } catch (IOException e) {
+            this.failure = e;
+            throw e;
+        }
+    }
+
+    /**
+     * Forces all operations to the device and closes the log. Closing a
+     * closed list has no effect. If this list has failed, the log is
+     * closed without writing anything that is still buffered, just as if
+     * the process had crashed.
+     *
+     * @throws IOException if the log cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        try {
+            if (this.failure == null) {
+                forceLog();
+            }
+        } catch (IOException e) {
+            this.failure = e;
+            throw e;
+        } finally {
+            // not walOut.close(), which would flush after a failure
+            this.walChannel.close();
+        }
+    }
+
+    /**
+     * @return a String representation of this list
+     */
+    @Override
+    public String toString() {
+        return this.list.toString();
+    }
+
+    /**
+     * @throws IOException if this list is closed or has failed before
+     */
+    private void checkWritable() throws IOException {
+        if (this.closed) {
+            throw new IOException("List is closed!");
+        }
+        if (this.failure != null) {
+            throw new IOException("List has failed before; reopen it to recover!", this.failure);
+        }
+    }
+
+    private void forceLog() throws IOException {
+        this.walOut.flush();
+        this.walChannel.force(false);
+        this.unforcedRecords = 0;
+    }
+
+    private void writeSnapshot() throws IOException {
+        long newGeneration = this.generation + 1;
+        Path tmp = this.directory.resolve(SNAPSHOT_TMP_FILE);
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(newGeneration);
+            out.writeInt(this.size);
+            for (T value : this.list) {
+                this.codec.write(value, out);
+            }
+            out.flush();
+            channel.force(true);
+        }
+        // from here on, recovery uses the new snapshot and ignores the
+        // old log, even if we crash before the new log exists
+        Files.move(tmp, this.directory.resolve(SNAPSHOT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory();
+
+        this.walOut.close();
+        Files.deleteIfExists(walFile(this.generation));
+        this.generation = newGeneration;
+        openLog(0);
+        this.recordsSinceSnapshot = 0;
+    }
+
+    /**
+     * Frames the record in recordBytes and writes it to the log buffer;
+     * forces the log if the FsyncPolicy requires it.
+     */
+    private void appendRecord() throws IOException {
+        this.crc.reset();
+        this.crc.update(this.recordBytes.array(), 0, this.recordBytes.size());
+        this.walOut.writeInt(this.recordBytes.size());
+        this.walOut.writeInt((int) this.crc.getValue());
+        this.walOut.write(this.recordBytes.array(), 0, this.recordBytes.size());
+        this.unforcedRecords++;
+        switch (this.fsyncPolicy) {
+        case ALWAYS:
+            forceLog();
+            break;
+        case GROUP:
+            if (this.unforcedRecords >= this.groupSize) {
+                forceLog();
+            }
+            break;
+        case NEVER:
+            break;
+        default:
+            throw new UnsupportedOperationException("Unknown policy " + this.fsyncPolicy + "!");
+        }
+    }
+
+    /**
+     * Takes a snapshot if snapshotInterval records have been logged.
+     */
+    private void afterRecord() throws IOException {
+        this.recordsSinceSnapshot++;
+        if (this.snapshotInterval > 0 && this.recordsSinceSnapshot >= this.snapshotInterval) {
+            writeSnapshot();
+        }
+    }
+
+    private void applyAdd(int index, T value) {
+        // the ends are O(1); addAtPosition(size, ...) would walk the list
+        if (index == this.size) {
+            this.list.addLast(value);
+        } else if (index == 0) {
+            this.list.addFirst(value);
+        } else {
+            this.list.addAtPosition(index, value);
+        }
+        this.size++;
+    }
+
+    private void applyDelete(int index) {
+        if (index == this.size - 1) {
+            this.list.removeLast();
+        } else if (index == 0) {
+            this.list.removeFirst();
+        } else {
+            this.list.delete(index);
+        }
+        this.size--;
+    }
+
+    /**
+     * Loads the snapshot, replays the log of its generation and opens the
+     * log for appending. Logs of other generations are left over from a
+     * crash during snapshot() and are deleted.
+     */
+    private void recover() throws IOException {
+        this.generation = 0;
+        Path snapshotFile = this.directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshotFile)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    Files.newInputStream(snapshotFile), 1 << 16))) {
+                if (in.readInt() != SNAPSHOT_MAGIC) {
+                    throw new IOException("Not a snapshot: " + snapshotFile);
+                }
+                this.generation = in.readLong();
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    this.list.addLast(this.codec.read(in));
+                }
+                this.size = count;
+            }
+        }
+        long validLength = 0;
+        Path wal = walFile(this.generation);
+        if (Files.exists(wal)) {
+            try (InputStream raw = Files.newInputStream(wal)) {
+                validLength = replay(new DataInputStream(new BufferedInputStream(raw, 1 << 16)),
+                        Files.size(wal));
+            }
+        }
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(this.directory, WAL_PREFIX + "*")) {
+            for (Path file : stale) {
+                if (!file.equals(wal)) {
+                    Files.delete(file);
+                }
+            }
+        }
+        openLog(validLength);
+    }
+
+    /**
+     * Applies all complete records in the log.
+     *
+     * @param in the log, positioned at its start
+     * @param logLength the length of the log in bytes
+     * @return the length of the prefix of the log with complete records
+     */
+    private long replay(DataInputStream in, long logLength) throws IOException {
+        long validLength = 0;
+        byte[] buffer = new byte[64];
+        while (true) {
+            int length;
+            int checksum;
+            try {
+                length = in.readInt();
+                checksum = in.readInt();
+                // garbage after a torn write; a length beyond the end of
+                // the log must not make us allocate a huge buffer
+                if (length <= 0 || length > logLength - validLength - 8) {
+                    return validLength;
+                }
+                if (buffer.length < length) {
+                    buffer = new byte[Math.max(length, 2 * buffer.length)];
+                }
+                in.readFully(buffer, 0, length);
+            } catch (EOFException e) {
+                return validLength; // end of log, possibly a torn record
+            }
+            this.crc.reset();
+            this.crc.update(buffer, 0, length);
+            if ((int) this.crc.getValue() != checksum) {
+                return validLength;
+            }
+            DataInputStream record = new DataInputStream(
+                    new ByteArrayInputStream(buffer, 0, length));
+            byte op = record.readByte();
+            int index = record.readInt();
+            if (op == OP_ADD) {
+                applyAdd(index, this.codec.read(record));
+            } else if (op == OP_DELETE) {
+                applyDelete(index);
+            } else {
+                throw new IOException("Unknown log record type " + op);
+            }
+            this.recordsSinceSnapshot++;
+            validLength += 8 + length;
+        }
+    }
+
+    /**
+     * Opens the log of the current generation for appending after its
+     * first validLength bytes, dropping anything after them.
+     */
+    private void openLog(long validLength) throws IOException {
+        this.walChannel = FileChannel.open(walFile(this.generation),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        this.walChannel.truncate(validLength);
+        this.walChannel.position(validLength);
+        this.walOut = new DataOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(this.walChannel), 1 << 16));
+        this.unforcedRecords = 0;
+    }
+
+    private Path walFile(long generation) {
+        return this.directory.resolve(WAL_PREFIX + generation);
+    }
+
+    /**
+     * Makes the rename of the snapshot durable where the platform allows
+     * forcing a directory.
+     */
+    private void forceDirectory() {
+        try (FileChannel dir = FileChannel.open(this.directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // not supported on all platforms (e.g., Windows); the rename
+            // is still atomic, only its durability is up to the OS
+        }
+    }
+
+    /**
+     * A ByteArrayOutputStream that gives access to its buffer, so that a
+     * record can be checksummed and copied without toByteArray().
+     */
+    private static class RecordBuffer extends ByteArrayOutputStream {
+        byte[] array() {
+            return this.buf;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package dll;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Measures DurableDoublyLinkedList: operations per second for each
+ * FsyncPolicy, and recovery time for a list of n elements, once from the
+ * log alone and once from a snapshot. The default n of 10,000,000 needs a
+ * heap of about 1 GB. Usage:
+ * <pre>
+ * java -Xmx2g dll.DurableListBenchmark [opsPerPolicy] [recoveryEntries]
+ * </pre>
+ *
+ * @author agent
+ */
+public class DurableListBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int ops = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int entries = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+
+        for (FsyncPolicy policy : FsyncPolicy.values()) {
+            Path dir = Files.createTempDirectory("dll-bench");
+            try {
+                Random random = new Random(42);
+                long start = System.nanoTime();
+                try (DurableDoublyLinkedList<Integer> list = new DurableDoublyLinkedList<>(
+                        dir, Codec.integers(), policy, 64, 0)) {
+                    for (int i = 0; i < ops; i++) {
+                        // mostly appends, some deletes at the front
+                        if (list.size() > 0 && random.nextInt(4) == 0) {
+                            list.delete(0);
+                        } else {
+                            list.addAtPosition(list.size(), i);
+                        }
+                    }
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("%-6s (group size 64): %10.0f ops/s%n", policy, ops / seconds);
+            } finally {
+                deleteRecursively(dir);
+            }
+        }
+
+        Path dir = Files.createTempDirectory("dll-bench");
+        try {
+            try (DurableDoublyLinkedList<Integer> list = new DurableDoublyLinkedList<>(
+                    dir, Codec.integers(), FsyncPolicy.NEVER, 64, 0)) {
+                for (int i = 0; i < entries; i++) {
+                    list.addAtPosition(i, i);
+                }
+            }
+            long start = System.nanoTime();
+            try (DurableDoublyLinkedList<Integer> list = new DurableDoublyLinkedList<>(
+                    dir, Codec.integers(), FsyncPolicy.NEVER, 64, 0)) {
+                System.out.printf("recovery of %d entries from the log:      %8.0f ms%n",
+                        list.size(), (System.nanoTime() - start) / 1e6);
+                list.snapshot();
+            }
+            start = System.nanoTime();
+            try (DurableDoublyLinkedList<Integer> list = new DurableDoublyLinkedList<>(
+                    dir, Codec.integers(), FsyncPolicy.NEVER, 64, 0)) {
+                System.out.printf("recovery of %d entries from the snapshot: %8.0f ms%n",
+                        list.size(), (System.nanoTime() - start) / 1e6);
+            }
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+}
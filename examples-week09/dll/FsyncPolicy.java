@@ -0,0 +1,22 @@
+package dll;
+
+/**
+ * Instances of this enum say when a DurableDoublyLinkedList forces its
+ * write-ahead log to the storage device.
+ *
+ * @author agent
+ */
+public enum FsyncPolicy {
+    /** after every operation; nothing is lost on a crash */
+    ALWAYS,
+    /**
+     * once per group of operations (group commit); a crash loses at most
+     * the operations of the current group
+     */
+    GROUP,
+    /**
+     * only on sync(), snapshot() and close(); the operating system decides
+     * when the log reaches the device
+     */
+    NEVER;
+}
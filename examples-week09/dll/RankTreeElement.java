@@ -0,0 +1,112 @@
+package dll;
+
+/**
+ * Helper class for RankTreeList: a node of a treap that additionally
+ * stores the number of nodes in its subtree.
+ *
+ * @param <T> The type of the data to store
+ * @author agent
+ */
+public class RankTreeElement<T> {
+    private RankTreeElement<T> left; // elements before this one
+    private RankTreeElement<T> right; // elements after this one
+    private final int priority; // heap priority, larger values nearer the root
+    private int size; // number of elements in the subtree rooted here
+    private T data; // the encapsulated data
+
+    /**
+     * Constructs a new RankTreeElement which encapsulates data, has
+     * the given priority and no subtrees.
+     *
+     * @param data to be stored
+     * @param priority the (random) heap priority of the new element
+     */
+    public RankTreeElement(T data, int priority) {
+        this.data = data;
+        this.priority = priority;
+        this.size = 1;
+    }
+
+    /**
+     * @return the left subtree
+     */
+    public RankTreeElement<T> getLeft() {
+        return left;
+    }
+
+    /**
+     * Sets the left subtree; the caller must call update() afterwards.
+     *
+     * @param left the left subtree to set
+     */
+    public void setLeft(RankTreeElement<T> left) {
+        this.left = left;
+    }
+
+    /**
+     * @return the right subtree
+     */
+    public RankTreeElement<T> getRight() {
+        return right;
+    }
+
+    /**
+     * Sets the right subtree; the caller must call update() afterwards.
+     *
+     * @param right the right subtree to set
+     */
+    public void setRight(RankTreeElement<T> right) {
+        this.right = right;
+    }
+
+    /**
+     * @return the heap priority
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * @return the number of elements in the subtree rooted here
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Recomputes the subtree size from the sizes of the subtrees.
+     */
+    public void update() {
+        this.size = 1 + sizeOf(this.left) + sizeOf(this.right);
+    }
+
+    /**
+     * @param elem a subtree; may be null
+     * @return the number of elements in elem
+     */
+    public static <T> int sizeOf(RankTreeElement<T> elem) {
+        return elem == null ? 0 : elem.size;
+    }
+
+    /**
+     * @return the data
+     */
+    public T getData() {
+        return data;
+    }
+
+    /**
+     * @param data the data to set
+     */
+    public void setData(T data) {
+        this.data = data;
+    }
+
+    /**
+     * @return a String representation of just the encapsulated object
+     */
+    @Override
+    public String toString() {
+        return this.data.toString();
+    }
+}
@@ -0,0 +1,323 @@
+package dll;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Alternative implementation of a generic list in Java with the same
+ * operations as DoublyLinkedList. The elements are stored in a treap
+ * (a binary search tree by position that is also a heap by random
+ * priorities) where each node knows the size of its subtree. Thus
+ * addAtPosition, get and delete take O(log n) expected time instead of
+ * the O(n) needed to walk along a DoublyLinkedList, and size is O(1).
+ *
+ * @param <T> The type of the data objects to store
+ * @author agent
+ */
+public class RankTreeList<T> implements Iterable<T> {
+    // the root of the treap; null iff this list is empty
+    private RankTreeElement<T> root;
+
+    // source of the heap priorities of new elements
+    private final Random random;
+
+    /**
+     * Constructs an empty RankTreeList.
+     */
+    public RankTreeList() {
+        this(new Random());
+    }
+
+    /**
+     * Constructs an empty RankTreeList that draws the priorities of its
+     * elements from random; useful for reproducible tree shapes.
+     *
+     * @param random the source of priorities; non-null
+     */
+    public RankTreeList(Random random) {
+        this.root = null;
+        this.random = random;
+    }
+
+    /**
+     * Adds <code>value</code> at position <code>index</code> to this list.
+     *
+     * @param index we want to add <code>value</code> at this position,
+     *  0 <= index <= this.size() must hold
+     * @param value to be added
+     * @throws IllegalArgumentException if index < 0 or index > this.size()
+     */
+    public void addAtPosition(int index, T value) {
+        assert this.hasSaneStructure();
+        if (index < 0 || index > this.size()) {
+            throw new IllegalArgumentException("Illegal index: " + index);
+        }
+        RankTreeElement<T> newElem = new RankTreeElement<>(value, this.random.nextInt());
+        this.root = insert(this.root, index, newElem);
+    }
+
+    /**
+     * Recursive helper method to insert newElem into a subtree. The
+     * recursion depth is the height of the treap, i.e., O(log n) expected.
+     *
+     * @param node the root of the subtree; may be null
+     * @param index the position within the subtree where newElem goes;
+     *  0 <= index <= size of the subtree
+     * @param newElem the element to insert
+     * @return the new root of the subtree
+     */
+    private static <T> RankTreeElement<T> insert(RankTreeElement<T> node, int index,
+            RankTreeElement<T> newElem) {
+        if (node == null) {
+            return newElem;
+        }
+        int leftSize = RankTreeElement.sizeOf(node.getLeft());
+        if (index <= leftSize) {
+            node.setLeft(insert(node.getLeft(), index, newElem));
+            node.update();
+            if (node.getLeft().getPriority() > node.getPriority()) {
+                return rotateRight(node);
+            }
+        } else {
+            node.setRight(insert(node.getRight(), index - leftSize - 1, newElem));
+            node.update();
+            if (node.getRight().getPriority() > node.getPriority()) {
+                return rotateLeft(node);
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Rotates the left child of node up into node's place.
+     *
+     * @param node has a non-null left child
+     * @return the new root of the subtree
+     */
+    private static <T> RankTreeElement<T> rotateRight(RankTreeElement<T> node) {
+        RankTreeElement<T> newRoot = node.getLeft();
+        node.setLeft(newRoot.getRight());
+        node.update();
+        newRoot.setRight(node);
+        newRoot.update();
+        return newRoot;
+    }
+
+    /**
+     * Rotates the right child of node up into node's place.
+     *
+     * @param node has a non-null right child
+     * @return the new root of the subtree
+     */
+    private static <T> RankTreeElement<T> rotateLeft(RankTreeElement<T> node) {
+        RankTreeElement<T> newRoot = node.getRight();
+        node.setRight(newRoot.getLeft());
+        node.update();
+        newRoot.setLeft(node);
+        newRoot.update();
+        return newRoot;
+    }
+
+    /**
+     * Retrieves the index-th element from this list.
+     *
+     * @param index the position from which we want to retrieve the stored
+     *  data; 0 <= index and index < this.size() must hold
+     * @return the element at position index in this list
+     * @throws IllegalArgumentException if index < 0 or index >= this.size()
+     */
+    public T get(int index) {
+        assert this.hasSaneStructure();
+        if (index < 0 || index >= this.size()) {
+            throw new IllegalArgumentException("Illegal index: " + index);
+        }
+        // iterative descent, using the subtree sizes to pick a direction
+        RankTreeElement<T> current = this.root;
+        while (true) {
+            int leftSize = RankTreeElement.sizeOf(current.getLeft());
+            if (index < leftSize) {
+                current = current.getLeft();
+            } else if (index == leftSize) {
+                return current.getData();
+            } else {
+                index -= leftSize + 1;
+                current = current.getRight();
+            }
+        }
+    }
+
+    /**
+     * @return true if this list is empty; false otherwise
+     */
+    public boolean isEmpty() {
+        return this.root == null;
+    }
+
+    /**
+     * @return the number of elements in this list
+     */
+    public int size() {
+        return RankTreeElement.sizeOf(this.root);
+    }
+
+    /**
+     * Deletes the index-th element from this list.
+     *
+     * @param index the position at which we want to delete the stored
+     *  data from the list; 0 <= index and index < this.size() must hold
+     * @throws IllegalArgumentException if index < 0 or index >= this.size()
+     */
+    public void delete(int index) {
+        assert this.hasSaneStructure();
+        if (index < 0 || index >= this.size()) {
+            throw new IllegalArgumentException("Illegal index: " + index);
+        }
+        this.root = delete(this.root, index);
+    }
+
+    /**
+     * Recursive helper method to delete the index-th element of a subtree.
+     *
+     * @param node the root of the subtree; non-null
+     * @param index 0 <= index < size of the subtree must hold
+     * @return the new root of the subtree
+     */
+    private static <T> RankTreeElement<T> delete(RankTreeElement<T> node, int index) {
+        int leftSize = RankTreeElement.sizeOf(node.getLeft());
+        if (index == leftSize) {
+            return merge(node.getLeft(), node.getRight());
+        }
+        if (index < leftSize) {
+            node.setLeft(delete(node.getLeft(), index));
+        } else {
+            node.setRight(delete(node.getRight(), index - leftSize - 1));
+        }
+        node.update();
+        return node;
+    }
+
+    /**
+     * Merges two treaps where all elements of left come before all
+     * elements of right.
+     *
+     * @param left the first treap; may be null
+     * @param right the second treap; may be null
+     * @return the root of the merged treap
+     */
+    private static <T> RankTreeElement<T> merge(RankTreeElement<T> left,
+            RankTreeElement<T> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.getPriority() > right.getPriority()) {
+            left.setRight(merge(left.getRight(), right));
+            left.update();
+            return left;
+        }
+        right.setLeft(merge(left, right.getLeft()));
+        right.update();
+        return right;
+    }
+
+    /**
+     * Returns an in-order iterator over the elements of this list. Each
+     * element is pushed onto and popped from the iterator's stack once, so
+     * a full iteration takes O(n) time, i.e., O(1) amortized per element.
+     * The list must not be modified during the iteration.
+     *
+     * @return an iterator over the elements of this list, front to back
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            // the path of elements whose left subtree is being visited
+            private final Deque<RankTreeElement<T>> stack = new ArrayDeque<>();
+
+            {
+                pushLeftSpine(RankTreeList.this.root);
+            }
+
+            private void pushLeftSpine(RankTreeElement<T> node) {
+                for (; node != null; node = node.getLeft()) {
+                    this.stack.push(node);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !this.stack.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                if (this.stack.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                RankTreeElement<T> current = this.stack.pop();
+                pushLeftSpine(current.getRight());
+                return current.getData();
+            }
+        };
+    }
+
+    /**
+     * @return a String representation of this RankTreeList
+     */
+    @Override
+    public String toString() {
+        assert this.hasSaneStructure();
+        StringBuilder result = new StringBuilder();
+        result.append('[');
+        boolean first = true;
+        for (T data : this) {
+            if (first) { // use commas only from the second iteration onwards
+                first = false;
+            } else {
+                result.append(',');
+            }
+            result.append(data);
+        }
+        result.append(']');
+        return result.toString();
+    }
+
+    /**
+     * Sanity check to check the "class invariants" of a RankTreeList:
+     * every stored subtree size is correct and the priorities form a heap.
+     *
+     * @return whether the treap structure is still intact
+     */
+    private boolean hasSaneStructure() {
+        return isSane(this.root);
+    }
+
+    /**
+     * Recursive helper method for hasSaneStructure.
+     *
+     * @param node the root of the subtree to check; may be null
+     * @return whether the subtree rooted in node is intact
+     */
+    private static <T> boolean isSane(RankTreeElement<T> node) {
+        if (node == null) {
+            return true;
+        }
+        RankTreeElement<T> left = node.getLeft();
+        RankTreeElement<T> right = node.getRight();
+        if (node.getSize() != 1 + RankTreeElement.sizeOf(left) + RankTreeElement.sizeOf(right)) {
+            return false;
+        }
+        if (left != null && left.getPriority() > node.getPriority()) {
+            return false;
+        }
+        if (right != null && right.getPriority() > node.getPriority()) {
+            return false;
+        }
+        return isSane(left) && isSane(right);
+    }
+}
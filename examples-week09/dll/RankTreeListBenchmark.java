@@ -0,0 +1,96 @@
+package dll;
+
+import java.util.Random;
+
+/**
+ * Compares DoublyLinkedList and RankTreeList on a workload of inserts,
+ * lookups and deletes at random positions. This is a simple wall-clock
+ * benchmark; run it with a warmed-up JVM and several sizes, e.g.
+ * <pre>
+ * java dll.RankTreeListBenchmark 1000 10000 50000
+ * </pre>
+ *
+ * @author agent
+ */
+public class RankTreeListBenchmark {
+
+    private static final long SEED = 42L;
+
+    public static void main(String[] args) {
+        int[] sizes = { 1000, 10000, 50000 };
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+        // one untimed round so that both implementations are JIT-compiled
+        runDLL(sizes[0]);
+        runRankTree(sizes[0]);
+
+        for (int n : sizes) {
+            long dllNanos = runDLL(n);
+            long treeNanos = runRankTree(n);
+            System.out.printf("n = %8d: DoublyLinkedList %10.2f ms, RankTreeList %10.2f ms%n",
+                    n, dllNanos / 1e6, treeNanos / 1e6);
+        }
+    }
+
+    /**
+     * Inserts n elements at random positions, reads n random positions
+     * and then deletes all elements from random positions.
+     *
+     * @return the elapsed time in nanoseconds
+     */
+    private static long runDLL(int n) {
+        Random random = new Random(SEED);
+        DoublyLinkedList<Integer> list = new DoublyLinkedList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            list.addAtPosition(random.nextInt(i + 1), i);
+        }
+        long checksum = 0;
+        for (int i = 0; i < n; i++) {
+            checksum += list.get(random.nextInt(n));
+        }
+        for (int i = n; i > 0; i--) {
+            list.delete(random.nextInt(i));
+        }
+        long elapsed = System.nanoTime() - start;
+        consume(checksum);
+        return elapsed;
+    }
+
+    /**
+     * Same workload as runDLL, on a RankTreeList.
+     *
+     * @return the elapsed time in nanoseconds
+     */
+    private static long runRankTree(int n) {
+        Random random = new Random(SEED);
+        RankTreeList<Integer> list = new RankTreeList<>(new Random(SEED));
+        long start = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            list.addAtPosition(random.nextInt(i + 1), i);
+        }
+        long checksum = 0;
+        for (int i = 0; i < n; i++) {
+            checksum += list.get(random.nextInt(n));
+        }
+        for (int i = n; i > 0; i--) {
+            list.delete(random.nextInt(i));
+        }
+        long elapsed = System.nanoTime() - start;
+        consume(checksum);
+        return elapsed;
+    }
+
+    /**
+     * Keeps the JIT from eliminating the lookups as dead code.
+     */
+    private static void consume(long value) {
+        if (value == Long.MIN_VALUE) {
+            System.out.println(value);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package dll;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+
+/**
+ * A live view of a DoublyLinkedList in reverse order: position i of the
+ * view is position size() - 1 - i of the underlying list. The view stores
+ * no elements itself; it walks the underlying list from its last element.
+ * Obtain instances via DoublyLinkedList.reversed().
+ *
+ * @param <T> The type of the data objects in the list
+ * @author agent
+ */
+public class ReversedDLLView<T> implements Iterable<T> {
+    private final DoublyLinkedList<T> list; // the underlying list
+
+    /**
+     * Constructs a reversed view of list.
+     *
+     * @param list the underlying list; non-null
+     */
+    ReversedDLLView(DoublyLinkedList<T> list) {
+        this.list = list;
+    }
+
+    /**
+     * Retrieves the index-th element of this view in O(index), i.e.,
+     * without first walking to the end of the underlying list.
+     *
+     * @param index 0 <= index and index < this.size() must hold
+     * @return the element at position index in this view
+     * @throws IllegalArgumentException if index < 0 or index >= this.size()
+     */
+    public T get(int index) {
+        return this.list.getFromEnd(index);
+    }
+
+    /**
+     * Adds value at position index of this view, i.e., at position
+     * size() - index of the underlying list.
+     *
+     * @param index 0 <= index <= this.size() must hold
+     * @param value to be added
+     * @throws IllegalArgumentException if index < 0 or index > this.size()
+     */
+    public void addAtPosition(int index, T value) {
+        int size = this.list.size();
+        if (index < 0 || index > size) {
+            throw new IllegalArgumentException("Illegal index: " + index);
+        }
+        if (index == 0) {
+            this.list.addLast(value);
+        } else {
+            this.list.addAtPosition(size - index, value);
+        }
+    }
+
+    /**
+     * Deletes the index-th element of this view, i.e., the element at
+     * position size() - 1 - index of the underlying list.
+     *
+     * @param index 0 <= index and index < this.size() must hold
+     * @throws IllegalArgumentException if index < 0 or index >= this.size()
+     */
+    public void delete(int index) {
+        int size = this.list.size();
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Illegal index: " + index);
+        }
+        if (index == 0) {
+            this.list.removeLast();
+        } else {
+            this.list.delete(size - 1 - index);
+        }
+    }
+
+    /**
+     * @return the number of elements in this view
+     */
+    public int size() {
+        return this.list.size();
+    }
+
+    /**
+     * @return true if this view is empty; false otherwise
+     */
+    public boolean isEmpty() {
+        return this.list.isEmpty();
+    }
+
+    /**
+     * @return the underlying list, whose order is the reverse of this view
+     */
+    public DoublyLinkedList<T> reversed() {
+        return this.list;
+    }
+
+    /**
+     * @return an iterator from the last to the first element of the
+     *  underlying list
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return this.list.descendingIterator();
+    }
+
+    /**
+     * @return a Spliterator from the last to the first element of the
+     *  underlying list
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return this.list.descendingSpliterator();
+    }
+
+    /**
+     * @return a String representation of this view
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        result.append('[');
+        boolean first = true;
+        for (T data : this) {
+            if (first) { // use commas only from the second iteration onwards
+                first = false;
+            } else {
+                result.append(',');
+            }
+            result.append(data);
+        }
+        result.append(']');
+        return result.toString();
+    }
+}
@@ -0,0 +1,134 @@
+package dll;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * One writer thread modifies a list while several reader threads
+ * repeatedly iterate over it. Compares SnapshotDoublyLinkedList with a
+ * DoublyLinkedList guarded by a read-write lock. Usage:
+ * <pre>
+ * java dll.SnapshotBenchmark [listSize] [readers] [seconds]
+ * </pre>
+ *
+ * @author agent
+ */
+public class SnapshotBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int listSize = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int readers = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        runSnapshot(listSize, readers, 1); // warm-up
+        runLocked(listSize, readers, 1);
+        System.out.println("list size " + listSize + ", " + readers + " readers, "
+                + seconds + " s per run");
+        print("SnapshotDoublyLinkedList", runSnapshot(listSize, readers, seconds), seconds);
+        print("DoublyLinkedList + lock  ", runLocked(listSize, readers, seconds), seconds);
+    }
+
+    private static void print(String name, long[] counts, int seconds) {
+        System.out.printf("%s: writer %10d ops/s, readers %10d full scans/s%n",
+                name, counts[0] / seconds, counts[1] / seconds);
+    }
+
+    /**
+     * @return { writer operations, completed reader scans }
+     */
+    private static long[] runSnapshot(int listSize, int readers, int seconds)
+            throws InterruptedException {
+        SnapshotDoublyLinkedList<Integer> list = new SnapshotDoublyLinkedList<>();
+        for (int i = 0; i < listSize; i++) {
+            list.addAtPosition(i, i);
+        }
+        return run(readers, seconds, random -> {
+            // keep the size constant: one insert and one delete
+            list.addAtPosition(random.nextInt(listSize + 1), random.nextInt());
+            list.delete(random.nextInt(listSize + 1));
+        }, () -> {
+            long sum = 0;
+            try (SnapshotDoublyLinkedList<Integer>.Snapshot snapshot = list.snapshot()) {
+                for (int value : snapshot) {
+                    sum += value;
+                }
+            }
+            return sum;
+        });
+    }
+
+    /**
+     * @return { writer operations, completed reader scans }
+     */
+    private static long[] runLocked(int listSize, int readers, int seconds)
+            throws InterruptedException {
+        DoublyLinkedList<Integer> list = new DoublyLinkedList<>();
+        for (int i = 0; i < listSize; i++) {
+            list.addAtPosition(i, i);
+        }
+        ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        return run(readers, seconds, random -> {
+            lock.writeLock().lock();
+            try {
+                list.addAtPosition(random.nextInt(listSize + 1), random.nextInt());
+                list.delete(random.nextInt(listSize + 1));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }, () -> {
+            lock.readLock().lock();
+            try {
+                long sum = 0;
+                for (int value : list) {
+                    sum += value;
+                }
+                return sum;
+            } finally {
+                lock.readLock().unlock();
+            }
+        });
+    }
+
+    private interface WriterStep {
+        void run(Random random);
+    }
+
+    private interface ReaderScan {
+        long run();
+    }
+
+    private static long[] run(int readers, int seconds, WriterStep writerStep,
+            ReaderScan readerScan) throws InterruptedException {
+        AtomicBoolean stop = new AtomicBoolean();
+        LongAdder writes = new LongAdder();
+        LongAdder scans = new LongAdder();
+        LongAdder sink = new LongAdder();
+        CountDownLatch done = new CountDownLatch(readers + 1);
+
+        Thread writer = new Thread(() -> {
+            Random random = new Random(42);
+            while (!stop.get()) {
+                writerStep.run(random);
+                writes.add(2);
+            }
+            done.countDown();
+        });
+        writer.start();
+        for (int i = 0; i < readers; i++) {
+            new Thread(() -> {
+                while (!stop.get()) {
+                    sink.add(readerScan.run());
+                    scans.increment();
+                }
+                done.countDown();
+            }).start();
+        }
+        Thread.sleep(seconds * 1000L);
+        stop.set(true);
+        done.await();
+        return new long[] { writes.sum(), scans.sum() };
+    }
+}
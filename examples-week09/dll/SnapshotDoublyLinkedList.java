@@ -0,0 +1,350 @@
+package dll;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Doubly linked list for one writer thread and any number of reader
+ * threads. The writer uses the same operations as for DoublyLinkedList.
+ * Readers call snapshot() to get a stable view of the list at that moment.
+ * Taking a snapshot is O(1), does not copy the list and never blocks the
+ * writer.
+ *
+ * Every modification by the writer increments the version of the list.
+ * Elements remember the versions in which they were added and deleted.
+ * A deleted element stays linked until no open snapshot can still see it.
+ * Snapshots must therefore be closed after use (e.g., with
+ * try-with-resources); an open snapshot keeps the elements deleted after it
+ * in memory.
+ *
+ * @param <T> The type of the data objects to store
+ * @author agent
+ */
+public class SnapshotDoublyLinkedList<T> {
+    // sentinel before the first element; never visible to anyone
+    private final VersionedDLLElement<T> head;
+
+    // the latest version published by the writer
+    private volatile long version;
+
+    // number of live elements; only accessed by the writer
+    private int size;
+
+    // deleted elements that are still linked, in order of deletion;
+    // only accessed by the writer
+    private final Deque<VersionedDLLElement<T>> retired;
+
+    // the open snapshots, ordered by the version they pin
+    private final ConcurrentSkipListSet<Snapshot> openSnapshots;
+
+    // source of tie breakers for snapshots pinning the same version
+    private final AtomicLong snapshotIds;
+
+    /**
+     * Constructs an empty SnapshotDoublyLinkedList.
+     */
+    public SnapshotDoublyLinkedList() {
+        this.head = new VersionedDLLElement<>(null, Long.MAX_VALUE);
+        this.version = 0;
+        this.size = 0;
+        this.retired = new ArrayDeque<>();
+        this.openSnapshots = new ConcurrentSkipListSet<>(
+                Comparator.<Snapshot>comparingLong(s -> s.pinnedVersion)
+                        .thenComparingLong(s -> s.id));
+        this.snapshotIds = new AtomicLong();
+    }
+
+    /**
+     * Adds <code>value</code> at position <code>index</code> to this list.
+     * Must only be called by the writer thread.
+     *
+     * @param index we want to add <code>value</code> at this position,
+     *  0 <= index <= this.size() must hold
+     * @param value to be added
+     * @throws IllegalArgumentException if index < 0 or index > this.size()
+     */
+    public void addAtPosition(int index, T value) {
+        if (index < 0 || index > this.size) {
+            throw new IllegalArgumentException("Illegal index: " + index);
+        }
+        long newVersion = this.version + 1;
+        VersionedDLLElement<T> previous = index == 0 ? this.head : liveElementAt(index - 1);
+        VersionedDLLElement<T> newElem = new VersionedDLLElement<>(value, newVersion);
+        VersionedDLLElement<T> next = previous.getNext();
+
+        // fully initialise the new element before readers can reach it
+        newElem.setPrevious(previous);
+        newElem.setNext(next);
+        if (next != null) {
+            next.setPrevious(newElem);
+        }
+        previous.setNext(newElem);
+        this.size++;
+        publish(newVersion);
+    }
+
+    /**
+     * Retrieves the index-th element from this list as seen by the writer.
+     * Must only be called by the writer thread.
+     *
+     * @param index the position from which we want to retrieve the stored
+     *  data; 0 <= index and index < this.size() must hold
+     * @return the element at position index in this list
+     * @throws IllegalArgumentException if index < 0 or index >= this.size()
+     */
+    public T get(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IllegalArgumentException("Illegal index: " + index);
+        }
+        return liveElementAt(index).getData();
+    }
+
+    /**
+     * Deletes the index-th element from this list. Must only be called by
+     * the writer thread.
+     *
+     * @param index the position at which we want to delete the stored
+     *  data from the list; 0 <= index and index < this.size() must hold
+     * @throws IllegalArgumentException if index < 0 or index >= this.size()
+     */
+    public void delete(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IllegalArgumentException("Illegal index: " + index);
+        }
+        long newVersion = this.version + 1;
+        VersionedDLLElement<T> target = liveElementAt(index);
+        // only mark the element; open snapshots may still need it
+        target.setDeletedVersion(newVersion);
+        this.retired.addLast(target);
+        this.size--;
+        publish(newVersion);
+    }
+
+    /**
+     * @return true if this list is empty; false otherwise
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * @return the number of elements in this list as seen by the writer
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns a stable view of the current contents of this list. Safe to
+     * call from any thread. The view does not change under later
+     * modifications and should be closed once it is no longer needed.
+     *
+     * @return a snapshot of the current state of this list
+     */
+    public Snapshot snapshot() {
+        Snapshot result = new Snapshot(this.version, this.snapshotIds.getAndIncrement());
+        this.openSnapshots.add(result);
+        // The writer may have reclaimed elements before it could see our
+        // registration, but then only up to a version it had already
+        // published. Reading the version again after registering gives us
+        // a version whose elements are all still linked.
+        result.version = this.version;
+        return result;
+    }
+
+    /**
+     * @return the number of deleted elements that are still kept for open
+     *  snapshots
+     */
+    public int retiredCount() {
+        return this.retired.size();
+    }
+
+    /**
+     * Return the index-th live element, skipping elements that are deleted
+     * but still linked.
+     *
+     * @param index 0 <= index < this.size must hold
+     * @return the index-th live element
+     */
+    private VersionedDLLElement<T> liveElementAt(int index) {
+        assert index >= 0 && index < this.size;
+        VersionedDLLElement<T> current = this.head.getNext();
+        int liveSeen = 0;
+        while (true) {
+            if (current.isLive()) {
+                if (liveSeen == index) {
+                    return current;
+                }
+                liveSeen++;
+            }
+            current = current.getNext();
+        }
+    }
+
+    /**
+     * Makes newVersion visible to new snapshots and unlinks the deleted
+     * elements that no open snapshot can see any more.
+     *
+     * @param newVersion the version just produced by the writer
+     */
+    private void publish(long newVersion) {
+        this.version = newVersion;
+        long oldestVisible = newVersion;
+        if (!this.openSnapshots.isEmpty()) {
+            try {
+                oldestVisible = Math.min(oldestVisible,
+                        this.openSnapshots.first().pinnedVersion);
+            } catch (NoSuchElementException e) {
+                // the last snapshot was closed in the meantime
+            }
+        }
+        while (!this.retired.isEmpty()
+                && this.retired.peekFirst().getDeletedVersion() <= oldestVisible) {
+            unlink(this.retired.removeFirst());
+        }
+    }
+
+    /**
+     * Removes a deleted element from the chain of next references. The
+     * element keeps its own next reference so that a reader that currently
+     * stands on it can continue its walk.
+     *
+     * @param elem a deleted element that is still linked
+     */
+    private static <T> void unlink(VersionedDLLElement<T> elem) {
+        VersionedDLLElement<T> previous = elem.getPrevious();
+        VersionedDLLElement<T> next = elem.getNext();
+        if (next != null) {
+            next.setPrevious(previous);
+        }
+        previous.setNext(next);
+    }
+
+    /**
+     * @return a String representation of this list as seen by the writer
+     */
+    @Override
+    public String toString() {
+        return toString(this.head, Long.MAX_VALUE - 1);
+    }
+
+    /**
+     * @param head the sentinel of the list
+     * @param version the version to show; Long.MAX_VALUE - 1 shows the live
+     *  elements
+     * @return a String representation of the elements visible at version
+     */
+    private static <T> String toString(VersionedDLLElement<T> head, long version) {
+        StringBuilder result = new StringBuilder();
+        result.append('[');
+        boolean first = true;
+        for (VersionedDLLElement<T> current = head.getNext();
+             current != null;
+             current = current.getNext()) {
+            if (!current.isVisibleAt(version)) {
+                continue;
+            }
+            if (first) { // use commas only from the second iteration onwards
+                first = false;
+            } else {
+                result.append(',');
+            }
+            result.append(current.toString());
+        }
+        result.append(']');
+        return result.toString();
+    }
+
+    /**
+     * A read-only view of a SnapshotDoublyLinkedList at a fixed version.
+     * A Snapshot may be used by several reader threads at once.
+     */
+    public final class Snapshot implements Iterable<T>, AutoCloseable {
+        // the version below which the writer must keep deleted elements
+        private final long pinnedVersion;
+        // tie breaker for snapshots with the same pinnedVersion
+        private final long id;
+        // the version this snapshot shows; >= pinnedVersion
+        private volatile long version;
+
+        private Snapshot(long pinnedVersion, long id) {
+            this.pinnedVersion = pinnedVersion;
+            this.id = id;
+            this.version = pinnedVersion;
+        }
+
+        /**
+         * @return the version of the list shown by this snapshot
+         */
+        public long getVersion() {
+            return this.version;
+        }
+
+        /**
+         * @return the number of elements in this snapshot; O(n)
+         */
+        public int size() {
+            int result = 0;
+            for (@SuppressWarnings("unused") T data : this) {
+                result++;
+            }
+            return result;
+        }
+
+        /**
+         * @return an iterator over the elements of this snapshot
+         */
+        @Override
+        public Iterator<T> iterator() {
+            final long version = this.version;
+            return new Iterator<T>() {
+                private VersionedDLLElement<T> nextElem = advance(head.getNext());
+
+                private VersionedDLLElement<T> advance(VersionedDLLElement<T> elem) {
+                    while (elem != null && !elem.isVisibleAt(version)) {
+                        elem = elem.getNext();
+                    }
+                    return elem;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return this.nextElem != null;
+                }
+
+                @Override
+                public T next() {
+                    if (this.nextElem == null) {
+                        throw new NoSuchElementException();
+                    }
+                    T result = this.nextElem.getData();
+                    this.nextElem = advance(this.nextElem.getNext());
+                    return result;
+                }
+            };
+        }
+
+        /**
+         * Releases this snapshot so that the writer can unlink the elements
+         * deleted after it. The snapshot must not be used afterwards.
+         */
+        @Override
+        public void close() {
+            openSnapshots.remove(this);
+        }
+
+        /**
+         * @return a String representation of this snapshot
+         */
+        @Override
+        public String toString() {
+            return SnapshotDoublyLinkedList.toString(head, this.version);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package dll;
+
+/**
+ * Helper class for SnapshotDoublyLinkedList. Besides its neighbours and its
+ * data, an element records the version of the list in which it was added
+ * and the version in which it was deleted, so that a snapshot taken at
+ * version v sees exactly the elements with addedVersion <= v < deletedVersion.
+ *
+ * @param <T> The type of the data to store
+ * @author agent
+ */
+public class VersionedDLLElement<T> {
+    // next element in the list; read by concurrent snapshot readers
+    private volatile VersionedDLLElement<T> next;
+    // previous element in the list; only used by the writer
+    private VersionedDLLElement<T> previous;
+    private final T data; // the encapsulated data
+    private final long addedVersion; // version in which this element was added
+    // version in which this element was deleted; Long.MAX_VALUE while live
+    private volatile long deletedVersion;
+
+    /**
+     * Constructs a new live VersionedDLLElement which encapsulates data and
+     * has null as previous and next elements.
+     *
+     * @param data to be stored
+     * @param addedVersion the version of the list that adds this element
+     */
+    public VersionedDLLElement(T data, long addedVersion) {
+        this.data = data;
+        this.addedVersion = addedVersion;
+        this.deletedVersion = Long.MAX_VALUE;
+    }
+
+    /**
+     * @return the next
+     */
+    public VersionedDLLElement<T> getNext() {
+        return next;
+    }
+
+    /**
+     * @param next the next to set
+     */
+    public void setNext(VersionedDLLElement<T> next) {
+        this.next = next;
+    }
+
+    /**
+     * @return the previous
+     */
+    public VersionedDLLElement<T> getPrevious() {
+        return previous;
+    }
+
+    /**
+     * @param previous the previous to set
+     */
+    public void setPrevious(VersionedDLLElement<T> previous) {
+        this.previous = previous;
+    }
+
+    /**
+     * @return the data
+     */
+    public T getData() {
+        return data;
+    }
+
+    /**
+     * @return the version in which this element was added
+     */
+    public long getAddedVersion() {
+        return addedVersion;
+    }
+
+    /**
+     * @return the version in which this element was deleted, or
+     *  Long.MAX_VALUE if it has not been deleted
+     */
+    public long getDeletedVersion() {
+        return deletedVersion;
+    }
+
+    /**
+     * @param deletedVersion the version in which this element is deleted
+     */
+    public void setDeletedVersion(long deletedVersion) {
+        this.deletedVersion = deletedVersion;
+    }
+
+    /**
+     * @return whether this element has not been deleted
+     */
+    public boolean isLive() {
+        return this.deletedVersion == Long.MAX_VALUE;
+    }
+
+    /**
+     * @param version a version of the list
+     * @return whether this element belongs to the list at version
+     */
+    public boolean isVisibleAt(long version) {
+        return this.addedVersion <= version && version < this.deletedVersion;
+    }
+
+    /**
+     * @return a String representation of just the encapsulated object
+     */
+    @Override
+    public String toString() {
+        return this.data.toString();
+    }
+}
@@ -0,0 +1,163 @@
+package dllTest;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import dll.BlockingDLLDeque;
+
+/**
+ * Test cases for the class BlockingDLLDeque.
+ *
+ * @author agent
+ */
+public class BlockingDLLDequeTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_capacityZero() {
+        new BlockingDLLDeque<Integer>(0);
+    }
+
+    @Test
+    public void test_offerAndPoll_bothEnds() {
+        BlockingDLLDeque<Integer> deque = new BlockingDLLDeque<>(3);
+        assertTrue(deque.offerLast(2));
+        assertTrue(deque.offerFirst(1));
+        assertTrue(deque.offerLast(3));
+        assertFalse(deque.offerLast(4));
+        assertEquals("[1,2,3]", deque.toString());
+        assertEquals(3, (int) deque.pollLast());
+        assertEquals(1, (int) deque.pollFirst());
+        assertEquals(2, (int) deque.peekFirst());
+        assertEquals(2, deque.remainingCapacity());
+    }
+
+    @Test
+    public void test_pollEmpty_null() {
+        BlockingDLLDeque<Integer> deque = new BlockingDLLDeque<>(1);
+        assertNull(deque.pollFirst());
+        assertNull(deque.pollLast());
+        assertNull(deque.peekLast());
+    }
+
+    @Test
+    public void test_timedOperations_timeOut() throws InterruptedException {
+        BlockingDLLDeque<Integer> deque = new BlockingDLLDeque<>(1);
+        assertNull(deque.pollFirst(10, TimeUnit.MILLISECONDS));
+        deque.putLast(1);
+        assertFalse(deque.offerLast(2, 10, TimeUnit.MILLISECONDS));
+        assertEquals(1, deque.size());
+    }
+
+    @Test
+    public void test_offerAll_stopsWhenFull() {
+        BlockingDLLDeque<Integer> deque = new BlockingDLLDeque<>(3);
+        assertEquals(3, deque.offerAll(Arrays.asList(1, 2, 3, 4, 5)));
+        assertEquals("[1,2,3]", deque.toString());
+    }
+
+    @Test
+    public void test_timedOfferAll_timeOutAfterPartialInsert() throws InterruptedException {
+        BlockingDLLDeque<Integer> deque = new BlockingDLLDeque<>(3);
+        assertEquals(3, deque.offerAll(Arrays.asList(1, 2, 3, 4, 5), 10, TimeUnit.MILLISECONDS));
+        assertEquals("[1,2,3]", deque.toString());
+        assertEquals(0, deque.offerAll(Arrays.asList(6), 10, TimeUnit.MILLISECONDS));
+        assertEquals("[1,2,3]", deque.toString());
+    }
+
+    /**
+     * A producer is interrupted while it waits for space after adding some
+     * elements: it must report those instead of throwing.
+     */
+    @Test
+    public void test_timedOfferAll_interruptAfterPartialInsert() throws InterruptedException {
+        BlockingDLLDeque<Integer> deque = new BlockingDLLDeque<>(3);
+        AtomicInteger added = new AtomicInteger(-1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        Thread producer = new Thread(() -> {
+            try {
+                added.set(deque.offerAll(Arrays.asList(1, 2, 3, 4, 5), 1, TimeUnit.MINUTES));
+                interrupted.set(Thread.currentThread().isInterrupted());
+            } catch (InterruptedException e) {
+                // wrong: leaves added at -1
+            }
+        });
+        producer.start();
+        while (producer.getState() != Thread.State.TIMED_WAITING) {
+            Thread.sleep(1);
+        }
+        producer.interrupt();
+        producer.join();
+        assertEquals(3, added.get());
+        assertTrue(interrupted.get());
+        assertEquals("[1,2,3]", deque.toString());
+    }
+
+    @Test(expected = InterruptedException.class)
+    public void test_timedOfferAll_interruptBeforeInsert() throws InterruptedException {
+        BlockingDLLDeque<Integer> deque = new BlockingDLLDeque<>(1);
+        deque.putLast(0);
+        Thread.currentThread().interrupt();
+        try {
+            deque.offerAll(Arrays.asList(1, 2), 1, TimeUnit.MINUTES);
+        } finally {
+            assertEquals("[0]", deque.toString());
+        }
+    }
+
+    @Test
+    public void test_drainTo_maxElements() {
+        BlockingDLLDeque<Integer> deque = new BlockingDLLDeque<>(5);
+        deque.offerAll(Arrays.asList(1, 2, 3, 4));
+        List<Integer> target = new ArrayList<>();
+        assertEquals(3, deque.drainTo(target, 3));
+        assertEquals(Arrays.asList(1, 2, 3), target);
+        assertEquals(1, deque.drainTo(target));
+        assertEquals(0, deque.size());
+    }
+
+    @Test
+    public void test_producersAndConsumers_allItemsArrive() throws InterruptedException {
+        final int threads = 8;
+        final int items = 5000;
+        BlockingDLLDeque<Integer> deque = new BlockingDLLDeque<>(16);
+        AtomicLong sum = new AtomicLong();
+        List<Thread> all = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            all.add(new Thread(() -> {
+                try {
+                    for (int i = 1; i <= items; i++) {
+                        deque.putLast(i);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            all.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < items; i++) {
+                        sum.addAndGet(deque.takeFirst());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        for (Thread thread : all) {
+            thread.start();
+        }
+        for (Thread thread : all) {
+            thread.join();
+        }
+        assertEquals((long) threads * items * (items + 1) / 2, sum.get());
+        assertEquals(0, deque.size());
+    }
+}
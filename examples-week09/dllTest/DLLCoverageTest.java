@@ -2,6 +2,8 @@ package dllTest;
 
 import static org.junit.Assert.*;
 
+import java.util.NoSuchElementException;
+
 import org.junit.Test;
 
 import dll.DoublyLinkedList;
@@ -255,4 +257,46 @@ public class DLLCoverageTest {
         DoublyLinkedList<Integer> list = buildIntegerDLLSize2(SOME_INT, SOME_INT_2);
         assertEquals("[" + SOME_INT + "," + SOME_INT_2 + "]", list.toString());
     }
+
+    @Test
+    public void test_addLast_nonEmpty_31() {
+        DoublyLinkedList<Integer> list = buildIntegerDLLSize1(SOME_INT);
+        list.addLast(SOME_INT_2);
+        assertEquals("[" + SOME_INT + "," + SOME_INT_2 + "]", list.toString());
+    }
+
+    @Test
+    public void test_addFirst_addLast_empty_32() {
+        DoublyLinkedList<Integer> list = new DoublyLinkedList<>();
+        list.addLast(SOME_INT);
+        list.addFirst(SOME_INT_2);
+        int value = list.getLast();
+        assertEquals(SOME_INT, value);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void test_getFirst_empty_33() {
+        DoublyLinkedList<Integer> empty = new DoublyLinkedList<>();
+        empty.getFirst();
+    }
+
+    @Test
+    public void test_removeLast_doubletonList_34() {
+        DoublyLinkedList<Integer> list = buildIntegerDLLSize2(SOME_INT, SOME_INT_2);
+        int value = list.removeLast();
+        assertEquals(SOME_INT_2, value);
+        assertEquals("[" + SOME_INT + "]", list.toString());
+    }
+
+    @Test
+    public void test_removeFirst_removeLast_singletonList_35() {
+        DoublyLinkedList<Integer> list = buildIntegerDLLSize1(SOME_INT);
+        int value = list.removeLast();
+        assertEquals(SOME_INT, value);
+        assertTrue(list.isEmpty());
+        list.addLast(SOME_INT_3);
+        value = list.removeFirst();
+        assertEquals(SOME_INT_3, value);
+        assertTrue(list.isEmpty());
+    }
 }
@@ -0,0 +1,101 @@
+package dllTest;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import org.junit.Test;
+
+import dll.DoublyLinkedList;
+import dll.ReversedDLLView;
+
+/**
+ * Test cases for iterating over a DoublyLinkedList in both directions.
+ *
+ * @author agent
+ */
+public class DLLIterationTest {
+
+    /**
+     * @return a DLL which should be [1,2,3,4,5]
+     */
+    private static DoublyLinkedList<Integer> buildIntegerDLL() {
+        DoublyLinkedList<Integer> dll = new DoublyLinkedList<>();
+        for (int i = 1; i <= 5; i++) {
+            dll.addLast(i);
+        }
+        return dll;
+    }
+
+    @Test
+    public void test_iterator_forward() {
+        List<Integer> result = new ArrayList<>();
+        for (int value : buildIntegerDLL()) {
+            result.add(value);
+        }
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), result);
+    }
+
+    @Test
+    public void test_descendingIterator() {
+        List<Integer> result = new ArrayList<>();
+        buildIntegerDLL().descendingIterator().forEachRemaining(result::add);
+        assertEquals(Arrays.asList(5, 4, 3, 2, 1), result);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void test_iterator_empty() {
+        Iterator<Integer> it = new DoublyLinkedList<Integer>().iterator();
+        assertFalse(it.hasNext());
+        it.next();
+    }
+
+    @Test
+    public void test_reversed_get() {
+        ReversedDLLView<Integer> view = buildIntegerDLL().reversed();
+        int value = view.get(0);
+        assertEquals(5, value);
+        value = view.get(4);
+        assertEquals(1, value);
+        assertEquals("[5,4,3,2,1]", view.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_reversed_get_indexTooLarge() {
+        buildIntegerDLL().reversed().get(5);
+    }
+
+    @Test
+    public void test_reversed_isLive() {
+        DoublyLinkedList<Integer> list = buildIntegerDLL();
+        ReversedDLLView<Integer> view = list.reversed();
+        view.addAtPosition(0, 6); // appends to list
+        view.addAtPosition(6, 0); // prepends to list
+        view.delete(3); // deletes 3 from list
+        assertEquals("[0,1,2,4,5,6]", list.toString());
+        assertEquals("[6,5,4,2,1,0]", view.toString());
+        assertSame(list, view.reversed());
+    }
+
+    @Test
+    public void test_parallelStream_bothDirections() {
+        DoublyLinkedList<Integer> list = new DoublyLinkedList<>();
+        for (int i = 0; i < 10000; i++) {
+            list.addLast(i);
+        }
+        int sum = StreamSupport.stream(list.spliterator(), true)
+                .mapToInt(Integer::intValue).sum();
+        assertEquals(10000 * 9999 / 2, sum);
+        List<Integer> descending = StreamSupport.stream(list.reversed().spliterator(), true)
+                .collect(Collectors.toList());
+        assertEquals(10000, descending.size());
+        assertEquals(9999, (int) descending.get(0));
+        assertEquals(0, (int) descending.get(9999));
+    }
+}
@@ -0,0 +1,180 @@
+package dllTest;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import dll.Codec;
+import dll.DurableDoublyLinkedList;
+import dll.FsyncPolicy;
+
+/**
+ * Test cases for the class DurableDoublyLinkedList.
+ *
+ * @author agent
+ */
+public class DurableDoublyLinkedListTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private DurableDoublyLinkedList<String> open(Path dir, int snapshotInterval)
+            throws IOException {
+        return new DurableDoublyLinkedList<>(dir, Codec.strings(), FsyncPolicy.GROUP, 4,
+                snapshotInterval);
+    }
+
+    @Test
+    public void test_recoverFromLog() throws IOException {
+        Path dir = folder.getRoot().toPath();
+        try (DurableDoublyLinkedList<String> list = open(dir, 0)) {
+            list.addAtPosition(0, "b");
+            list.addAtPosition(0, "a");
+            list.addAtPosition(2, "d");
+            list.addAtPosition(2, "c");
+            list.delete(1);
+        }
+        try (DurableDoublyLinkedList<String> list = open(dir, 0)) {
+            assertEquals("[a,c,d]", list.toString());
+            assertEquals(3, list.size());
+        }
+    }
+
+    @Test
+    public void test_recoverFromSnapshotAndLog() throws IOException {
+        Path dir = folder.getRoot().toPath();
+        try (DurableDoublyLinkedList<String> list = open(dir, 3)) {
+            for (int i = 0; i < 7; i++) { // snapshots after 3 and 6 ops
+                list.addAtPosition(i, "x" + i);
+            }
+            list.delete(0);
+        }
+        try (DurableDoublyLinkedList<String> list = open(dir, 3)) {
+            assertEquals("[x1,x2,x3,x4,x5,x6]", list.toString());
+            list.addAtPosition(6, "y");
+        }
+        try (DurableDoublyLinkedList<String> list = open(dir, 3)) {
+            assertEquals("[x1,x2,x3,x4,x5,x6,y]", list.toString());
+        }
+    }
+
+    @Test
+    public void test_tornRecordIgnored() throws IOException {
+        Path dir = folder.getRoot().toPath();
+        try (DurableDoublyLinkedList<String> list = open(dir, 0)) {
+            list.addAtPosition(0, "a");
+            list.addAtPosition(1, "bb");
+        }
+        // cut off the last two bytes of the second record
+        Path wal = dir.resolve("wal-0");
+        try (FileChannel channel = FileChannel.open(wal, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 2);
+        }
+        try (DurableDoublyLinkedList<String> list = open(dir, 0)) {
+            assertEquals("[a]", list.toString());
+            list.addAtPosition(1, "c");
+        }
+        try (DurableDoublyLinkedList<String> list = open(dir, 0)) {
+            assertEquals("[a,c]", list.toString());
+        }
+    }
+
+    @Test
+    public void test_garbageLengthIgnored() throws IOException {
+        Path dir = folder.getRoot().toPath();
+        try (DurableDoublyLinkedList<String> list = open(dir, 0)) {
+            list.addAtPosition(0, "a");
+        }
+        // a torn header whose length claims almost 2 GB
+        Path wal = dir.resolve("wal-0");
+        try (FileChannel channel = FileChannel.open(wal, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] { 0x7f, (byte) 0xff, (byte) 0xff,
+                    (byte) 0xf0, 0, 0, 0, 0, 1, 2, 3 }));
+        }
+        try (DurableDoublyLinkedList<String> list = open(dir, 0)) {
+            assertEquals("[a]", list.toString());
+            list.addAtPosition(1, "b");
+        }
+        try (DurableDoublyLinkedList<String> list = open(dir, 0)) {
+            assertEquals("[a,b]", list.toString());
+        }
+    }
+
+    @Test
+    public void test_closeTwice() throws IOException {
+        DurableDoublyLinkedList<String> list = open(folder.getRoot().toPath(), 0);
+        list.addAtPosition(0, "a");
+        list.close();
+        list.close();
+    }
+
+    @Test(expected = IOException.class)
+    public void test_addAfterClose() throws IOException {
+        DurableDoublyLinkedList<String> list = open(folder.getRoot().toPath(), 0);
+        list.close();
+        list.addAtPosition(0, "a");
+    }
+
+    /**
+     * The automatic snapshot after the second add fails because a
+     * directory is in the way of its temporary file; from then on the
+     * list must reject every write, and recovery decides what survives.
+     */
+    @Test
+    public void test_failStopAfterFailedWrite() throws IOException {
+        Path dir = folder.getRoot().toPath();
+        Files.createDirectory(dir.resolve("snapshot.tmp"));
+        DurableDoublyLinkedList<String> list = new DurableDoublyLinkedList<>(dir,
+                Codec.strings(), FsyncPolicy.ALWAYS, 1, 2);
+        list.addAtPosition(0, "a");
+        try {
+            list.addAtPosition(1, "b");
+            fail("snapshot should have failed");
+        } catch (IOException expected) {
+        }
+        try {
+            list.addAtPosition(0, "c");
+            fail("write after a failure should be rejected");
+        } catch (IOException expected) {
+        }
+        try {
+            list.delete(0);
+            fail("write after a failure should be rejected");
+        } catch (IOException expected) {
+        }
+        try {
+            list.sync();
+            fail("sync after a failure should be rejected");
+        } catch (IOException expected) {
+        }
+        assertEquals("[a,b]", list.toString());
+        list.close();
+        list.close();
+
+        Files.delete(dir.resolve("snapshot.tmp"));
+        try (DurableDoublyLinkedList<String> recovered = open(dir, 0)) {
+            assertEquals("[a,b]", recovered.toString());
+            recovered.addAtPosition(0, "c");
+        }
+        try (DurableDoublyLinkedList<String> recovered = open(dir, 0)) {
+            assertEquals("[c,a,b]", recovered.toString());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_delete_empty() throws IOException {
+        try (DurableDoublyLinkedList<String> list = open(folder.getRoot().toPath(), 0)) {
+            list.delete(0);
+        }
+    }
+}
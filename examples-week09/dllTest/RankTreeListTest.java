@@ -0,0 +1,89 @@
+package dllTest;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import dll.DoublyLinkedList;
+import dll.RankTreeList;
+
+/**
+ * Test cases for the class RankTreeList, mostly checking that it behaves
+ * like a DoublyLinkedList.
+ *
+ * @author agent
+ */
+public class RankTreeListTest {
+    // some pairwise different integer values
+    private static int SOME_INT = 42;
+    private static int SOME_INT_2 = -9;
+    private static int SOME_INT_3 = 16;
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_addAtPosition_indexNegative() {
+        RankTreeList<Integer> empty = new RankTreeList<>();
+        empty.addAtPosition(-1, SOME_INT);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_addAtPosition_indexTooLarge() {
+        RankTreeList<Integer> list = new RankTreeList<>();
+        list.addAtPosition(0, SOME_INT);
+        list.addAtPosition(2, SOME_INT_2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_get_empty() {
+        RankTreeList<Integer> empty = new RankTreeList<>();
+        empty.get(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_delete_indexTooLarge() {
+        RankTreeList<Integer> list = new RankTreeList<>();
+        list.addAtPosition(0, SOME_INT);
+        list.delete(1);
+    }
+
+    @Test
+    public void test_addAtPosition_middle() {
+        RankTreeList<Integer> list = new RankTreeList<>();
+        list.addAtPosition(0, SOME_INT);
+        list.addAtPosition(1, SOME_INT_2);
+        list.addAtPosition(1, SOME_INT_3);
+        assertEquals("[" + SOME_INT + "," + SOME_INT_3 + "," + SOME_INT_2 + "]",
+                list.toString());
+        assertEquals(3, list.size());
+    }
+
+    @Test
+    public void test_toString_empty() {
+        assertEquals("[]", new RankTreeList<Integer>().toString());
+    }
+
+    @Test
+    public void test_randomOperations_sameAsDLL() {
+        Random random = new Random(1234);
+        DoublyLinkedList<Integer> expected = new DoublyLinkedList<>();
+        RankTreeList<Integer> actual = new RankTreeList<>(new Random(99));
+        for (int i = 0; i < 2000; i++) {
+            int size = expected.size();
+            if (size > 0 && random.nextInt(3) == 0) {
+                int index = random.nextInt(size);
+                expected.delete(index);
+                actual.delete(index);
+            } else {
+                int index = random.nextInt(size + 1);
+                expected.addAtPosition(index, i);
+                actual.addAtPosition(index, i);
+            }
+            assertEquals(expected.size(), actual.size());
+        }
+        assertEquals(expected.toString(), actual.toString());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), actual.get(i));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package dllTest;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import dll.SnapshotDoublyLinkedList;
+
+/**
+ * Test cases for the class SnapshotDoublyLinkedList.
+ *
+ * @author agent
+ */
+public class SnapshotDoublyLinkedListTest {
+
+    /**
+     * @return a list [1,2,3,4,5]
+     */
+    private static SnapshotDoublyLinkedList<Integer> buildIntegerList() {
+        SnapshotDoublyLinkedList<Integer> list = new SnapshotDoublyLinkedList<>();
+        for (int i = 0; i < 5; i++) {
+            list.addAtPosition(i, i + 1);
+        }
+        return list;
+    }
+
+    @Test
+    public void test_writerOperations() {
+        SnapshotDoublyLinkedList<Integer> list = buildIntegerList();
+        list.delete(0);
+        list.addAtPosition(2, 9);
+        assertEquals("[2,3,9,4,5]", list.toString());
+        assertEquals(5, list.size());
+        assertEquals(9, (int) list.get(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_delete_indexTooLarge() {
+        buildIntegerList().delete(5);
+    }
+
+    @Test
+    public void test_snapshot_unaffectedByLaterChanges() {
+        SnapshotDoublyLinkedList<Integer> list = buildIntegerList();
+        try (SnapshotDoublyLinkedList<Integer>.Snapshot snapshot = list.snapshot()) {
+            list.delete(2);
+            list.addAtPosition(0, 0);
+            list.delete(4);
+            assertEquals("[1,2,3,4,5]", snapshot.toString());
+            assertEquals(5, snapshot.size());
+            assertEquals("[0,1,2,4]", list.toString());
+        }
+    }
+
+    @Test
+    public void test_deletedElementsReclaimedAfterClose() {
+        SnapshotDoublyLinkedList<Integer> list = buildIntegerList();
+        SnapshotDoublyLinkedList<Integer>.Snapshot snapshot = list.snapshot();
+        list.delete(0);
+        list.delete(0);
+        assertEquals(2, list.retiredCount());
+        snapshot.close();
+        list.delete(0);
+        assertEquals(0, list.retiredCount());
+        assertEquals("[4,5]", list.toString());
+    }
+
+    @Test
+    public void test_concurrentReaders_seeConsistentSnapshots() throws InterruptedException {
+        // the writer appends increasing numbers and deletes from the front,
+        // so every consistent state is a run of 100 or 101 consecutive numbers
+        SnapshotDoublyLinkedList<Integer> list = new SnapshotDoublyLinkedList<>();
+        for (int i = 0; i < 100; i++) {
+            list.addAtPosition(i, i);
+        }
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            Thread reader = new Thread(() -> {
+                while (!stop.get()) {
+                    try (SnapshotDoublyLinkedList<Integer>.Snapshot snapshot = list.snapshot()) {
+                        Integer previous = null;
+                        int count = 0;
+                        for (int value : snapshot) {
+                            if (previous != null && value != previous + 1) {
+                                failure.set("not consecutive: " + snapshot);
+                            }
+                            previous = value;
+                            count++;
+                        }
+                        if (count != 100 && count != 101) {
+                            failure.set("wrong size " + count);
+                        }
+                    }
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+        for (int i = 100; i < 20000; i++) {
+            list.addAtPosition(100, i);
+            list.delete(0);
+        }
+        stop.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertNull(failure.get(), failure.get());
+    }
+}